@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl;
+
+import java.util.OptionalInt;
+
+import org.kcctl.daemon.DaemonClient;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.annotations.QuarkusMain;
+
+/**
+ * Entry point of kcctl. Commands are sent to the daemon if one is running, avoiding the start-up of the
+ * application; otherwise they are executed in-process.
+ */
+@QuarkusMain
+public class KcctlMain {
+
+    public static void main(String... args) {
+        OptionalInt exitCode = DaemonClient.tryExecute(args);
+
+        if (exitCode.isPresent()) {
+            System.exit(exitCode.getAsInt());
+        }
+
+        Quarkus.run(KcctlApplication.class, args);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.kcctl.util.RoutingPrintStream;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Help.Ansi;
+import picocli.CommandLine.IExecutionStrategy;
+
+/**
+ * Executes the commands of a batch within the current process, so that clients and configuration are shared
+ * between them. Commands run on a bounded number of workers, each with its own {@link CommandLine}; the output
+ * of each command is captured separately and passed on with its result.
+ */
+public class BatchExecutor {
+
+    private static final Set<String> UNSUPPORTED_COMMANDS = Set.of("batch", "daemon");
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Supplier<CommandLine> commandLineFactory;
+    private final int parallelism;
+    private final boolean failFast;
+
+    public BatchExecutor(Supplier<CommandLine> commandLineFactory, int parallelism, boolean failFast) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+
+        this.commandLineFactory = commandLineFactory;
+        this.parallelism = parallelism;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Executes the given requests, passing the result of each one to the given consumer as soon as it is
+     * available. With more than one worker, results may be passed in another order than the requests were given.
+     * The requests are consumed lazily, at most twice the number of workers are pending at any time.
+     */
+    public Summary execute(Iterator<BatchRequest> requests, Consumer<BatchResult> results) {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+
+        // within the daemon, the streams are routed already and must stay in place for other requests
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        RoutingPrintStream routedOut = originalOut instanceof RoutingPrintStream ? (RoutingPrintStream) originalOut : new RoutingPrintStream(originalOut);
+        RoutingPrintStream routedErr = originalErr instanceof RoutingPrintStream ? (RoutingPrintStream) originalErr : new RoutingPrintStream(originalErr);
+        System.setOut(routedOut);
+        System.setErr(routedErr);
+
+        BlockingQueue<CommandLine> workers = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(newCommandLine(routedOut, routedErr));
+        }
+
+        try {
+            if (parallelism == 1) {
+                CommandLine commandLine = workers.poll();
+                while (requests.hasNext() && !(failFast && summary.failed.get() > 0)) {
+                    BatchResult result = execute(commandLine, requests.next(), routedOut, routedErr);
+                    summary.completed(result);
+                    results.accept(result);
+                }
+            }
+            else {
+                executeConcurrently(requests, results, summary, workers, routedOut, routedErr);
+            }
+
+            while (requests.hasNext()) {
+                requests.next();
+                summary.skipped.incrementAndGet();
+            }
+        }
+        finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        summary.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return summary;
+    }
+
+    private void executeConcurrently(Iterator<BatchRequest> requests, Consumer<BatchResult> results, Summary summary,
+                                     BlockingQueue<CommandLine> workers, RoutingPrintStream routedOut, RoutingPrintStream routedErr) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "kcctl-batch-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore pending = new Semaphore(parallelism * 2);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        try {
+            while (requests.hasNext() && !(failFast && failed.get())) {
+                BatchRequest request = requests.next();
+                pending.acquire();
+
+                executor.execute(() -> {
+                    try {
+                        CommandLine commandLine = workers.take();
+                        try {
+                            BatchResult result = execute(commandLine, request, routedOut, routedErr);
+                            failed.compareAndSet(false, result.exit_code != 0);
+
+                            synchronized (results) {
+                                summary.completed(result);
+                                results.accept(result);
+                            }
+                        }
+                        finally {
+                            workers.add(commandLine);
+                        }
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally {
+                        pending.release();
+                    }
+                });
+            }
+
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while executing batch", e);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchResult execute(CommandLine commandLine, BatchRequest request, RoutingPrintStream routedOut, RoutingPrintStream routedErr) {
+        if (!request.isValid()) {
+            return new BatchResult(request, CommandLine.ExitCode.USAGE, 0, null, request.error);
+        }
+        else if (!request.args.isEmpty() && UNSUPPORTED_COMMANDS.contains(request.args.get(0))) {
+            return new BatchResult(request, CommandLine.ExitCode.USAGE, 0, null, "'" + request.args.get(0) + "' cannot be used within a batch");
+        }
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        PrintStream previousOut = routedOut.routeCurrentThread(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+        PrintStream previousErr = routedErr.routeCurrentThread(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+        long start = System.nanoTime();
+        int exitCode;
+        try {
+            exitCode = commandLine.execute(request.args.toArray(new String[0]));
+        }
+        finally {
+            commandLine.getOut().flush();
+            commandLine.getErr().flush();
+            routedOut.routeCurrentThread(previousOut);
+            routedErr.routeCurrentThread(previousErr);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        return new BatchResult(request, exitCode, durationMs, stdout.toString(StandardCharsets.UTF_8), stderr.toString(StandardCharsets.UTF_8));
+    }
+
+    private CommandLine newCommandLine(PrintStream out, PrintStream err) {
+        CommandLine commandLine = commandLineFactory.get();
+        commandLine.setOut(new PrintWriter(out, true));
+        commandLine.setErr(new PrintWriter(err, true));
+        commandLine.setColorScheme(Help.defaultColorScheme(Ansi.OFF));
+
+        // the default strategy remembers the streams at its creation and would reset the writers set above
+        IExecutionStrategy strategy = commandLine.getExecutionStrategy();
+        commandLine.setExecutionStrategy(strategy::execute);
+
+        return commandLine;
+    }
+
+    public static class Summary {
+
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private long durationMs;
+
+        private void completed(BatchResult result) {
+            if (result.exit_code == 0) {
+                succeeded.incrementAndGet();
+            }
+            else {
+                failed.incrementAndGet();
+            }
+        }
+
+        public int getSucceeded() {
+            return succeeded.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.batch;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kcctl.util.Strings;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One command of a batch, given either as a command line or as a JSON object with an optional {@code id} and
+ * either an {@code args} array or a {@code command} string, e.g. {@code {"id": "step-1", "args": ["describe",
+ * "connector", "my-connector"]}}. A leading {@code kcctl} is ignored.
+ */
+public class BatchRequest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public final int line;
+    public final String id;
+    public final List<String> args;
+    public final String error;
+
+    private BatchRequest(int line, String id, List<String> args, String error) {
+        this.line = line;
+        this.id = id;
+        this.args = args;
+        this.error = error;
+    }
+
+    /**
+     * Parses the given input line, returning {@code null} for blank lines and comments starting with {@code #}.
+     * Malformed requests are returned with an error.
+     */
+    public static BatchRequest parse(int line, String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+
+        try {
+            if (trimmed.startsWith("{")) {
+                return parseJson(line, trimmed);
+            }
+            else {
+                return new BatchRequest(line, null, withoutProgramName(Strings.splitArguments(trimmed)), null);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            return new BatchRequest(line, null, List.of(), e.getMessage());
+        }
+    }
+
+    /**
+     * Lazily parses the lines of the given reader.
+     */
+    public static Iterator<BatchRequest> parseAll(BufferedReader reader) {
+        AtomicInteger line = new AtomicInteger();
+
+        return reader.lines()
+                .map(text -> parse(line.incrementAndGet(), text))
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    private static BatchRequest parseJson(int line, String text) {
+        JsonNode request;
+        try {
+            request = MAPPER.readTree(text);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON request: " + e.getOriginalMessage());
+        }
+
+        String id = request.hasNonNull("id") ? request.get("id").asText() : null;
+        List<String> args = new ArrayList<>();
+
+        if (request.has("args") && request.get("args").isArray()) {
+            for (JsonNode arg : request.get("args")) {
+                args.add(arg.asText());
+            }
+        }
+        else if (request.has("command") && request.get("command").isTextual()) {
+            args.addAll(Strings.splitArguments(request.get("command").asText()));
+        }
+        else {
+            return new BatchRequest(line, id, List.of(), "JSON requests must specify either 'args' or 'command'");
+        }
+
+        return new BatchRequest(line, id, withoutProgramName(args), null);
+    }
+
+    private static List<String> withoutProgramName(List<String> args) {
+        if (!args.isEmpty() && args.get(0).equals("kcctl")) {
+            return List.copyOf(args.subList(1, args.size()));
+        }
+
+        return List.copyOf(args);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
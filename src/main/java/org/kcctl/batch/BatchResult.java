@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.batch;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * The outcome of one command of a batch, emitted as one JSON line.
+ */
+@JsonInclude(Include.NON_NULL)
+public class BatchResult {
+
+    public int line;
+    public String id;
+    public List<String> args;
+    public int exit_code;
+    public long duration_ms;
+    public String stdout;
+    public String stderr;
+
+    public BatchResult() {
+    }
+
+    public BatchResult(BatchRequest request, int exitCode, long durationMs, String stdout, String stderr) {
+        this.line = request.line;
+        this.id = request.id;
+        this.args = request.args;
+        this.exit_code = exitCode;
+        this.duration_ms = durationMs;
+        this.stdout = stdout == null || stdout.isEmpty() ? null : stdout;
+        this.stderr = stderr == null || stderr.isEmpty() ? null : stderr;
+    }
+}
@@ -18,65 +18,108 @@ package org.kcctl.command;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.apache.http.HttpStatus;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterFeature;
 import org.kcctl.service.ConfigInfos;
+import org.kcctl.service.ConnectorConfigs;
+import org.kcctl.service.ConnectorExpandInfo;
+import org.kcctl.service.ConnectorStateWaiter;
+import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
 import org.kcctl.service.KafkaConnectException;
+import org.kcctl.service.WriteScheduler;
 import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.FilePatterns;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.freva.asciitable.AsciiTable;
+import com.github.freva.asciitable.Column;
+import com.github.freva.asciitable.HorizontalAlign;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+import static org.kcctl.util.Colors.ANSI_GREEN;
+import static org.kcctl.util.Colors.ANSI_RED;
 import static org.kcctl.util.Colors.ANSI_RESET;
 import static org.kcctl.util.Colors.ANSI_WHITE_BOLD;
 
-@Command(name = "apply", description = "Applies the given file for registering or updating a connector")
+@Command(name = "apply", description = "Applies the given files for registering or updating connectors")
 public class ApplyCommand implements Callable<Integer> {
 
     @Inject
     ConfigurationContext context;
 
-    @Option(names = { "-f", "--file" }, description = "Name of the file to apply", required = true)
-    File file;
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
 
-    @Option(names = { "-n", "--name" }, description = "Name of the connector when not given within the file itself")
+    @Option(names = { "-f",
+            "--file" }, description = "Name of the file to apply; may be given multiple times, directories and glob patterns (e.g. 'connectors/*.json') apply all contained JSON files", required = true, arity = "1..*")
+    List<File> files;
+
+    @Option(names = { "-n", "--name" }, description = "Name of the connector when not given within the file itself; only supported when applying a single file")
     String name;
 
     @Option(names = { "--dry-run" }, description = "Only validates the configuration")
     boolean dryRun;
 
+    @Option(names = { "--parallelism" }, description = "Maximum number of files applied concurrently")
+    Integer parallelism;
+
+    @Option(names = { "--wait" }, description = "Waits until the created or updated connectors and their tasks are running")
+    boolean wait;
+
     private final static String CONFIG_EXCEPTION = "org.apache.kafka.common.config.ConfigException: ";
     private final ObjectMapper mapper = new ObjectMapper();
 
-    @SuppressWarnings("unchecked")
     @Override
     public Integer call() throws Exception {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
-
-        if (!file.exists()) {
-            System.out.println("Given file does not exist: " + file.toPath().toAbsolutePath());
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
             return 1;
         }
 
-        String contents;
-        try {
-            contents = Files.readString(file.toPath());
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if (files.size() == 1 && !FilePatterns.isPattern(files.get(0).getPath()) && !files.get(0).isDirectory()) {
+            return applySingleFile(kafkaConnectApi, files.get(0));
         }
-        catch (IOException e) {
-            throw new RuntimeException("Couldn't read file", e);
+        else {
+            return applyAll(kafkaConnectApi);
         }
+    }
 
-        Map<String, Object> config = mapper.readValue(contents, Map.class);
+    private int applySingleFile(KafkaConnectApi kafkaConnectApi, File file) throws Exception {
+        if (!file.exists()) {
+            System.out.println("Given file does not exist: " + file.toPath().toAbsolutePath());
+            return 1;
+        }
+
+        String contents = read(file);
+        Map<String, Object> config = parse(contents);
 
         if (dryRun) {
             return validateConfigs(kafkaConnectApi, config);
@@ -86,35 +129,219 @@ public class ApplyCommand implements Callable<Integer> {
         }
     }
 
-    private int createOrUpdateConnector(KafkaConnectApi kafkaConnectApi, String contents, Map<String, Object> config) throws Exception {
-        try {
-            if (config.containsKey("name") && config.containsKey("config")) {
-                String connectorName = (String) config.get("name");
-                boolean existing = kafkaConnectApi.getConnectors().contains(connectorName);
-                if (!existing) {
-                    kafkaConnectApi.createConnector(contents);
-                    System.out.println("Created connector " + connectorName);
+    private int applyAll(KafkaConnectApi kafkaConnectApi) throws IOException {
+        if (name != null) {
+            System.out.println("--name can only be used when applying a single file");
+            return 1;
+        }
+
+        List<File> expanded = FilePatterns.expand(files, ".json");
+        if (expanded.isEmpty()) {
+            System.out.println("No files to apply found for " + files);
+            return 1;
+        }
+
+        long start = System.nanoTime();
+
+        Function<String, Map<String, String>> liveConfigs = dryRun ? name -> null : getLiveConfigs(kafkaConnectApi);
+
+        FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+        WriteScheduler scheduler = new WriteScheduler(executor.getParallelism());
+        List<Result<File, FileResult>> results = executor.execute(expanded, file -> applyFile(kafkaConnectApi, scheduler, liveConfigs, file));
+
+        printResults(results, scheduler, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        int exitCode = results.stream().anyMatch(r -> r.getValue().failed) ? 1 : 0;
+
+        if (wait && !dryRun) {
+            List<String> changed = new ArrayList<>();
+            Map<String, ConnectorStatusInfo> previousStatuses = new HashMap<>();
+            for (Result<File, FileResult> result : results) {
+                if (!result.getValue().failed && !result.getValue().status.equals("unchanged")) {
+                    changed.add(result.getValue().connector);
+                    if (result.getValue().previousStatus != null) {
+                        previousStatuses.put(result.getValue().connector, result.getValue().previousStatus);
+                    }
                 }
-                else {
-                    kafkaConnectApi.updateConnector(connectorName, mapper.writeValueAsString(config.get("config")));
-                    System.out.println("Updated connector " + connectorName);
+            }
+
+            if (!changed.isEmpty()) {
+                System.out.println();
+                int waitExitCode = awaitRunning(kafkaConnectApi, executor, changed, previousStatuses, start);
+                return exitCode != 0 ? exitCode : waitExitCode;
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Returns a function providing the configuration of existing connectors, or {@code null} for connectors which
+     * don't exist yet. The existing connectors, and if supported by the cluster also their configurations, are
+     * determined once, rather than for each file.
+     */
+    private Function<String, Map<String, String>> getLiveConfigs(KafkaConnectApi kafkaConnectApi) {
+        if (capabilities.supports(ClusterFeature.EXPAND_API)) {
+            Map<String, Map<String, String>> configs = new HashMap<>();
+            for (Map.Entry<String, ConnectorExpandInfo> connector : kafkaConnectApi.getConnectorsExpanded(ConnectorExpandInfo.INFO).entrySet()) {
+                configs.put(connector.getKey(), connector.getValue().info.config);
+            }
+            return configs::get;
+        }
+        else {
+            Set<String> existingConnectors = new HashSet<>(kafkaConnectApi.getConnectors());
+            return name -> existingConnectors.contains(name) ? getLiveConfig(kafkaConnectApi, name) : null;
+        }
+    }
+
+    private Map<String, String> getLiveConfig(KafkaConnectApi kafkaConnectApi, String connectorName) {
+        try {
+            return kafkaConnectApi.getConnectorConfig(connectorName);
+        }
+        catch (KafkaConnectException e) {
+            if (e.getErrorCode() == HttpStatus.SC_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private FileResult applyFile(KafkaConnectApi kafkaConnectApi, WriteScheduler scheduler, Function<String, Map<String, String>> liveConfigs, File file) {
+        FileResult result = new FileResult();
+        long start = System.nanoTime();
+
+        try {
+            if (!file.exists()) {
+                throw new IllegalArgumentException("File does not exist");
+            }
+
+            String contents = read(file);
+            Map<String, Object> config = parse(contents);
+
+            result.connector = ConnectorConfigs.getConnectorName(config, file);
+
+            if (dryRun) {
+                Validation validation = validate(kafkaConnectApi, config);
+                result.status = validation.isValid() ? "valid" : "invalid";
+                if (!validation.isValid()) {
+                    result.failed = true;
+                    result.error = String.join("; ", validation.getMessages());
                 }
             }
             else {
+                Applied applied = apply(kafkaConnectApi, scheduler, liveConfigs.apply(result.connector), contents, config, result.connector);
+                result.status = applied.action.name().toLowerCase();
+                result.previousStatus = applied.previousStatus;
+            }
+        }
+        catch (JsonProcessingException e) {
+            result.failed = true;
+            result.status = "failed";
+            result.error = "Invalid JSON: " + e.getOriginalMessage();
+        }
+        catch (RuntimeException | IOException e) {
+            result.failed = true;
+            result.status = "failed";
+            result.error = e.getMessage();
+        }
+
+        result.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return result;
+    }
+
+    private void printResults(List<Result<File, FileResult>> results, WriteScheduler scheduler, long durationMs) {
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+        String[][] data = new String[results.size()][];
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        List<String> failures = new ArrayList<>();
+
+        int i = 0;
+        for (Result<File, FileResult> result : results) {
+            Path path = result.getItem().toPath().toAbsolutePath();
+            String displayName = path.startsWith(workingDirectory) ? workingDirectory.relativize(path).toString() : path.toString();
+            FileResult fileResult = result.getValue();
+
+            data[i++] = new String[]{
+                    displayName,
+                    " " + (fileResult.connector != null ? fileResult.connector : "-"),
+                    " " + fileResult.status,
+                    " " + fileResult.durationMs + " ms" };
+
+            counts.merge(fileResult.status, 1, Integer::sum);
+            if (fileResult.failed) {
+                failures.add(displayName + ": " + fileResult.error);
+            }
+        }
+
+        System.out.println();
+        String table = AsciiTable.getTable(AsciiTable.NO_BORDERS,
+                new Column[]{
+                        new Column().header("FILE").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" CONNECTOR").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" RESULT").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" TIME").dataAlign(HorizontalAlign.RIGHT)
+                },
+                data);
+
+        System.out.println(table.replace(" failed ", " " + ANSI_RED + "failed" + ANSI_RESET + " ")
+                .replace(" invalid ", " " + ANSI_RED + "invalid" + ANSI_RESET + " ")
+                .replace(" created ", " " + ANSI_GREEN + "created" + ANSI_RESET + " "));
+        System.out.println();
+
+        if (!failures.isEmpty()) {
+            System.out.println(ANSI_WHITE_BOLD + "Failures" + ANSI_RESET);
+            for (String failure : failures) {
+                System.out.println("  " + failure);
+            }
+            System.out.println();
+        }
+
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            summary.append(summary.length() == 0 ? "" : ", ").append(count.getValue()).append(" ").append(count.getKey());
+        }
+
+        System.out.println("Applied " + results.size() + " file" + (results.size() != 1 ? "s" : "") + " in " + durationMs + " ms: " + summary);
+        if (scheduler.getWrites() > 0 || scheduler.getRejected() > 0) {
+            System.out.println("Writes: " + scheduler.getSummary());
+        }
+    }
+
+    private int createOrUpdateConnector(KafkaConnectApi kafkaConnectApi, String contents, Map<String, Object> config) throws Exception {
+        long start = System.nanoTime();
+
+        try {
+            String connectorName = (String) config.get("name");
+            if (!config.containsKey("name") || !config.containsKey("config")) {
                 if (name == null) {
                     System.out.println("Connector name must be specified either via --name or in the given file");
                     return 1;
                 }
 
-                boolean existing = kafkaConnectApi.getConnectors().contains(name);
-                kafkaConnectApi.updateConnector(name, contents);
+                connectorName = name;
+            }
 
-                if (!existing) {
-                    System.out.println("Created connector " + name);
-                }
-                else {
-                    System.out.println("Updated connector " + name);
+            Applied applied = apply(kafkaConnectApi, new WriteScheduler(1), getLiveConfig(kafkaConnectApi, connectorName), contents, config, connectorName);
+            switch (applied.action) {
+                case CREATED:
+                    System.out.println("Created connector " + applied.connector);
+                    break;
+                case UPDATED:
+                    System.out.println("Updated connector " + applied.connector);
+                    break;
+                case UNCHANGED:
+                    System.out.println("Connector " + applied.connector + " is unchanged");
+                    break;
+            }
+
+            if (wait && applied.action != Action.UNCHANGED) {
+                System.out.println();
+                FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+                Map<String, ConnectorStatusInfo> previousStatuses = new HashMap<>();
+                if (applied.previousStatus != null) {
+                    previousStatuses.put(applied.connector, applied.previousStatus);
                 }
+                return awaitRunning(kafkaConnectApi, executor, List.of(applied.connector), previousStatuses, start);
             }
         }
         catch (KafkaConnectException kce) {
@@ -123,7 +350,7 @@ public class ApplyCommand implements Callable<Integer> {
                 System.out.println("Specified class isn't a valid connector type. The following connector type(s) are available:");
 
                 GetPluginsCommand getPlugins = new GetPluginsCommand();
-                getPlugins.context = context;
+                getPlugins.clientFactory = clientFactory;
                 getPlugins.run();
             }
             else {
@@ -136,15 +363,94 @@ public class ApplyCommand implements Callable<Integer> {
         return 0;
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private int awaitRunning(KafkaConnectApi kafkaConnectApi, FanOutExecutor executor, List<String> connectors,
+                             Map<String, ConnectorStatusInfo> previousStatuses, long start) {
+        ConnectorStateWaiter waiter = new ConnectorStateWaiter(kafkaConnectApi, capabilities, executor);
+        return WaitReport.await(waiter, connectors, ConnectorStateWaiter.RUNNING, ConnectorStateWaiter.DEFAULT_TIMEOUT, start, previousStatuses);
+    }
+
+    /**
+     * Creates or updates the given connector. Updates are skipped if the live configuration already matches the
+     * desired one, as each configuration change may cause a rebalance and a restart of the connector's tasks.
+     */
+    private Applied apply(KafkaConnectApi kafkaConnectApi, WriteScheduler scheduler, Map<String, String> liveConfig, String contents, Map<String, Object> config,
+                          String connectorName)
+            throws IOException {
+        boolean wrapped = ConnectorConfigs.isCreateRequest(config);
+        Map<String, Object> desiredConfig = ConnectorConfigs.getConfig(config);
+
+        if (liveConfig != null && ConnectorConfigs.isUnchanged(desiredConfig, liveConfig, connectorName)) {
+            return new Applied(connectorName, Action.UNCHANGED, null);
+        }
+
+        // the status before the update, so that waiting doesn't mistake it for the one after the restart
+        ConnectorStatusInfo previousStatus = wait && liveConfig != null ? getPreviousStatus(kafkaConnectApi, connectorName) : null;
+
+        if (wrapped) {
+            if (liveConfig == null) {
+                scheduler.execute(() -> kafkaConnectApi.createConnector(contents));
+                return new Applied(connectorName, Action.CREATED, null);
+            }
+            else {
+                String desiredConfigString = mapper.writeValueAsString(desiredConfig);
+                scheduler.execute(() -> kafkaConnectApi.updateConnector(connectorName, desiredConfigString));
+                return new Applied(connectorName, Action.UPDATED, previousStatus);
+            }
+        }
+        else {
+            scheduler.execute(() -> kafkaConnectApi.updateConnector(connectorName, contents));
+            return new Applied(connectorName, liveConfig != null ? Action.UPDATED : Action.CREATED, previousStatus);
+        }
+    }
+
+    private ConnectorStatusInfo getPreviousStatus(KafkaConnectApi kafkaConnectApi, String connectorName) {
+        try {
+            return kafkaConnectApi.getConnectorStatus(connectorName);
+        }
+        catch (KafkaConnectException e) {
+            if (e.getErrorCode() == HttpStatus.SC_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
     private int validateConfigs(KafkaConnectApi kafkaConnectApi, Map<String, Object> config) throws Exception {
+        Validation validation;
+        try {
+            validation = validate(kafkaConnectApi, config);
+        }
+        catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        if (validation.isValid()) {
+            System.out.println("The configuration is valid!");
+            return 0;
+        }
+
+        int errs = validation.errorCount;
+        System.out.println("The configuration is not valid! Found " + errs + " error" + ((errs != 1) ? "s" : "") + ".");
+        System.out.println(ANSI_WHITE_BOLD + "Errors" + ANSI_RESET);
+        for (Map.Entry<String, List<String>> error : validation.errors.entrySet()) {
+            System.out.println("  " + error.getKey());
+            for (String message : error.getValue()) {
+                System.out.println("    " + message);
+            }
+        }
+
+        return 1;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Validation validate(KafkaConnectApi kafkaConnectApi, Map<String, Object> config) throws IOException {
         Map<String, String> connectorConfigMap = (config.containsKey("config"))
                 ? (Map) config.get("config")
                 : (Map) config;
 
         if (!connectorConfigMap.containsKey("connector.class")) {
-            System.out.println("The configuration must contain the 'connector.class' field.");
-            return 1;
+            throw new IllegalArgumentException("The configuration must contain the 'connector.class' field.");
         }
         // In order to start a connector, "name" is not required within "config". However, when validating a
         // configuration it is! So injecting a placeholder to make sure this does not fail validation.
@@ -152,39 +458,87 @@ public class ApplyCommand implements Callable<Integer> {
 
         String clazz = connectorConfigMap.get("connector.class");
         String pluginName = clazz.substring(clazz.lastIndexOf('.') + 1);
+        Validation validation = new Validation();
         try {
             ConfigInfos configInfos = kafkaConnectApi.validateConfig(pluginName, mapper.writeValueAsString(connectorConfigMap));
-            int errs = configInfos.errorCount;
-            if (errs == 0) {
-                System.out.println("The configuration is valid!");
-            }
-            else {
-                System.out.println("The configuration is not valid! Found " + errs + " error" + ((errs != 1) ? "s" : "") + ".");
-                System.out.println(ANSI_WHITE_BOLD + "Errors" + ANSI_RESET);
-                for (ConfigInfos.ConfigInfo configInfo : configInfos.configs) {
-                    List<String> errors = configInfo.configValue.errors;
-                    if (errors != null && !errors.isEmpty()) {
-                        System.out.println("  " + configInfo.configKey.name);
-                        for (String error : errors) {
-                            System.out.println("    " + error);
-                        }
-                    }
+            validation.errorCount = configInfos.errorCount;
+            for (ConfigInfos.ConfigInfo configInfo : configInfos.configs) {
+                List<String> errors = configInfo.configValue.errors;
+                if (errors != null && !errors.isEmpty()) {
+                    validation.errors.put(configInfo.configKey.name, errors);
                 }
-                return 1;
             }
         }
         catch (KafkaConnectException kce) {
             if (kce.getMessage().startsWith(CONFIG_EXCEPTION)) {
-                System.out.println("The configuration is not valid! Found 1 error.");
-                System.out.println(ANSI_WHITE_BOLD + "Errors" + ANSI_RESET);
-                System.out.println("  " + kce.getMessage().replace(CONFIG_EXCEPTION, ""));
-                return 1;
+                validation.errorCount = 1;
+                validation.errors.put(kce.getMessage().replace(CONFIG_EXCEPTION, ""), List.of());
             }
             else {
                 throw kce;
             }
         }
 
-        return 0;
+        return validation;
+    }
+
+    private static String read(File file) {
+        try {
+            return Files.readString(file.toPath());
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Couldn't read file", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parse(String contents) throws IOException {
+        return mapper.readValue(contents, Map.class);
+    }
+
+    private enum Action {
+        CREATED,
+        UPDATED,
+        UNCHANGED
+    }
+
+    private static class Applied {
+
+        private final String connector;
+        private final Action action;
+        private final ConnectorStatusInfo previousStatus;
+
+        Applied(String connector, Action action, ConnectorStatusInfo previousStatus) {
+            this.connector = connector;
+            this.action = action;
+            this.previousStatus = previousStatus;
+        }
+    }
+
+    private static class FileResult {
+        String connector;
+        String status;
+        boolean failed;
+        String error;
+        long durationMs;
+        ConnectorStatusInfo previousStatus;
+    }
+
+    private static class Validation {
+
+        private int errorCount;
+        private final Map<String, List<String>> errors = new LinkedHashMap<>();
+
+        boolean isValid() {
+            return errorCount == 0;
+        }
+
+        List<String> getMessages() {
+            List<String> messages = new ArrayList<>();
+            for (Map.Entry<String, List<String>> error : errors.entrySet()) {
+                messages.add(error.getValue().isEmpty() ? error.getKey() : error.getKey() + ": " + String.join(", ", error.getValue()));
+            }
+            return messages;
+        }
     }
 }
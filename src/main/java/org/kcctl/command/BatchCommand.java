@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.kcctl.batch.BatchExecutor;
+import org.kcctl.batch.BatchRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "batch", description = "Executes the commands given line by line, as command lines or JSON requests, within one process")
+public class BatchCommand implements Callable<Integer> {
+
+    // obtained lazily, as this command itself is part of the command line
+    @Inject
+    Instance<CommandLine> commandLine;
+
+    @Option(names = { "-f", "--file" }, description = "File with one command per line; standard input is read if not given or '-'")
+    File file;
+
+    @Option(names = { "-p",
+            "--parallelism" }, defaultValue = "1", description = "Number of commands to execute concurrently; results are emitted in the order of completion")
+    int parallelism;
+
+    @Option(names = { "--fail-fast" }, description = "Stops executing further commands after the first failed one")
+    boolean failFast;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public Integer call() throws Exception {
+        if (parallelism < 1) {
+            System.out.println("Parallelism must be at least 1");
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        if (file != null && !file.getPath().equals("-") && !file.exists()) {
+            System.out.println("Given file does not exist: " + file.toPath().toAbsolutePath());
+            return 1;
+        }
+
+        PrintStream out = System.out;
+        BatchExecutor executor = new BatchExecutor(commandLine::get, parallelism, failFast);
+
+        BatchExecutor.Summary summary;
+        try (BufferedReader reader = file == null || file.getPath().equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(file.toPath())) {
+
+            summary = executor.execute(BatchRequest.parseAll(reader), result -> {
+                try {
+                    out.println(mapper.writeValueAsString(result));
+                    out.flush();
+                }
+                catch (JsonProcessingException e) {
+                    throw new RuntimeException("Couldn't serialize result", e);
+                }
+            });
+        }
+
+        System.err.println(String.format("Executed %d commands in %d ms: %d succeeded, %d failed, %d skipped",
+                summary.getSucceeded() + summary.getFailed(), summary.getDurationMs(), summary.getSucceeded(), summary.getFailed(), summary.getSkipped()));
+
+        return summary.getFailed() == 0 && summary.getSkipped() == 0 ? 0 : 1;
+    }
+}
@@ -15,29 +15,30 @@
  */
 package org.kcctl.command;
 
-import java.util.List;
-
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
-import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.CompletionCache;
+import org.kcctl.service.CompletionCache.Kind;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
 
 @Command(name = "connector-name-completions", hidden = true)
 public class ConnectorNamesCompletionCandidateCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    CompletionCache completionCache;
+
+    @Parameters(arity = "0..1", description = "Only return names starting with this prefix")
+    String prefix;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        if (CompletionCache.isRefreshRequested()) {
+            completionCache.refreshAndUnlock(Kind.CONNECTOR_NAMES);
+            return;
+        }
 
-        List<String> connectors = kafkaConnectApi.getConnectors();
-        System.out.println(String.join(" ", connectors));
+        System.out.println(String.join(" ", completionCache.getCompletions(Kind.CONNECTOR_NAMES, prefix)));
     }
 }
@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterSnapshot;
+import org.kcctl.service.ConnectorSelector;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
+import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.WriteScheduler;
+import org.kcctl.util.ConfigurationContext;
+
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+import static org.kcctl.util.Colors.ANSI_RED;
+import static org.kcctl.util.Colors.ANSI_RESET;
+
+/**
+ * Options for selecting multiple connectors, shared by the commands operating on connectors. The selected
+ * connectors are determined from one snapshot of the cluster and processed concurrently.
+ */
+public class ConnectorSelection {
+
+    @Spec(Spec.Target.MIXEE)
+    CommandSpec commandSpec;
+
+    @Option(names = { "--all" }, description = "Selects all connectors")
+    boolean all;
+
+    @Option(names = { "--regex" }, paramLabel = "PATTERN", description = "Selects the connectors whose name matches the given regular expression")
+    String regex;
+
+    @Option(names = { "--glob" }, paramLabel = "PATTERN", description = "Selects the connectors whose name matches the given glob pattern (e.g. 'jdbc-*')")
+    String glob;
+
+    @Option(names = {
+            "--state" }, split = ",", paramLabel = "STATE", description = "Selects the connectors which themselves or any of their tasks are in the given comma-separated states (e.g. 'FAILED')")
+    List<String> states;
+
+    @Option(names = { "--type" }, paramLabel = "TYPE", description = "Selects the connectors of the given type (source or sink)")
+    String type;
+
+    @Option(names = { "--class" }, paramLabel = "CLASS", description = "Selects the connectors with the given fully-qualified or simple class name")
+    String connectorClass;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    /**
+     * Returns the selector for the given options, or {@code null} if the single connector with the given name is to
+     * be processed.
+     */
+    public ConnectorSelector getSelector(String name) {
+        checkParallelism();
+
+        ConnectorSelector selector;
+        try {
+            selector = new ConnectorSelector(all, regex, glob, states, type, connectorClass);
+        }
+        catch (PatternSyntaxException e) {
+            throw new ParameterException(commandSpec.commandLine(), "Invalid regular expression: " + e.getMessage());
+        }
+        catch (IllegalArgumentException e) {
+            throw new ParameterException(commandSpec.commandLine(), e.getMessage());
+        }
+
+        if (selector.isEmpty() && name == null) {
+            throw new ParameterException(commandSpec.commandLine(), "Please specify a connector name or selector (e.g. --all, --state=FAILED)");
+        }
+        if (!selector.isEmpty() && name != null) {
+            throw new ParameterException(commandSpec.commandLine(), "A connector name can't be combined with selectors");
+        }
+
+        return selector.isEmpty() ? null : selector;
+    }
+
+    private void checkParallelism() {
+        if (parallelism != null && parallelism < 1) {
+            throw new ParameterException(commandSpec.commandLine(), "The parallelism must be at least 1");
+        }
+    }
+
+    /**
+     * Whether any of the selector options has been given.
+     */
+    public boolean hasSelector() {
+        return all || regex != null || glob != null || states != null || type != null || connectorClass != null;
+    }
+
+    public FanOutExecutor getExecutor(ConfigurationContext context) {
+        checkParallelism();
+        return FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+    }
+
+    /**
+     * Executes the given operation for all connectors matching the given selector, concurrently and printing the
+     * outcome for each connector and a summary.
+     *
+     * @param action the name of the operation, e.g. "pause"
+     * @param pastTense the name of the operation in past tense, e.g. "Paused"
+     * @return the exit code
+     */
+    public int execute(ConfigurationContext context, KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, ConnectorSelector selector,
+                       String action, String pastTense, Consumer<String> operation) {
+        FanOutExecutor executor = getExecutor(context);
+
+        long start = System.nanoTime();
+        List<String> connectors = selector.select(ClusterSnapshot.take(kafkaConnectApi, capabilities, executor, selector.requiresStatus()));
+
+        if (connectors.isEmpty()) {
+            System.out.println("No matching connectors found");
+            return 0;
+        }
+
+        System.out.println(String.format("Selected %d connector(s) in %d ms", connectors.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+        List<Result<String, Long>> results = execute(executor, connectors, action, pastTense, operation);
+        return FanOutExecutor.failures(results).isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Executes the given operation for the given connectors, concurrently and printing the outcome for each
+     * connector and a summary.
+     *
+     * @return the outcome for each connector, with the duration of the operation in milliseconds
+     */
+    public List<Result<String, Long>> execute(FanOutExecutor executor, List<String> connectors, String action, String pastTense, Consumer<String> operation) {
+        long start = System.nanoTime();
+
+        // changes such as deletions may cause rebalances, during which further changes are rejected
+        WriteScheduler scheduler = new WriteScheduler(executor.getParallelism());
+        List<Result<String, Long>> results = executor.execute(connectors, connector -> {
+            long operationStart = System.nanoTime();
+            scheduler.execute(() -> operation.accept(connector));
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - operationStart);
+        });
+
+        System.out.println();
+        for (Result<String, Long> result : results) {
+            if (result.isSuccessful()) {
+                System.out.println(pastTense + " connector " + result.getItem() + " (" + result.getValue() + " ms)");
+            }
+            else {
+                System.out.println(ANSI_RED + "Failed to " + action + " connector " + result.getItem() + ANSI_RESET + ": " + result.getError().getMessage());
+            }
+        }
+
+        int failed = FanOutExecutor.failures(results).size();
+        System.out.println();
+        System.out.println(String.format("%s %d of %d connector(s) in %d ms, %d failed", pastTense, results.size() - failed, results.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed));
+        System.out.println("Writes: " + scheduler.getSummary());
+
+        return results;
+    }
+}
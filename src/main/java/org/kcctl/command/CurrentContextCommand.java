@@ -15,6 +15,9 @@
  */
 package org.kcctl.command;
 
+import java.net.URI;
+import java.util.stream.Collectors;
+
 import javax.inject.Inject;
 
 import org.kcctl.service.Context;
@@ -36,7 +39,9 @@ public class CurrentContextCommand implements Runnable {
     public void run() {
         Context currentContext = context.getCurrentContext();
         String[][] data = new String[5][];
-        data[0] = new String[]{ "Kafka Connect URI", currentContext.getCluster().toASCIIString() };
+        data[0] = new String[]{ "Kafka Connect URI", currentContext.getWorkerUrls().stream()
+                .map(URI::toASCIIString)
+                .collect(Collectors.joining(", ")) };
         data[1] = new String[]{ "User", currentContext.getUsername() };
         data[2] = new String[]{ "Password", currentContext.getPassword() != null ? "***" : "" };
         data[3] = new String[]{ "Bootstrap servers", currentContext.getBootstrapServers() };
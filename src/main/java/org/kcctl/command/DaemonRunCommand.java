@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.util.concurrent.Callable;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.kcctl.daemon.DaemonClient;
+import org.kcctl.daemon.DaemonInfo;
+import org.kcctl.daemon.DaemonServer;
+import org.kcctl.util.ConfigurationContext;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+@Command(name = "run", description = "Runs the daemon in the foreground")
+public class DaemonRunCommand implements Callable<Integer> {
+
+    @Inject
+    ConfigurationContext context;
+
+    // obtained lazily, as this command itself is part of the command line
+    @Inject
+    Instance<CommandLine> commandLine;
+
+    @Override
+    public Integer call() throws Exception {
+        DaemonInfo running = DaemonInfo.read();
+        if (running != null && new DaemonClient(running).status() != null) {
+            System.out.println("kcctl daemon is already running (pid " + running.getPid() + ")");
+            return 1;
+        }
+
+        DaemonServer server = new DaemonServer(commandLine::get, context);
+        System.out.println("kcctl daemon (pid " + server.getInfo().getPid() + ") listening on port " + server.getInfo().getPort());
+
+        server.serve();
+
+        return 0;
+    }
+}
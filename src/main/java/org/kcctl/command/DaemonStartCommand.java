@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.File;
+import java.lang.ProcessBuilder.Redirect;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import org.kcctl.daemon.DaemonClient;
+import org.kcctl.daemon.DaemonInfo;
+
+import picocli.CommandLine.Command;
+
+@Command(name = "start", description = "Starts the daemon in the background")
+public class DaemonStartCommand implements Callable<Integer> {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(30);
+
+    @Override
+    public Integer call() throws Exception {
+        DaemonInfo running = DaemonInfo.read();
+        if (running != null && new DaemonClient(running).status() != null) {
+            System.out.println("kcctl daemon is already running (pid " + running.getPid() + ")");
+            return 0;
+        }
+
+        List<String> commandLine = getDaemonCommandLine();
+        if (commandLine == null) {
+            System.out.println("Couldn't determine the kcctl command line, use 'kcctl daemon run' instead");
+            return 1;
+        }
+
+        File logFile = DaemonInfo.getLogFile();
+        Process process = new ProcessBuilder(commandLine)
+                .redirectOutput(Redirect.appendTo(logFile))
+                .redirectError(Redirect.appendTo(logFile))
+                .start();
+
+        Instant start = Instant.now();
+
+        while (Duration.between(start, Instant.now()).compareTo(START_TIMEOUT) < 0) {
+            DaemonInfo started = DaemonInfo.read();
+            if (started != null && started.getPid() == process.pid()) {
+                System.out.println("kcctl daemon started (pid " + process.pid() + ")");
+                return 0;
+            }
+            if (!process.isAlive()) {
+                break;
+            }
+
+            Thread.sleep(100);
+        }
+
+        System.out.println("kcctl daemon couldn't be started, see " + logFile + " for details");
+        return 1;
+    }
+
+    /**
+     * Returns the command line of the current process, with "daemon start" replaced by "daemon run".
+     */
+    private static List<String> getDaemonCommandLine() {
+        ProcessHandle.Info info = ProcessHandle.current().info();
+        Optional<String> command = info.command();
+        Optional<String[]> arguments = info.arguments();
+
+        if (command.isEmpty() || arguments.isEmpty()) {
+            return null;
+        }
+
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add(command.get());
+        commandLine.addAll(List.of(arguments.get()));
+
+        int daemonCommand = commandLine.lastIndexOf("daemon");
+        if (daemonCommand < 1) {
+            return null;
+        }
+
+        commandLine = new ArrayList<>(commandLine.subList(0, daemonCommand + 1));
+        commandLine.add("run");
+
+        return commandLine;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.util.concurrent.Callable;
+
+import org.kcctl.daemon.DaemonClient;
+import org.kcctl.daemon.DaemonInfo;
+
+import picocli.CommandLine.Command;
+
+@Command(name = "stop", description = "Stops the daemon")
+public class DaemonStopCommand implements Callable<Integer> {
+
+    @Override
+    public Integer call() {
+        DaemonInfo running = DaemonInfo.read();
+        String result = running != null ? new DaemonClient(running).stop() : null;
+
+        if (result == null) {
+            if (running != null && !running.isProcessAlive()) {
+                running.delete();
+            }
+
+            System.out.println("No kcctl daemon is running");
+            return 1;
+        }
+
+        System.out.println(result);
+        return 0;
+    }
+}
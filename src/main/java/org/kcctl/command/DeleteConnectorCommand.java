@@ -15,32 +15,50 @@
  */
 package org.kcctl.command;
 
+import java.util.concurrent.Callable;
+
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ConnectorSelector;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
 import org.kcctl.util.ConfigurationContext;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Parameters;
 
-@Command(name = "delete", description = "Deletes the specified connector")
-public class DeleteConnectorCommand implements Runnable {
+@Command(name = "delete", description = "Deletes the specified connector or the selected connectors")
+public class DeleteConnectorCommand implements Callable<Integer> {
 
     @Inject
     ConfigurationContext context;
 
-    @Parameters(paramLabel = "CONNECTOR NAME", description = "Name of the connector", completionCandidates = ConnectorNameCompletions.class)
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "0..1", paramLabel = "CONNECTOR NAME", description = "Name of the connector", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
+    @Mixin
+    ConnectorSelection selection;
+
     @Override
-    public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+    public Integer call() {
+        ConnectorSelector selector = selection.getSelector(name);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if (selector != null) {
+            return selection.execute(context, kafkaConnectApi, capabilities, selector, "delete", "Deleted", kafkaConnectApi::deleteConnector);
+        }
 
         kafkaConnectApi.deleteConnector(name);
         System.out.println("Deleted connector " + name);
+        return 0;
     }
 }
@@ -22,19 +22,22 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterFeature;
 import org.kcctl.service.ConnectorInfo;
 import org.kcctl.service.ConnectorStatusInfo;
-import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectAsyncApi;
+import org.kcctl.service.KafkaConnectClientFactory;
 import org.kcctl.service.TaskState;
 import org.kcctl.service.TopicsInfo;
 import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.Futures;
 import org.kcctl.util.Tuple;
-import org.kcctl.util.Version;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -52,34 +55,44 @@ public class DescribeConnectorCommand implements Callable<Integer> {
     @Inject
     ConfigurationContext context;
 
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
     @Parameters(paramLabel = "CONNECTOR NAME", description = "Name of the connector", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
     @Option(names = { "--tasks-config" }, description = "Displays tasks configuration")
     boolean includeTasksConfig;
 
-    private final Version requiredVersionForTasksConfig = new Version(2, 8);
-    private final Version requiredVersionForTopicsApi = new Version(2, 5);
-
     @Override
     public Integer call() {
 
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
-        Version currentVersion = new Version(kafkaConnectApi.getWorkerInfo().version);
-
         if (includeTasksConfig) {
-            if (!currentVersion.greaterOrEquals(requiredVersionForTasksConfig)) {
-                System.out.println("--tasks-config requires at least Kafka Connect 2.8. Current version: " + currentVersion);
+            if (!capabilities.supports(ClusterFeature.TASKS_CONFIG)) {
+                System.out.println("--tasks-config requires at least Kafka Connect 2.8. Current version: " + capabilities.getVersion());
                 return 1;
             }
         }
 
+        // the sub-resources don't depend on each other, so they are requested concurrently
+        KafkaConnectAsyncApi kafkaConnectApi = clientFactory.getAsyncClient();
+        CompletionStage<ConnectorInfo> connectorRequest = kafkaConnectApi.getConnector(name);
+        CompletionStage<ConnectorStatusInfo> connectorStatusRequest = kafkaConnectApi.getConnectorStatus(name);
+        CompletionStage<Map<String, String>> connectorConfigRequest = kafkaConnectApi.getConnectorConfig(name);
+        CompletionStage<Map<String, Map<String, String>>> tasksConfigsRequest = includeTasksConfig ? kafkaConnectApi.getConnectorTasksConfig(name) : null;
+        CompletionStage<Map<String, TopicsInfo>> connectorTopicsRequest = capabilities.supports(ClusterFeature.TOPICS_API)
+                ? kafkaConnectApi.getConnectorTopics(name)
+                : null;
+
         try {
-            ConnectorInfo connector = kafkaConnectApi.getConnector(name);
-            ConnectorStatusInfo connectorStatus = kafkaConnectApi.getConnectorStatus(name);
-            Map<String, String> connectorConfig = kafkaConnectApi.getConnectorConfig(name);
+            ConnectorInfo connector = Futures.join(connectorRequest);
+            ConnectorStatusInfo connectorStatus = Futures.join(connectorStatusRequest);
+            Map<String, String> connectorConfig = Futures.join(connectorConfigRequest);
+            Map<String, Map<String, String>> tasksConfigs = tasksConfigsRequest != null ? Futures.join(tasksConfigsRequest) : Collections.emptyMap();
+            Map<String, TopicsInfo> connectorTopics = connectorTopicsRequest != null ? Futures.join(connectorTopicsRequest) : null;
 
             List<Tuple> connectorInfo = Arrays.asList(
                     new Tuple("Name", connector.name),
@@ -101,14 +114,6 @@ public class DescribeConnectorCommand implements Callable<Integer> {
 
             Tuple.print(Arrays.asList(new Tuple(ANSI_WHITE_BOLD + "Tasks" + ANSI_RESET, "")));
 
-            Map<String, Map<String, String>> tasksConfigs;
-            if (includeTasksConfig) {
-                tasksConfigs = kafkaConnectApi.getConnectorTasksConfig(name);
-            }
-            else {
-                tasksConfigs = Collections.emptyMap();
-            }
-
             // Tasks
             for (TaskState task : connectorStatus.tasks) {
                 Tuple.print(Arrays.asList(new Tuple("  " + task.id, "")));
@@ -130,9 +135,7 @@ public class DescribeConnectorCommand implements Callable<Integer> {
                 Tuple.print(tuples);
             }
 
-            if (currentVersion.greaterOrEquals(requiredVersionForTopicsApi)) {
-
-                Map<String, TopicsInfo> connectorTopics = kafkaConnectApi.getConnectorTopics(name);
+            if (connectorTopics != null) {
 
                 Tuple.print(Arrays.asList(new Tuple(ANSI_WHITE_BOLD + "Topics" + ANSI_RESET, "")));
 
@@ -153,7 +156,9 @@ public class DescribeConnectorCommand implements Callable<Integer> {
 
             GetConnectorsCommand getConnectors = new GetConnectorsCommand();
             getConnectors.context = context;
-            getConnectors.run();
+            getConnectors.clientFactory = clientFactory;
+            getConnectors.capabilities = capabilities;
+            getConnectors.call();
 
             return 1;
         }
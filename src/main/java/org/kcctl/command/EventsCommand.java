@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.inject.Inject;
+
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.KafkaConnectException;
+import org.kcctl.service.StateTransition;
+import org.kcctl.service.StateTransitionEvent;
+import org.kcctl.service.StatusWatcher;
+import org.kcctl.util.ConfigurationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "events", description = "Emits the state transitions of connectors and tasks as JSON lines until stopped")
+public class EventsCommand implements Callable<Integer> {
+
+    @Inject
+    ConfigurationContext context;
+
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public Integer call() {
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        PrintStream out = System.out;
+        FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+        StatusWatcher watcher = new StatusWatcher(clientFactory.getClient(), capabilities, executor, StatusWatcher.DEFAULT_MIN_INTERVAL,
+                StatusWatcher.DEFAULT_MAX_INTERVAL);
+
+        watcher.watch(new StatusWatcher.Listener() {
+
+            @Override
+            public boolean onUpdate(Map<String, ConnectorStatusInfo> statuses, List<StateTransition> transitions, long nextPollMs) {
+                Instant now = Instant.now();
+
+                for (StateTransition transition : transitions) {
+                    try {
+                        out.println(mapper.writeValueAsString(new StateTransitionEvent(now, transition)));
+                    }
+                    catch (JsonProcessingException e) {
+                        throw new RuntimeException("Couldn't serialize event", e);
+                    }
+                }
+
+                // flushed after each poll, so consumers such as jq or log shippers receive the events right away
+                out.flush();
+                return !out.checkError();
+            }
+
+            @Override
+            public boolean onRebalance(KafkaConnectException e, long nextPollMs) {
+                System.err.println(String.format("Rebalance in progress, polling paused for %.1f s", nextPollMs / 1000.0));
+                return true;
+            }
+        });
+
+        // the output has been closed, e.g. by the consumer of a pipe
+        return 0;
+    }
+}
@@ -15,13 +15,32 @@
  */
 package org.kcctl.command;
 
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterFeature;
+import org.kcctl.service.ConnectorExpandInfo;
 import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.KafkaConnectException;
+import org.kcctl.service.StateTransition;
+import org.kcctl.service.StatusWatcher;
 import org.kcctl.service.TaskState;
 import org.kcctl.util.ConfigurationContext;
 
@@ -30,31 +49,62 @@ import com.github.freva.asciitable.Column;
 import com.github.freva.asciitable.HorizontalAlign;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 import static org.kcctl.util.Colors.ANSI_GREEN;
 import static org.kcctl.util.Colors.ANSI_RED;
 import static org.kcctl.util.Colors.ANSI_RESET;
+import static org.kcctl.util.Colors.ANSI_YELLOW;
 
 @Command(name = "connectors", description = "Displays information about deployed connectors")
-public class GetConnectorsCommand implements Runnable {
+public class GetConnectorsCommand implements Callable<Integer> {
 
     @Inject
     ConfigurationContext context;
 
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    @Option(names = { "-w", "--watch" }, description = "Keeps watching the connectors, updating the rows of connectors whose state changes")
+    boolean watch;
+
     @Override
-    public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+    public Integer call() {
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if (watch) {
+            FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+            new StatusWatcher(kafkaConnectApi, capabilities, executor, StatusWatcher.DEFAULT_MIN_INTERVAL, StatusWatcher.DEFAULT_MAX_INTERVAL)
+                    .watch(new WatchView(System.console() != null, System.out));
+            return 0;
+        }
+
+        Map<String, ConnectorStatusInfo> connectors;
+        if (capabilities.supports(ClusterFeature.EXPAND_API)) {
+            connectors = getConnectorsExpanded(kafkaConnectApi);
+        }
+        else {
+            connectors = getConnectorsOneByOne(kafkaConnectApi);
+        }
 
-        List<String> connectors = kafkaConnectApi.getConnectors();
         String[][] data = new String[connectors.size()][];
 
         int i = 0;
-        for (String name : connectors) {
-            ConnectorStatusInfo connectorStatus = kafkaConnectApi.getConnectorStatus(name);
+        for (Entry<String, ConnectorStatusInfo> connector : connectors.entrySet()) {
+            ConnectorStatusInfo connectorStatus = connector.getValue();
             data[i] = new String[]{
-                    name,
+                    connector.getKey(),
                     " " + connectorStatus.type,
                     " " + connectorStatus.connector.state,
                     " " + toString(connectorStatus.tasks) };
@@ -73,9 +123,34 @@ public class GetConnectorsCommand implements Runnable {
 
         System.out.println(table.replace("RUNNING", ANSI_GREEN + "RUNNING" + ANSI_RESET).replace("FAILED", ANSI_RED + "FAILED" + ANSI_RESET));
         System.out.println();
+
+        return 0;
+    }
+
+    private Map<String, ConnectorStatusInfo> getConnectorsExpanded(KafkaConnectApi kafkaConnectApi) {
+        Map<String, ConnectorStatusInfo> connectors = new LinkedHashMap<>();
+
+        for (Entry<String, ConnectorExpandInfo> connector : kafkaConnectApi.getConnectorsExpanded(ConnectorExpandInfo.STATUS_AND_INFO).entrySet()) {
+            connectors.put(connector.getKey(), connector.getValue().status);
+        }
+
+        return connectors;
+    }
+
+    private Map<String, ConnectorStatusInfo> getConnectorsOneByOne(KafkaConnectApi kafkaConnectApi) {
+        FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+        List<Result<String, ConnectorStatusInfo>> results = executor.execute(kafkaConnectApi.getConnectors(), kafkaConnectApi::getConnectorStatus);
+
+        List<Result<String, ConnectorStatusInfo>> failures = FanOutExecutor.failures(results);
+        if (!failures.isEmpty()) {
+            throw failures.get(0).getError();
+        }
+
+        return results.stream()
+                .collect(Collectors.toMap(Result::getItem, Result::getValue, (s1, s2) -> s1, LinkedHashMap::new));
     }
 
-    private String toString(List<TaskState> tasks) {
+    private static String toString(List<TaskState> tasks) {
         StringBuilder sb = new StringBuilder();
 
         boolean first = true;
@@ -92,4 +167,200 @@ public class GetConnectorsCommand implements Runnable {
 
         return sb.toString();
     }
+
+    /**
+     * Renders the connectors while watching them. On a terminal, the table is drawn once and afterwards only the
+     * lines which differ from the previous rendering are rewritten in place. Connectors whose state changed recently
+     * are highlighted, together with their previous state. Otherwise, only the transitions are printed after the
+     * initial table.
+     */
+    static class WatchView implements StatusWatcher.Listener {
+
+        private static final long HIGHLIGHT_MS = 10_000;
+        private static final String[] HEADERS = { "NAME", "TYPE", "STATE", "TASKS" };
+        private static final int STATE_COLUMN = 2;
+        private static final int TASKS_COLUMN = 3;
+        // the longest states, together with RESTARTING
+        private static final String LONGEST_STATE = "UNASSIGNED";
+
+        private final boolean interactive;
+        private final PrintStream out;
+        private final Map<String, Long> highlightedUntil = new HashMap<>();
+        private final Map<String, String> previousStates = new HashMap<>();
+        // only ever grow, so that a change of one row doesn't shift the columns of all the others
+        private final int[] widths = new int[HEADERS.length];
+        private Map<String, ConnectorStatusInfo> statuses;
+        private List<String> drawn;
+
+        WatchView(boolean interactive, PrintStream out) {
+            this.interactive = interactive;
+            this.out = out;
+        }
+
+        @Override
+        public boolean onUpdate(Map<String, ConnectorStatusInfo> statuses, List<StateTransition> transitions, long nextPollMs) {
+            this.statuses = statuses;
+
+            if (!interactive) {
+                if (drawn == null) {
+                    drawn = render(null);
+                    drawn.forEach(out::println);
+                    out.println();
+                }
+                for (StateTransition transition : transitions) {
+                    out.println(LocalTime.now().withNano(0) + " " + transition);
+                }
+                out.flush();
+                return !out.checkError();
+            }
+
+            long now = System.currentTimeMillis();
+            for (StateTransition transition : transitions) {
+                highlightedUntil.put(transition.getConnector(), now + HIGHLIGHT_MS);
+                if (transition.getTask() == null && transition.getOldState() != null) {
+                    previousStates.put(transition.getConnector(), transition.getOldState());
+                }
+            }
+
+            Iterator<Entry<String, Long>> highlighted = highlightedUntil.entrySet().iterator();
+            while (highlighted.hasNext()) {
+                Entry<String, Long> entry = highlighted.next();
+                if (entry.getValue() <= now) {
+                    highlighted.remove();
+                    previousStates.remove(entry.getKey());
+                }
+            }
+
+            redraw(render(String.format("%s  %d connector(s): %s, next update in %.1f s", LocalTime.now().withNano(0), statuses.size(), countStates(),
+                    nextPollMs / 1000.0)));
+
+            // stops watching once the output has been closed, e.g. when piped into head
+            return !out.checkError();
+        }
+
+        @Override
+        public boolean onRebalance(KafkaConnectException e, long nextPollMs) {
+            String message = String.format("%s  Rebalance in progress, polling paused for %.1f s", LocalTime.now().withNano(0), nextPollMs / 1000.0);
+
+            if (!interactive || statuses == null) {
+                out.println(message);
+                out.flush();
+            }
+            else {
+                redraw(render(ANSI_YELLOW + message + ANSI_RESET));
+            }
+
+            return !out.checkError();
+        }
+
+        private String countStates() {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (ConnectorStatusInfo status : statuses.values()) {
+                counts.merge(status.connector.state, 1, Integer::sum);
+            }
+
+            List<String> parts = new ArrayList<>();
+            for (Entry<String, Integer> count : counts.entrySet()) {
+                parts.add(count.getValue() + " " + count.getKey());
+            }
+
+            return parts.isEmpty() ? "none" : String.join(", ", parts);
+        }
+
+        private List<String> render(String footer) {
+            List<String> names = new ArrayList<>(statuses.keySet());
+            List<String[]> rows = new ArrayList<>();
+
+            for (Entry<String, ConnectorStatusInfo> connector : statuses.entrySet()) {
+                ConnectorStatusInfo status = connector.getValue();
+                String previousState = previousStates.get(connector.getKey());
+                rows.add(new String[]{
+                        connector.getKey(),
+                        status.type,
+                        status.connector.state + (previousState != null ? " (was " + previousState + ")" : ""),
+                        GetConnectorsCommand.toString(status.tasks) });
+            }
+
+            for (int column = 0; column < HEADERS.length; column++) {
+                widths[column] = Math.max(widths[column], HEADERS[column].length());
+            }
+            for (String[] row : rows) {
+                for (int column = 0; column < row.length; column++) {
+                    widths[column] = Math.max(widths[column], row[column].length());
+                }
+            }
+
+            // leaves room for the previous state of each connector and for any state of its tasks
+            for (ConnectorStatusInfo status : statuses.values()) {
+                widths[STATE_COLUMN] = Math.max(widths[STATE_COLUMN], (status.connector.state + " (was " + LONGEST_STATE + ")").length());
+
+                int tasksWidth = 0;
+                for (TaskState task : status.tasks) {
+                    if (tasksWidth > 0) {
+                        tasksWidth += ", ".length();
+                    }
+                    tasksWidth += (task.id + ": " + LONGEST_STATE).length();
+                }
+                widths[TASKS_COLUMN] = Math.max(widths[TASKS_COLUMN], tasksWidth);
+            }
+
+            List<String> lines = new ArrayList<>();
+            lines.add(toLine(HEADERS));
+            for (int row = 0; row < rows.size(); row++) {
+                String line = toLine(rows.get(row));
+                if (highlightedUntil.containsKey(names.get(row))) {
+                    lines.add(ANSI_YELLOW + line + ANSI_RESET);
+                }
+                else {
+                    lines.add(line.replace("RUNNING", ANSI_GREEN + "RUNNING" + ANSI_RESET).replace("FAILED", ANSI_RED + "FAILED" + ANSI_RESET));
+                }
+            }
+
+            if (footer != null) {
+                lines.add("");
+                lines.add(footer);
+            }
+
+            return lines;
+        }
+
+        private String toLine(String[] cells) {
+            StringBuilder line = new StringBuilder();
+            for (int column = 0; column < cells.length; column++) {
+                // separated like the table of all connectors
+                line.append(column > 0 ? "  " : " ").append(cells[column]);
+                for (int i = cells[column].length(); i < widths[column]; i++) {
+                    line.append(' ');
+                }
+                line.append(' ');
+            }
+            return line.toString();
+        }
+
+        private void redraw(List<String> lines) {
+            StringBuilder update = new StringBuilder();
+
+            if (drawn == null) {
+                lines.forEach(line -> update.append(line).append(System.lineSeparator()));
+            }
+            // move to the start of the table and clear the screen below
+            else if (drawn.size() != lines.size()) {
+                update.append("\u001B[").append(drawn.size()).append("A\r\u001B[J");
+                lines.forEach(line -> update.append(line).append(System.lineSeparator()));
+            }
+            // move up to each changed line, rewrite it and move back down
+            else {
+                for (int i = 0; i < lines.size(); i++) {
+                    if (!lines.get(i).equals(drawn.get(i))) {
+                        int up = drawn.size() - i;
+                        update.append("\u001B[").append(up).append("A\r\u001B[2K").append(lines.get(i)).append("\r\u001B[").append(up).append("B");
+                    }
+                }
+            }
+
+            out.print(update);
+            out.flush();
+            drawn = lines;
+        }
+    }
 }
@@ -20,10 +20,9 @@ import java.util.Map;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.LoggerNameCompletions;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.KafkaConnectClientFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -46,16 +45,14 @@ public class GetLoggerCommand implements Runnable {
     private static final String DEFAULT_PATH = "ALL";
 
     @Inject
-    ConfigurationContext context;
+    KafkaConnectClientFactory clientFactory;
 
     @Parameters(paramLabel = "LOGGER NAME", description = "Name of the logger", completionCandidates = LoggerNameCompletions.class)
     String path;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         String[][] data;
         if (path.equals(DEFAULT_PATH)) {
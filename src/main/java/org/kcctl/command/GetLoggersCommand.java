@@ -20,9 +20,8 @@ import java.util.Map;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.KafkaConnectClientFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -42,13 +41,11 @@ import static org.kcctl.util.Colors.ANSI_YELLOW;
 public class GetLoggersCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    KafkaConnectClientFactory clientFactory;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         ObjectNode connectorLoggers = kafkaConnectApi.getLoggers("");
         Iterator<String> classPaths = connectorLoggers.fieldNames();
@@ -21,10 +21,9 @@ import java.util.List;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.service.ConnectorPlugin;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.KafkaConnectClientFactory;
 
 import com.github.freva.asciitable.AsciiTable;
 import com.github.freva.asciitable.Column;
@@ -36,13 +35,11 @@ import picocli.CommandLine.Command;
 public class GetPluginsCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    KafkaConnectClientFactory clientFactory;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         List<ConnectorPlugin> connectorPlugins = kafkaConnectApi.getConnectorPlugins();
         Collections.sort(connectorPlugins, (c1, c2) -> -c1.type.compareTo(c2.type));
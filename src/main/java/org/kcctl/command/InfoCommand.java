@@ -17,8 +17,7 @@ package org.kcctl.command;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
-import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.CapabilityRegistry;
 import org.kcctl.service.KafkaConnectInfo;
 import org.kcctl.util.ConfigurationContext;
 
@@ -30,13 +29,13 @@ public class InfoCommand implements Runnable {
     @Inject
     ConfigurationContext context;
 
+    @Inject
+    CapabilityRegistry capabilities;
+
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
-
-        KafkaConnectInfo workerInfo = kafkaConnectApi.getWorkerInfo();
+        // always shows the live info, updating the cached one
+        KafkaConnectInfo workerInfo = capabilities.refresh();
         System.out.println("URL:               " + context.getCurrentContext().getCluster());
         System.out.println("Version:           " + workerInfo.version);
         System.out.println("Commit:            " + workerInfo.commit);
@@ -19,11 +19,15 @@ import javax.enterprise.inject.Produces;
 
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.kcctl.service.ExecutionExceptionHandler;
+import org.kcctl.util.Timings;
 
 import io.quarkus.picocli.runtime.PicocliCommandLineFactory;
 import io.quarkus.picocli.runtime.annotations.TopCommand;
 import picocli.CommandLine;
+import picocli.CommandLine.IExecutionStrategy;
 import picocli.CommandLine.IVersionProvider;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ScopeType;
 
 @TopCommand()
 @CommandLine.Command(name = "kcctl", mixinStandardHelpOptions = true, versionProvider = VersionProviderWithConfigProvider.class, subcommands = {
@@ -32,11 +36,17 @@ import picocli.CommandLine.IVersionProvider;
         GetCommand.class,
         DescribeCommand.class,
         ApplyCommand.class,
+        SyncCommand.class,
         PatchCommand.class,
         RestartCommand.class,
         PauseCommand.class,
         ResumeCommand.class,
+        WaitCommand.class,
+        EventsCommand.class,
+        ServeCommand.class,
         DeleteConnectorCommand.class,
+        BatchCommand.class,
+        DaemonCommand.class,
         CommandLine.HelpCommand.class,
         ConnectorNamesCompletionCandidateCommand.class,
         TaskNamesCompletionCandidateCommand.class,
@@ -48,9 +58,21 @@ import picocli.CommandLine.IVersionProvider;
 
 public class KcCtlCommand {
 
+    // evaluated by TimingsExecutionStrategy, which sees them no matter which command they were given for
+    @Option(names = TimingsExecutionStrategy.TIMINGS_OPTION, scope = ScopeType.INHERIT, description = "Prints the time spent in the phases of the command and in each request to stderr")
+    boolean timings;
+
+    @Option(names = TimingsExecutionStrategy.FORMAT_OPTION, scope = ScopeType.INHERIT, paramLabel = "FORMAT", description = "Prints the timings as 'table' or 'json'; implies --timings")
+    String timingsFormat;
+
     @Produces
-    CommandLine getCommandLineInstance(PicocliCommandLineFactory factory) {
-        return factory.create().setExecutionExceptionHandler(new ExecutionExceptionHandler());
+    CommandLine getCommandLineInstance(PicocliCommandLineFactory factory, Timings timings) {
+        CommandLine commandLine = factory.create().setExecutionExceptionHandler(new ExecutionExceptionHandler());
+
+        IExecutionStrategy strategy = commandLine.getExecutionStrategy();
+        commandLine.setExecutionStrategy(new TimingsExecutionStrategy(strategy, timings));
+
+        return commandLine;
     }
 }
 
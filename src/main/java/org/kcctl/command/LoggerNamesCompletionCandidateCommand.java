@@ -15,37 +15,30 @@
  */
 package org.kcctl.command;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
-import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
-
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kcctl.service.CompletionCache;
+import org.kcctl.service.CompletionCache.Kind;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
 
 @Command(name = "logger-name-completions", hidden = true)
 public class LoggerNamesCompletionCandidateCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    CompletionCache completionCache;
+
+    @Parameters(arity = "0..1", description = "Only return names starting with this prefix")
+    String prefix;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
-
-        ObjectNode connectorLoggers = kafkaConnectApi.getLoggers("");
-        Iterator<String> fieldNames = connectorLoggers.fieldNames();
-        List<String> loggers = new ArrayList<>();
-        fieldNames.forEachRemaining(loggers::add);
+        if (CompletionCache.isRefreshRequested()) {
+            completionCache.refreshAndUnlock(Kind.LOGGER_NAMES);
+            return;
+        }
 
-        System.out.println(String.join(" ", loggers));
+        System.out.println(String.join(" ", completionCache.getCompletions(Kind.LOGGER_NAMES, prefix)));
     }
 }
@@ -16,7 +16,6 @@
 package org.kcctl.command;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -24,10 +23,14 @@ import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ConnectorStateWaiter;
+import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.FanOutExecutor;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.service.KafkaConnectException;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.WriteScheduler;
 import org.kcctl.util.ConfigurationContext;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -49,6 +52,12 @@ public class PatchConnectorCommand implements Callable<Integer> {
     @Inject
     ConfigurationContext context;
 
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
     @Parameters(paramLabel = "CONNECTOR NAME", description = "Name of the connector", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
@@ -58,12 +67,13 @@ public class PatchConnectorCommand implements Callable<Integer> {
     @Option(names = { "-r", "--remove" }, description = "Remove the following configuration parameter")
     List<String> removeParameters;
 
+    @Option(names = { "--wait" }, description = "Waits until the connector and its tasks are running with the new configuration")
+    boolean wait;
+
     @Override
     public Integer call() throws JsonProcessingException, InterruptedException, ExecutionException {
 
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         Map<String, String> connectorParameters = kafkaConnectApi.getConnectorConfig(name);
 
@@ -81,37 +91,33 @@ public class PatchConnectorCommand implements Callable<Integer> {
             removeParameters.forEach(connectorParameters::remove);
         }
 
+        WriteScheduler scheduler = new WriteScheduler(1, Duration.ofSeconds(30));
+
         String connectorParametersString = new ObjectMapper().writeValueAsString(connectorParameters);
-        kafkaConnectApi.updateConnector(name, connectorParametersString);
+        // the status before the update, so that waiting doesn't mistake it for the one after the restart
+        ConnectorStatusInfo previousStatus = wait ? kafkaConnectApi.getConnectorStatus(name) : null;
+        long start = System.nanoTime();
+        scheduler.execute(() -> kafkaConnectApi.updateConnector(name, connectorParametersString));
+
+        if (wait) {
+            ConnectorStateWaiter waiter = new ConnectorStateWaiter(kafkaConnectApi, capabilities, FanOutExecutor.forContext(context.getCurrentContext(), null));
+            if (WaitReport.await(waiter, List.of(name), ConnectorStateWaiter.RUNNING, ConnectorStateWaiter.DEFAULT_TIMEOUT, start,
+                    Map.of(name, previousStatus)) != 0) {
+                return 1;
+            }
+            System.out.println();
+        }
 
         DescribeConnectorCommand describeConnectorCommand = new DescribeConnectorCommand();
         describeConnectorCommand.context = context;
+        describeConnectorCommand.clientFactory = clientFactory;
+        describeConnectorCommand.capabilities = capabilities;
         describeConnectorCommand.name = name;
         describeConnectorCommand.includeTasksConfig = false;
 
         System.out.println("New connector configuration:");
 
-        Instant start = Instant.now();
-
-        while (Duration.between(start, Instant.now()).toSeconds() < 30) {
-            try {
-                return describeConnectorCommand.call();
-            }
-            catch (KafkaConnectException kce) {
-                if (kce.getMessage().startsWith("Cannot complete request momentarily due to stale configuration")) {
-                    try {
-                        Thread.sleep(100);
-                    }
-                    catch (InterruptedException ie) {
-                        throw new RuntimeException(ie);
-                    }
-                }
-                else {
-                    throw kce;
-                }
-            }
-        }
-
-        return 0;
+        // the update may cause a rebalance, during which the connector cannot be described
+        return scheduler.execute(describeConnectorCommand::call);
     }
 }
@@ -20,10 +20,9 @@ import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.LoggerNameCompletions;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.KafkaConnectClientFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -34,7 +33,7 @@ import picocli.CommandLine;
 public class PatchLogLevelCommand implements Callable {
 
     @Inject
-    ConfigurationContext context;
+    KafkaConnectClientFactory clientFactory;
 
     @CommandLine.Parameters(paramLabel = "Logger NAME", description = "Name of the logger", completionCandidates = LoggerNameCompletions.class)
     String name;
@@ -44,9 +43,7 @@ public class PatchLogLevelCommand implements Callable {
 
     @Override
     public Object call() throws Exception {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         ObjectMapper mapper = new ObjectMapper();
         ObjectNode data = mapper.createObjectNode();
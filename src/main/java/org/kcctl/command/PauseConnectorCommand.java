@@ -15,32 +15,109 @@
  */
 package org.kcctl.command;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterSnapshot;
+import org.kcctl.service.ConnectorSelector;
+import org.kcctl.service.FanOutExecutor;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.PauseSnapshot;
 import org.kcctl.util.ConfigurationContext;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+@Command(name = "connector", description = "Pauses the specified connector or the selected connectors")
+public class PauseConnectorCommand implements Callable<Integer> {
 
-@Command(name = "connector", description = "Pauses the specified connector")
-public class PauseConnectorCommand implements Runnable {
+    @Spec
+    CommandSpec commandSpec;
 
     @Inject
     ConfigurationContext context;
 
-    @Parameters(paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "0..1", paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
+    @Mixin
+    ConnectorSelection selection;
+
+    @Option(names = { "--snapshot" }, paramLabel = "FILE", description = "Records the state of the selected connectors in the given file before pausing them, "
+            + "for resuming them with 'resume connector --from-snapshot'")
+    File snapshotFile;
+
     @Override
-    public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+    public Integer call() {
+        ConnectorSelector selector = selection.getSelector(name);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if (snapshotFile != null) {
+            if (selector == null) {
+                throw new ParameterException(commandSpec.commandLine(), "--snapshot requires selectors (e.g. --all) instead of a connector name");
+            }
+
+            return pauseWithSnapshot(kafkaConnectApi, selector);
+        }
+        else if (selector != null) {
+            return selection.execute(context, kafkaConnectApi, capabilities, selector, "pause", "Paused", kafkaConnectApi::pauseConnector);
+        }
 
         kafkaConnectApi.pauseConnector(name);
         System.out.println("Paused connector " + name);
+        return 0;
+    }
+
+    private int pauseWithSnapshot(KafkaConnectApi kafkaConnectApi, ConnectorSelector selector) {
+        FanOutExecutor executor = selection.getExecutor(context);
+
+        long start = System.nanoTime();
+        ClusterSnapshot clusterSnapshot = ClusterSnapshot.take(kafkaConnectApi, capabilities, executor, true);
+        List<String> connectors = selector.select(clusterSnapshot);
+
+        if (connectors.isEmpty()) {
+            System.out.println("No matching connectors found");
+            return 0;
+        }
+
+        // written before pausing anything, so the connectors can be resumed even if pausing fails half-way
+        PauseSnapshot snapshot = PauseSnapshot.take(context.getCurrentContextName(), context.getCurrentContext().getCluster(), clusterSnapshot, connectors);
+        try {
+            snapshot.write(snapshotFile);
+        }
+        catch (IOException e) {
+            System.out.println("Couldn't write snapshot: " + e.getMessage());
+            return 1;
+        }
+
+        System.out.println(String.format("Recorded the state of %d connector(s) in %s in %d ms", connectors.size(), snapshotFile,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+        List<String> unpaused = snapshot.getUnpausedConnectors();
+        if (unpaused.isEmpty()) {
+            System.out.println("All selected connectors are paused already");
+            return 0;
+        }
+
+        return FanOutExecutor.failures(selection.execute(executor, unpaused, "pause", "Paused", kafkaConnectApi::pauseConnector)).isEmpty() ? 0 : 1;
     }
 }
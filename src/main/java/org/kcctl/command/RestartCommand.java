@@ -17,6 +17,7 @@ package org.kcctl.command;
 
 import picocli.CommandLine.Command;
 
-@Command(name = "restart", subcommands = { RestartConnectorCommand.class, RestartTaskCommand.class }, description = "Restarts a connector or task")
+@Command(name = "restart", subcommands = { RestartConnectorCommand.class, RestartConnectorsCommand.class,
+        RestartTaskCommand.class }, description = "Restarts a connector or task")
 public class RestartCommand {
 }
@@ -15,32 +15,103 @@
  */
 package org.kcctl.command;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterFeature;
+import org.kcctl.service.ConnectorSelector;
+import org.kcctl.service.ConnectorStatusInfo;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.TaskState;
 import org.kcctl.util.ConfigurationContext;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
-@Command(name = "connector", description = "Restarts the specified connector")
-public class RestartConnectorCommand implements Runnable {
+@Command(name = "connector", description = "Restarts the specified connector or the selected connectors")
+public class RestartConnectorCommand implements Callable<Integer> {
+
+    private static final String RESTARTING = "RESTARTING";
 
     @Inject
     ConfigurationContext context;
 
-    @Parameters(paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "0..1", paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
+    @Option(names = { "--include-tasks" }, description = "Restarts the tasks of the connector too")
+    boolean includeTasks;
+
+    @Option(names = { "--only-failed" }, description = "Restarts the connector and its tasks only if they are in state FAILED")
+    boolean onlyFailed;
+
+    @Mixin
+    ConnectorSelection selection;
+
     @Override
-    public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+    public Integer call() {
+        ConnectorSelector selector = selection.getSelector(name);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if ((includeTasks || onlyFailed) && !capabilities.supports(ClusterFeature.RESTART_FILTERS)) {
+            System.out.println("--include-tasks and --only-failed require at least Kafka Connect 3.0. Current version: " + capabilities.getVersion());
+            return 1;
+        }
+
+        if (selector != null) {
+            return selection.execute(context, kafkaConnectApi, capabilities, selector, "restart", "Restarted", connector -> restart(kafkaConnectApi, connector));
+        }
+
+        if (!includeTasks && !onlyFailed) {
+            kafkaConnectApi.restartConnector(name);
+            System.out.println("Restarted connector " + name);
+            return 0;
+        }
+
+        ConnectorStatusInfo status = kafkaConnectApi.restartConnector(name, includeTasks, onlyFailed);
+
+        List<String> restarted = new ArrayList<>();
+        if (status != null && status.connector != null && RESTARTING.equals(status.connector.state)) {
+            restarted.add("connector");
+        }
+        if (status != null && status.tasks != null) {
+            for (TaskState task : status.tasks) {
+                if (RESTARTING.equals(task.state)) {
+                    restarted.add("task " + task.id);
+                }
+            }
+        }
+
+        if (restarted.isEmpty()) {
+            System.out.println("Nothing to restart for connector " + name);
+        }
+        else {
+            System.out.println("Restarting " + name + ": " + String.join(", ", restarted));
+        }
+
+        return 0;
+    }
 
-        kafkaConnectApi.restartConnector(name);
-        System.out.println("Restarted connector " + name);
+    private void restart(KafkaConnectApi kafkaConnectApi, String connector) {
+        if (includeTasks || onlyFailed) {
+            kafkaConnectApi.restartConnector(connector, includeTasks, onlyFailed);
+        }
+        else {
+            kafkaConnectApi.restartConnector(connector);
+        }
     }
 }
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterFeature;
+import org.kcctl.service.ClusterSnapshot;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
+import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.RestartPlan;
+import org.kcctl.service.RestartPlan.Restart;
+import org.kcctl.util.ConfigurationContext;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import static org.kcctl.util.Colors.ANSI_RED;
+import static org.kcctl.util.Colors.ANSI_RESET;
+
+@Command(name = "connectors", description = "Restarts multiple connectors and their tasks")
+public class RestartConnectorsCommand implements Callable<Integer> {
+
+    @Inject
+    ConfigurationContext context;
+
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Option(names = { "--failed" }, description = "Restarts all connectors and tasks in state FAILED")
+    boolean failed;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    @Override
+    public Integer call() {
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        if (!failed) {
+            System.out.println("Please specify the connectors to restart, e.g. --failed");
+            return 1;
+        }
+
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+        FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+
+        long start = System.nanoTime();
+        RestartPlan plan = RestartPlan.forFailed(ClusterSnapshot.take(kafkaConnectApi, capabilities, executor, true));
+        List<Restart> restarts = plan.getRestarts();
+
+        if (restarts.isEmpty()) {
+            System.out.println("No failed connectors or tasks found");
+            return 0;
+        }
+
+        System.out.println(String.format("Found %d failed connector(s) and %d failed task(s) in %d ms", plan.getConnectorCount(), plan.getTaskCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+        // since 3.0, the failed instances of a connector are restarted with a single request
+        boolean filteredRestarts = capabilities.supports(ClusterFeature.RESTART_FILTERS);
+        List<Result<Restart, Long>> results = executor.execute(restarts, restart -> timed(() -> restart(kafkaConnectApi, restart, filteredRestarts)));
+
+        System.out.println();
+        for (Result<Restart, Long> result : results) {
+            Restart restart = result.getItem();
+            if (result.isSuccessful()) {
+                System.out.println("Restarted " + restart.getConnector() + ": " + restart.getDescription() + " (" + result.getValue() + " ms)");
+            }
+            else {
+                System.out.println(ANSI_RED + "Failed to restart " + restart.getConnector() + ANSI_RESET + ": " + result.getError().getMessage());
+            }
+        }
+
+        int failures = FanOutExecutor.failures(results).size();
+        System.out.println();
+        System.out.println(String.format("Restarted %d of %d connector(s) in %d ms, %d failed", results.size() - failures, results.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures));
+
+        return failures == 0 ? 0 : 1;
+    }
+
+    private static void restart(KafkaConnectApi kafkaConnectApi, Restart restart, boolean filteredRestarts) {
+        if (filteredRestarts) {
+            kafkaConnectApi.restartConnector(restart.getConnector(), true, true);
+            return;
+        }
+
+        if (restart.isConnectorFailed()) {
+            kafkaConnectApi.restartConnector(restart.getConnector());
+        }
+        for (Integer task : restart.getFailedTasks()) {
+            kafkaConnectApi.restartTask(restart.getConnector(), String.valueOf(task));
+        }
+    }
+
+    private static long timed(Runnable operation) {
+        long start = System.nanoTime();
+        operation.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -17,10 +17,9 @@ package org.kcctl.command;
 
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.TaskNameCompletions;
 import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.KafkaConnectClientFactory;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Parameters;
@@ -29,16 +28,14 @@ import picocli.CommandLine.Parameters;
 public class RestartTaskCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    KafkaConnectClientFactory clientFactory;
 
     @Parameters(paramLabel = "NAME", description = "Name of the task (e.g. 'my-connector/0')", completionCandidates = TaskNameCompletions.class)
     String name;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
 
         String[] parts = name.split("\\/");
         if (parts.length != 2) {
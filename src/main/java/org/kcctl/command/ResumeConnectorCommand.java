@@ -15,32 +15,131 @@
  */
 package org.kcctl.command;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ConnectorSelector;
+import org.kcctl.service.ConnectorStateWaiter;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
 import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.PauseSnapshot;
 import org.kcctl.util.ConfigurationContext;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+@Command(name = "connector", description = "Resumes the specified connector or the selected connectors")
+public class ResumeConnectorCommand implements Callable<Integer> {
 
-@Command(name = "connector", description = "Resumes the specified connector")
-public class ResumeConnectorCommand implements Runnable {
+    @Spec
+    CommandSpec commandSpec;
 
     @Inject
     ConfigurationContext context;
 
-    @Parameters(paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "0..1", paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
     String name;
 
+    @Mixin
+    ConnectorSelection selection;
+
+    @Option(names = { "--from-snapshot" }, paramLabel = "FILE", description = "Resumes the connectors paused with 'pause connector --snapshot' "
+            + "and waits until the previously running ones are running again")
+    File snapshotFile;
+
+    @Option(names = { "--timeout" }, defaultValue = "300", description = "Time in seconds to wait for the connectors resumed from a snapshot to be running")
+    int timeoutSeconds;
+
     @Override
-    public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
+    public Integer call() {
+        if (snapshotFile != null) {
+            if (name != null || selection.hasSelector()) {
+                throw new ParameterException(commandSpec.commandLine(), "--from-snapshot can't be combined with a connector name or selectors");
+            }
+
+            return resumeFromSnapshot(clientFactory.getClient());
+        }
+
+        ConnectorSelector selector = selection.getSelector(name);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+
+        if (selector != null) {
+            return selection.execute(context, kafkaConnectApi, capabilities, selector, "resume", "Resumed", kafkaConnectApi::resumeConnector);
+        }
 
         kafkaConnectApi.resumeConnector(name);
         System.out.println("Resumed connector " + name);
+        return 0;
+    }
+
+    private int resumeFromSnapshot(KafkaConnectApi kafkaConnectApi) {
+        PauseSnapshot snapshot;
+        try {
+            snapshot = PauseSnapshot.read(snapshotFile);
+        }
+        catch (IOException e) {
+            System.out.println("Couldn't read snapshot: " + e.getMessage());
+            return 1;
+        }
+
+        if (snapshot.cluster != null && !snapshot.cluster.equals(context.getCurrentContext().getCluster())) {
+            System.out.println("The snapshot was taken of cluster " + snapshot.cluster + ", but the current context is for cluster "
+                    + context.getCurrentContext().getCluster());
+            return 1;
+        }
+
+        List<String> connectors = snapshot.getUnpausedConnectors();
+        System.out.println(String.format("Resuming %d of %d connector(s) from the snapshot taken at %s", connectors.size(), snapshot.connectors.size(),
+                snapshot.takenAt));
+
+        if (connectors.isEmpty()) {
+            return 0;
+        }
+
+        FanOutExecutor executor = selection.getExecutor(context);
+        long start = System.nanoTime();
+        List<Result<String, Long>> results = selection.execute(executor, connectors, "resume", "Resumed", kafkaConnectApi::resumeConnector);
+
+        // connectors which weren't running before, e.g. as they had failed, aren't expected to be running afterwards
+        Set<String> running = new HashSet<>(snapshot.getConnectors(ConnectorStateWaiter.RUNNING));
+        List<String> awaited = new ArrayList<>();
+        for (Result<String, Long> result : results) {
+            if (result.isSuccessful() && running.contains(result.getItem())) {
+                awaited.add(result.getItem());
+            }
+        }
+
+        int exitCode = FanOutExecutor.failures(results).isEmpty() ? 0 : 1;
+        if (awaited.isEmpty()) {
+            return exitCode;
+        }
+
+        System.out.println();
+        ConnectorStateWaiter waiter = new ConnectorStateWaiter(kafkaConnectApi, capabilities, executor);
+        int waitExitCode = WaitReport.await(waiter, awaited, ConnectorStateWaiter.RUNNING, Duration.ofSeconds(timeoutSeconds), start);
+        return exitCode != 0 ? exitCode : waitExitCode;
     }
 }
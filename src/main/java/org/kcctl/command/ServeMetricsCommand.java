@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import javax.inject.Inject;
+
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.MetricsExporter;
+import org.kcctl.service.StatusWatcher;
+import org.kcctl.util.ConfigurationContext;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "metrics", description = "Serves the states of connectors and tasks as well as request latencies as OpenMetrics (e.g. for Prometheus)")
+public class ServeMetricsCommand implements Callable<Integer> {
+
+    @Inject
+    ConfigurationContext context;
+
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Option(names = { "--host" }, defaultValue = "localhost", description = "Host name or address to listen on, e.g. '0.0.0.0' for all interfaces")
+    String host;
+
+    @Option(names = { "--port" }, defaultValue = "9404", description = "Port to listen on")
+    int port;
+
+    @Option(names = { "--refresh-interval" }, defaultValue = "15", description = "Time in seconds between refreshes of the cluster state")
+    int refreshIntervalSeconds;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        if (refreshIntervalSeconds < 1) {
+            System.out.println("Refresh interval must be at least 1 second");
+            return 1;
+        }
+
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+        MetricsExporter exporter = new MetricsExporter(clientFactory.getStatistics());
+
+        Duration interval = Duration.ofSeconds(refreshIntervalSeconds);
+        StatusWatcher watcher = new StatusWatcher(kafkaConnectApi, capabilities, FanOutExecutor.forContext(context.getCurrentContext(), parallelism),
+                interval, interval);
+
+        Thread refresher = new Thread(() -> refresh(watcher, exporter, interval), "kcctl-metrics-refresher");
+        refresher.setDaemon(true);
+        refresher.start();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, 200, MetricsExporter.CONTENT_TYPE, exporter.scrape()));
+        server.createContext("/", exchange -> respond(exchange, 404, "text/plain; charset=utf-8", "Metrics are served at /metrics\n"));
+        server.start();
+
+        System.out.println("Serving metrics at http://" + host + ":" + server.getAddress().getPort() + "/metrics");
+
+        // runs until the process is stopped
+        new CountDownLatch(1).await();
+        return 0;
+    }
+
+    private static void refresh(StatusWatcher watcher, MetricsExporter exporter, Duration interval) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                watcher.watch(exporter);
+            }
+            catch (RuntimeException e) {
+                exporter.onFailure(e);
+                System.err.println("Couldn't refresh the cluster state: " + e.getMessage());
+
+                try {
+                    Thread.sleep(interval.toMillis());
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+}
@@ -15,14 +15,16 @@
  */
 package org.kcctl.command;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 import org.kcctl.service.Context;
 import org.kcctl.util.ConfigurationContext;
@@ -38,8 +40,9 @@ public class SetContextCommand implements Callable<Integer> {
     @Parameters(index = "0", description = "Context name")
     String contextName;
 
-    @Option(names = { "--cluster" }, defaultValue = "http://localhost:8083", description = "URL of the Kafka Connect cluster to connect to")
-    String cluster;
+    @Option(names = { "--cluster" }, defaultValue = "http://localhost:8083", split = ",", description = "URL of the Kafka Connect cluster to connect to; "
+            + "requests are spread across multiple comma-separated worker URLs")
+    List<String> cluster;
 
     @Option(names = { "--bootstrap-servers" }, defaultValue = "localhost:9092", description = "Comma-separated list of Kafka broker URLs")
     String bootstrapServers;
@@ -57,17 +60,43 @@ public class SetContextCommand implements Callable<Integer> {
     String[] clientConfigs;
 
     @Option(names = { "-f", "--client-config-file" }, description = "Configuration file for client")
-    String clientConfigFile;
+    File clientConfigFile;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    @Option(names = { "--connect-timeout" }, description = "Timeout in milliseconds for establishing a connection to the Kafka Connect cluster")
+    Long connectTimeoutMs;
+
+    @Option(names = { "--read-timeout" }, description = "Timeout in milliseconds for receiving a response from the Kafka Connect cluster")
+    Long readTimeoutMs;
+
+    @Option(names = { "--max-retries" }, description = "Maximum number of retries of requests which failed temporarily, e.g. during a rebalance; 0 disables retries")
+    Integer maxRetries;
+
+    @Option(names = { "--retry-timeout" }, description = "Time in milliseconds after which failed requests are no longer retried")
+    Long retryTimeoutMs;
 
     @Override
     public Integer call() throws FileNotFoundException, IOException {
         ConfigurationContext context = new ConfigurationContext();
 
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        if (maxRetries != null && maxRetries < 0) {
+            System.out.println("The maximum number of retries must not be negative");
+            return 1;
+        }
+
         Properties clientConfigProps = new Properties();
 
-        if (!Strings.isBlank(clientConfigFile)) {
-            final String expandedPath = Paths.get(clientConfigFile).toAbsolutePath().toString();
-            clientConfigProps.load(new FileReader(expandedPath));
+        if (clientConfigFile != null && !Strings.isBlank(clientConfigFile.getPath())) {
+            try (FileReader reader = new FileReader(clientConfigFile.getAbsoluteFile())) {
+                clientConfigProps.load(reader);
+            }
         }
 
         if (this.clientConfigs != null) {
@@ -82,12 +111,19 @@ public class SetContextCommand implements Callable<Integer> {
             }
         }
 
+        List<URI> workers = cluster.stream()
+                .skip(1)
+                .map(URI::create)
+                .collect(Collectors.toList());
+
         final var clientConfigMap = new HashMap<String, Object>();
         for (final String name : clientConfigProps.stringPropertyNames()) {
             clientConfigMap.put(name, clientConfigProps.getProperty(name));
         }
 
-        context.setContext(contextName, new Context(URI.create(cluster), bootstrapServers, offsetTopic, username, password, clientConfigMap));
+        context.setContext(contextName,
+                new Context(URI.create(cluster.get(0)), workers.isEmpty() ? null : workers, bootstrapServers, offsetTopic, username, password, clientConfigMap,
+                        parallelism, connectTimeoutMs, readTimeoutMs, maxRetries, retryTimeoutMs));
         System.out.println("Configured context " + contextName);
 
         if (!context.getCurrentContextName().equals(contextName)) {
@@ -0,0 +1,272 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterSnapshot;
+import org.kcctl.service.ConnectorConfigs;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.FanOutExecutor.Result;
+import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.service.SyncPlan;
+import org.kcctl.service.SyncPlan.Action;
+import org.kcctl.service.SyncPlan.Change;
+import org.kcctl.service.WriteScheduler;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.FilePatterns;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.freva.asciitable.AsciiTable;
+import com.github.freva.asciitable.Column;
+import com.github.freva.asciitable.HorizontalAlign;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import static org.kcctl.util.Colors.ANSI_GREEN;
+import static org.kcctl.util.Colors.ANSI_RED;
+import static org.kcctl.util.Colors.ANSI_RESET;
+import static org.kcctl.util.Colors.ANSI_WHITE_BOLD;
+import static org.kcctl.util.Colors.ANSI_YELLOW;
+
+@Command(name = "sync", description = "Creates, updates and optionally deletes connectors so that the cluster matches the given connector files")
+public class SyncCommand implements Callable<Integer> {
+
+    @Inject
+    ConfigurationContext context;
+
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "1..*", paramLabel = "PATH", description = "Connector files, directories or glob patterns (e.g. 'connectors/*.json') describing the desired connectors")
+    List<File> paths;
+
+    @Option(names = { "--prune" }, description = "Deletes connectors not described by any of the given files")
+    boolean prune;
+
+    @Option(names = { "--dry-run" }, description = "Only displays the planned changes")
+    boolean dryRun;
+
+    @Option(names = { "--parallelism" }, description = "Maximum number of concurrent requests issued against the Kafka Connect cluster")
+    Integer parallelism;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public Integer call() throws Exception {
+        if (parallelism != null && parallelism < 1) {
+            System.out.println("The parallelism must be at least 1");
+            return 1;
+        }
+
+        Map<String, Map<String, Object>> desired = readDesiredConnectors();
+        if (desired == null) {
+            return 1;
+        }
+
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+        FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), parallelism);
+
+        long start = System.nanoTime();
+        ClusterSnapshot snapshot = ClusterSnapshot.take(kafkaConnectApi, capabilities, executor, false);
+        SyncPlan plan = SyncPlan.compute(desired, snapshot, prune);
+
+        printPlan(plan, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (dryRun || !plan.hasChanges()) {
+            return 0;
+        }
+
+        return execute(kafkaConnectApi, executor, plan);
+    }
+
+    private Map<String, Map<String, Object>> readDesiredConnectors() throws IOException {
+        List<File> files = FilePatterns.expand(paths, ".json");
+        if (files.isEmpty()) {
+            System.out.println("No connector files found for " + paths);
+            return null;
+        }
+
+        Map<String, Map<String, Object>> desired = new LinkedHashMap<>();
+        Map<String, File> sources = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+
+        for (File file : files) {
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> contents = mapper.readValue(Files.readString(file.toPath()), Map.class);
+                String name = ConnectorConfigs.getConnectorName(contents, file);
+
+                if (desired.containsKey(name)) {
+                    errors.add(file + ": connector " + name + " is already described by " + sources.get(name));
+                }
+                else {
+                    desired.put(name, ConnectorConfigs.getConfig(contents));
+                    sources.put(name, file);
+                }
+            }
+            catch (JsonProcessingException e) {
+                errors.add(file + ": invalid JSON: " + e.getOriginalMessage());
+            }
+            catch (IOException e) {
+                errors.add(file + ": couldn't read file: " + e.getMessage());
+            }
+        }
+
+        // nothing is changed unless all files are valid, as deletes would be planned for connectors of invalid files
+        if (!errors.isEmpty()) {
+            System.out.println("The connector files are not valid:");
+            for (String error : errors) {
+                System.out.println("  " + error);
+            }
+            return null;
+        }
+
+        return desired;
+    }
+
+    private void printPlan(SyncPlan plan, long durationMs) {
+        List<String[]> rows = new ArrayList<>();
+        for (Change change : plan.getChanges()) {
+            if (change.getAction() != Action.UNCHANGED) {
+                rows.add(new String[]{ change.getConnector(), " " + change.getAction().name().toLowerCase(), " " + describe(change) });
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            System.out.println();
+            String table = AsciiTable.getTable(AsciiTable.NO_BORDERS,
+                    new Column[]{
+                            new Column().header("CONNECTOR").dataAlign(HorizontalAlign.LEFT),
+                            new Column().header(" ACTION").dataAlign(HorizontalAlign.LEFT),
+                            new Column().header(" CHANGES").dataAlign(HorizontalAlign.LEFT)
+                    },
+                    rows.toArray(new String[0][]));
+            System.out.println(table.replace(" create ", " " + ANSI_GREEN + "create" + ANSI_RESET + " ")
+                    .replace(" update ", " " + ANSI_YELLOW + "update" + ANSI_RESET + " ")
+                    .replace(" delete ", " " + ANSI_RED + "delete" + ANSI_RESET + " "));
+            System.out.println();
+        }
+
+        Map<Action, Integer> counts = plan.getCounts();
+        System.out.println(String.format("Plan: %d to create, %d to update, %d to delete, %d unchanged (planned in %d ms)",
+                counts.get(Action.CREATE), counts.get(Action.UPDATE), counts.get(Action.DELETE), counts.get(Action.UNCHANGED), durationMs));
+
+        if (!plan.getUnmanaged().isEmpty()) {
+            System.out.println(plan.getUnmanaged().size() + " existing connector(s) not described by the given files are kept, use --prune for deleting them");
+        }
+    }
+
+    private String describe(Change change) {
+        switch (change.getAction()) {
+            case CREATE:
+                return change.getChangedProperties().size() + " properties";
+            case UPDATE:
+                return String.join(", ", change.getChangedProperties());
+            default:
+                return "";
+        }
+    }
+
+    private int execute(KafkaConnectApi kafkaConnectApi, FanOutExecutor executor, SyncPlan plan) {
+        long start = System.nanoTime();
+        WriteScheduler scheduler = new WriteScheduler(executor.getParallelism());
+        List<Change> writes = new ArrayList<>(plan.getChanges(Action.CREATE));
+        writes.addAll(plan.getChanges(Action.UPDATE));
+
+        List<Result<Change, Long>> results = new ArrayList<>(executor.execute(writes, change -> timed(() -> {
+            String config = toJson(change.getConfig());
+            scheduler.execute(() -> kafkaConnectApi.updateConnector(change.getConnector(), config));
+        })));
+
+        // deletes come last, so that connectors replaced by renamed ones keep running until their successors exist
+        List<Change> deletes = plan.getChanges(Action.DELETE);
+        boolean writesFailed = !FanOutExecutor.failures(results).isEmpty();
+        if (!writesFailed) {
+            results.addAll(executor.execute(deletes, change -> timed(() -> scheduler.execute(() -> kafkaConnectApi.deleteConnector(change.getConnector())))));
+        }
+
+        System.out.println();
+        for (Result<Change, Long> result : results) {
+            Change change = result.getItem();
+            if (result.isSuccessful()) {
+                System.out.println(pastTense(change.getAction()) + " connector " + change.getConnector() + " (" + result.getValue() + " ms)");
+            }
+            else {
+                System.out.println(ANSI_RED + "Failed to " + change.getAction().name().toLowerCase() + " connector " + change.getConnector() + ANSI_RESET
+                        + ": " + result.getError().getMessage());
+            }
+        }
+
+        if (writesFailed && !deletes.isEmpty()) {
+            System.out.println(ANSI_WHITE_BOLD + "Skipped deleting " + deletes.size() + " connector(s)" + ANSI_RESET + " as not all creates and updates succeeded");
+        }
+
+        int failed = FanOutExecutor.failures(results).size();
+        System.out.println();
+        System.out.println(String.format("Applied %d of %d changes in %d ms, %d failed", results.size() - failed, writes.size() + deletes.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed));
+        System.out.println("Writes: " + scheduler.getSummary());
+
+        return failed == 0 && !writesFailed ? 0 : 1;
+    }
+
+    private static String pastTense(Action action) {
+        switch (action) {
+            case CREATE:
+                return "Created";
+            case UPDATE:
+                return "Updated";
+            case DELETE:
+                return "Deleted";
+            default:
+                return "Kept";
+        }
+    }
+
+    private static long timed(Runnable operation) {
+        long start = System.nanoTime();
+        operation.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private String toJson(Map<String, Object> config) {
+        try {
+            return mapper.writeValueAsString(config);
+        }
+        catch (JsonProcessingException e) {
+            throw new RuntimeException("Couldn't serialize configuration", e);
+        }
+    }
+}
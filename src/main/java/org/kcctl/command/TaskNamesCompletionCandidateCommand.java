@@ -15,41 +15,30 @@
  */
 package org.kcctl.command;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.inject.Inject;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
-import org.kcctl.service.ConnectorStatusInfo;
-import org.kcctl.service.KafkaConnectApi;
-import org.kcctl.service.TaskState;
-import org.kcctl.util.ConfigurationContext;
+import org.kcctl.service.CompletionCache;
+import org.kcctl.service.CompletionCache.Kind;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
 
 @Command(name = "task-name-completions", hidden = true)
 public class TaskNamesCompletionCandidateCommand implements Runnable {
 
     @Inject
-    ConfigurationContext context;
+    CompletionCache completionCache;
+
+    @Parameters(arity = "0..1", description = "Only return names starting with this prefix")
+    String prefix;
 
     @Override
     public void run() {
-        KafkaConnectApi kafkaConnectApi = RestClientBuilder.newBuilder()
-                .baseUri(context.getCurrentContext().getCluster())
-                .build(KafkaConnectApi.class);
-
-        List<String> connectors = kafkaConnectApi.getConnectors();
-        List<String> completions = new ArrayList<>();
-
-        for (String connector : connectors) {
-            ConnectorStatusInfo status = kafkaConnectApi.getConnectorStatus(connector);
-            for (TaskState task : status.tasks) {
-                completions.add(connector + "/" + task.id);
-            }
+        if (CompletionCache.isRefreshRequested()) {
+            completionCache.refreshAndUnlock(Kind.TASK_NAMES);
+            return;
         }
 
-        System.out.println(String.join(" ", completions));
+        System.out.println(String.join(" ", completionCache.getCompletions(Kind.TASK_NAMES, prefix)));
     }
 }
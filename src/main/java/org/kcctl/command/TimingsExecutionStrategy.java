@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.kcctl.util.Timings;
+
+import picocli.CommandLine.ExecutionException;
+import picocli.CommandLine.IExecutionStrategy;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.ParseResult;
+
+/**
+ * Records the timings of commands run with {@code --timings} or {@code --timings-format} and prints them to stderr
+ * once the command has completed, so they don't interfere with its output.
+ */
+class TimingsExecutionStrategy implements IExecutionStrategy {
+
+    static final String TIMINGS_OPTION = "--timings";
+    static final String FORMAT_OPTION = "--timings-format";
+
+    // the startup time of the process is only of interest for the first command it runs
+    private static final AtomicBoolean FIRST_EXECUTION = new AtomicBoolean(true);
+
+    private final IExecutionStrategy delegate;
+    private final Timings timings;
+
+    TimingsExecutionStrategy(IExecutionStrategy delegate, Timings timings) {
+        this.delegate = delegate;
+        this.timings = timings;
+    }
+
+    @Override
+    public int execute(ParseResult parseResult) throws ExecutionException, ParameterException {
+        boolean first = FIRST_EXECUTION.getAndSet(false);
+        String format = getFormat(parseResult);
+
+        if (format == null) {
+            return delegate.execute(parseResult);
+        }
+
+        if (!TimingsReport.TABLE.equals(format) && !TimingsReport.JSON.equals(format)) {
+            ParseResult last = parseResult;
+            while (last.hasSubcommand()) {
+                last = last.subcommand();
+            }
+
+            throw new ParameterException(last.commandSpec().commandLine(),
+                    "Invalid value for option '" + FORMAT_OPTION + "': expected one of [table, json] but was '" + format + "'");
+        }
+
+        Optional<Instant> processStart = first ? ProcessHandle.current().info().startInstant() : Optional.empty();
+
+        timings.start();
+        processStart.ifPresent(start -> timings.recordPhase(Timings.STARTUP, Duration.between(start, Instant.now()).toNanos()));
+
+        try {
+            return delegate.execute(parseResult);
+        }
+        finally {
+            Timings.Report report = timings.stop();
+
+            if (TimingsReport.JSON.equals(format)) {
+                TimingsReport.printJson(report, System.err);
+            }
+            else {
+                TimingsReport.printTable(report, System.err);
+            }
+        }
+    }
+
+    /**
+     * Returns the format of the timings report as requested via the options of the top command or a subcommand, or
+     * {@code null} if no timings were requested.
+     */
+    static String getFormat(ParseResult parseResult) {
+        String format = null;
+
+        for (ParseResult current = parseResult; current != null; current = current.subcommand()) {
+            if (current.hasMatchedOption(FORMAT_OPTION)) {
+                format = current.matchedOptionValue(FORMAT_OPTION, TimingsReport.TABLE);
+            }
+            else if (format == null && current.hasMatchedOption(TIMINGS_OPTION)) {
+                format = TimingsReport.TABLE;
+            }
+        }
+
+        return format;
+    }
+}
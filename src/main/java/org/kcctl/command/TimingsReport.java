@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.kcctl.util.Timings.Report;
+import org.kcctl.util.Timings.Request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.freva.asciitable.AsciiTable;
+import com.github.freva.asciitable.Column;
+import com.github.freva.asciitable.HorizontalAlign;
+
+/**
+ * Prints the timings recorded for a command run with {@code --timings}, either as tables of the phases and requests
+ * or as a JSON document.
+ */
+class TimingsReport {
+
+    static final String TABLE = "table";
+    static final String JSON = "json";
+
+    private TimingsReport() {
+    }
+
+    static void printTable(Report report, PrintStream out) {
+        List<String[]> phases = new ArrayList<>();
+        for (Entry<String, Long> phase : report.getPhases().entrySet()) {
+            phases.add(new String[]{ phase.getKey(), " " + toMs(phase.getValue()) });
+        }
+
+        out.println();
+        out.println(AsciiTable.getTable(AsciiTable.NO_BORDERS,
+                new Column[]{
+                        new Column().header("PHASE").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" TIME").dataAlign(HorizontalAlign.RIGHT)
+                },
+                phases.toArray(new String[0][])));
+
+        List<Request> requests = report.getRequests();
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        // the worker is only of interest if requests went to several of them
+        Set<String> workers = requests.stream().map(Request::getWorker).collect(Collectors.toSet());
+        boolean showWorker = workers.size() > 1;
+
+        List<String[]> data = new ArrayList<>();
+        long bytes = 0;
+        int number = 1;
+        for (Request request : requests) {
+            bytes += request.getBytes();
+            data.add(new String[]{
+                    String.valueOf(number++),
+                    " " + toMs(request.getStartNanos() - report.getStartNanos()),
+                    " " + request.getMethod(),
+                    " " + (showWorker ? request.getWorker() + request.getPath() : request.getPath()),
+                    " " + (request.getError() != null ? "failed" : String.valueOf(request.getStatus())),
+                    " " + request.getBytes(),
+                    " " + toMs(request.getWaitNanos()),
+                    " " + toMs(request.getReadNanos()),
+                    " " + toMs(request.getTotalNanos())
+            });
+        }
+
+        out.println();
+        out.println(AsciiTable.getTable(AsciiTable.NO_BORDERS,
+                new Column[]{
+                        new Column().header("#").dataAlign(HorizontalAlign.RIGHT),
+                        new Column().header(" START").dataAlign(HorizontalAlign.RIGHT),
+                        new Column().header(" METHOD").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" PATH").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" STATUS").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" BYTES").dataAlign(HorizontalAlign.RIGHT),
+                        new Column().header(" WAIT").dataAlign(HorizontalAlign.RIGHT),
+                        new Column().header(" READ").dataAlign(HorizontalAlign.RIGHT),
+                        new Column().header(" TOTAL").dataAlign(HorizontalAlign.RIGHT)
+                },
+                data.toArray(new String[0][])));
+
+        out.println();
+        out.println(String.format("%d request(s), %d bytes received, at most %d in flight", requests.size(), bytes, report.getPeakConcurrency()));
+        if (report.getDroppedRequests() > 0) {
+            out.println(String.format("%d further request(s) not shown", report.getDroppedRequests()));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i).getError() != null) {
+                out.println(String.format("#%d failed after %s: %s", i + 1, toMs(requests.get(i).getTotalNanos()), requests.get(i).getError()));
+            }
+        }
+    }
+
+    static void printJson(Report report, PrintStream out) {
+        try {
+            out.println(new ObjectMapper().writeValueAsString(new JsonReport(report)));
+        }
+        catch (JsonProcessingException e) {
+            throw new RuntimeException("Couldn't serialize timings", e);
+        }
+    }
+
+    private static String toMs(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+
+    private static double toMsValue(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @JsonInclude(Include.NON_NULL)
+    static class JsonReport {
+
+        public Map<String, Double> phases_ms = new LinkedHashMap<>();
+        public List<JsonRequest> requests = new ArrayList<>();
+        public int peak_concurrency;
+        public Integer dropped_requests;
+
+        JsonReport(Report report) {
+            for (Entry<String, Long> phase : report.getPhases().entrySet()) {
+                phases_ms.put(phase.getKey().replace(' ', '_'), toMsValue(phase.getValue()));
+            }
+
+            for (Request request : report.getRequests()) {
+                requests.add(new JsonRequest(request, report.getStartNanos()));
+            }
+
+            peak_concurrency = report.getPeakConcurrency();
+            dropped_requests = report.getDroppedRequests() > 0 ? report.getDroppedRequests() : null;
+        }
+    }
+
+    @JsonInclude(Include.NON_NULL)
+    static class JsonRequest {
+
+        public String method;
+        public String worker;
+        public String path;
+        public Integer status;
+        public String error;
+        public long bytes;
+        public double start_ms;
+        public double wait_ms;
+        public double read_ms;
+        public double total_ms;
+
+        JsonRequest(Request request, long reportStartNanos) {
+            method = request.getMethod();
+            worker = request.getWorker();
+            path = request.getPath();
+            status = request.getError() == null ? request.getStatus() : null;
+            error = request.getError();
+            bytes = request.getBytes();
+            start_ms = toMsValue(request.getStartNanos() - reportStartNanos);
+            wait_ms = toMsValue(request.getWaitNanos());
+            read_ms = toMsValue(request.getReadNanos());
+            total_ms = toMsValue(request.getTotalNanos());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import javax.inject.Inject;
+
+import org.kcctl.completion.ConnectorNameCompletions;
+import org.kcctl.service.CapabilityRegistry;
+import org.kcctl.service.ClusterSnapshot;
+import org.kcctl.service.ConnectorSelector;
+import org.kcctl.service.ConnectorStateWaiter;
+import org.kcctl.service.FanOutExecutor;
+import org.kcctl.service.KafkaConnectApi;
+import org.kcctl.service.KafkaConnectClientFactory;
+import org.kcctl.util.ConfigurationContext;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+@Command(name = "connector", description = "Waits until the specified connector or the selected connectors and their tasks are in the given state")
+public class WaitConnectorCommand implements Callable<Integer> {
+
+    private static final List<String> STATES = List.of(ConnectorStateWaiter.RUNNING, ConnectorStateWaiter.PAUSED, ConnectorStateWaiter.FAILED);
+
+    @Spec
+    CommandSpec commandSpec;
+
+    @Inject
+    ConfigurationContext context;
+
+    @Inject
+    KafkaConnectClientFactory clientFactory;
+
+    @Inject
+    CapabilityRegistry capabilities;
+
+    @Parameters(arity = "0..1", paramLabel = "NAME", description = "Name of the connector (e.g. 'my-connector')", completionCandidates = ConnectorNameCompletions.class)
+    String name;
+
+    @Mixin
+    ConnectorSelection selection;
+
+    @Option(names = { "--for" }, paramLabel = "STATE", defaultValue = ConnectorStateWaiter.RUNNING, description = "The state to wait for: RUNNING, PAUSED or FAILED")
+    String state;
+
+    @Option(names = { "--timeout" }, defaultValue = "300", description = "Time in seconds to wait for the connectors to reach the state")
+    int timeoutSeconds;
+
+    @Override
+    public Integer call() {
+        String targetState = state.toUpperCase(Locale.ROOT);
+        if (!STATES.contains(targetState)) {
+            throw new ParameterException(commandSpec.commandLine(), "Unsupported state: " + state + "; please specify one of " + STATES);
+        }
+
+        ConnectorSelector selector = selection.getSelector(name);
+        KafkaConnectApi kafkaConnectApi = clientFactory.getClient();
+        FanOutExecutor executor = selection.getExecutor(context);
+
+        long start = System.nanoTime();
+        List<String> connectors;
+
+        if (selector != null) {
+            connectors = selector.select(ClusterSnapshot.take(kafkaConnectApi, capabilities, executor, selector.requiresStatus()));
+
+            if (connectors.isEmpty()) {
+                System.out.println("No matching connectors found");
+                return 0;
+            }
+        }
+        else {
+            connectors = List.of(name);
+        }
+
+        ConnectorStateWaiter waiter = new ConnectorStateWaiter(kafkaConnectApi, capabilities, executor);
+        return WaitReport.await(waiter, connectors, targetState, Duration.ofSeconds(timeoutSeconds), start);
+    }
+}
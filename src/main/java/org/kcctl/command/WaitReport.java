@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.kcctl.service.ConnectorStateWaiter;
+import org.kcctl.service.ConnectorStateWaiter.ConnectorWait;
+import org.kcctl.service.ConnectorStateWaiter.Outcome;
+import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.TaskState;
+
+import com.github.freva.asciitable.AsciiTable;
+import com.github.freva.asciitable.Column;
+import com.github.freva.asciitable.HorizontalAlign;
+
+import static org.kcctl.util.Colors.ANSI_GREEN;
+import static org.kcctl.util.Colors.ANSI_RED;
+import static org.kcctl.util.Colors.ANSI_RESET;
+
+/**
+ * Prints the outcome of waiting for connectors to reach a state, with the time it took for each connector.
+ */
+class WaitReport {
+
+    private WaitReport() {
+    }
+
+    /**
+     * Waits for the given connectors to reach the given state and prints the outcome.
+     *
+     * @param start the start for measuring the time to reach the state, as per {@link System#nanoTime()}
+     * @return the exit code, 0 if all connectors reached the state
+     */
+    static int await(ConnectorStateWaiter waiter, List<String> connectors, String targetState, Duration timeout, long start) {
+        return await(waiter, connectors, targetState, timeout, start, Map.of());
+    }
+
+    /**
+     * Waits for the given connectors, which were updated at the given start, to reach the given state after their
+     * restart and prints the outcome.
+     *
+     * @param previousStatuses the statuses of the updated connectors right before the update, by name
+     * @return the exit code, 0 if all connectors reached the state
+     */
+    static int await(ConnectorStateWaiter waiter, List<String> connectors, String targetState, Duration timeout, long start,
+                     Map<String, ConnectorStatusInfo> previousStatuses) {
+        System.out.println(String.format("Waiting for %d connector(s) to be %s", connectors.size(), targetState));
+
+        List<ConnectorWait> waits = waiter.await(connectors, targetState, timeout, start, previousStatuses);
+        return print(waits, targetState, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return the exit code, 0 if all connectors reached the state
+     */
+    static int print(List<ConnectorWait> waits, String targetState, long totalMs) {
+        List<String[]> data = new ArrayList<>();
+        int failed = 0;
+        int timedOut = 0;
+
+        for (ConnectorWait wait : waits) {
+            String time;
+            if (wait.getOutcome() == Outcome.REACHED) {
+                time = wait.getElapsedMs() + " ms";
+            }
+            else if (wait.getOutcome() == Outcome.FAILED) {
+                time = "failed after " + wait.getElapsedMs() + " ms";
+                failed++;
+            }
+            else {
+                time = "timed out";
+                timedOut++;
+            }
+
+            data.add(new String[]{ wait.getConnector(), " " + describeState(wait, targetState), " " + time });
+        }
+
+        System.out.println();
+        String table = AsciiTable.getTable(AsciiTable.NO_BORDERS,
+                new Column[]{
+                        new Column().header("NAME").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" STATE").dataAlign(HorizontalAlign.LEFT),
+                        new Column().header(" TIME").dataAlign(HorizontalAlign.LEFT)
+                },
+                data.toArray(new String[0][]));
+
+        System.out.println(table.replace("RUNNING", ANSI_GREEN + "RUNNING" + ANSI_RESET).replace("FAILED", ANSI_RED + "FAILED" + ANSI_RESET));
+        System.out.println();
+        System.out.println(String.format("%d of %d connector(s) %s after %d ms, %d failed, %d timed out", waits.size() - failed - timedOut, waits.size(),
+                targetState, totalMs, failed, timedOut));
+
+        return failed == 0 && timedOut == 0 ? 0 : 1;
+    }
+
+    /**
+     * Returns the state of the connector, followed by the tasks not in the target state if the connector didn't reach
+     * it, e.g. "RUNNING (task 1 FAILED)".
+     */
+    private static String describeState(ConnectorWait wait, String targetState) {
+        if (wait.getOutcome() == Outcome.REACHED || wait.getStatus() == null || wait.getStatus().tasks == null) {
+            return wait.getState();
+        }
+
+        List<String> tasks = new ArrayList<>();
+        for (TaskState task : wait.getStatus().tasks) {
+            if (!targetState.equals(task.state)) {
+                tasks.add("task " + task.id + " " + task.state);
+            }
+        }
+
+        return tasks.isEmpty() ? wait.getState() : wait.getState() + " (" + String.join(", ", tasks) + ")";
+    }
+}
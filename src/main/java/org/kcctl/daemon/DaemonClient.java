@@ -0,0 +1,257 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.kcctl.daemon.DaemonProtocol.FRAME_EXIT;
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDERR;
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDIN;
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDIN_REQUEST;
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDOUT;
+
+/**
+ * Sends requests to a running daemon. This class is used before the application is started, so it must not
+ * depend on CDI or any other part of the application.
+ */
+public class DaemonClient {
+
+    /**
+     * If set, commands are always executed in-process, even if a daemon is running.
+     */
+    public static final String DISABLE_VARIABLE = "KCCTL_NO_DAEMON";
+
+    private static final int CONNECT_TIMEOUT_MS = 500;
+
+    // options of the top-level command taking a separate value, which mustn't be mistaken for a sub-command
+    private static final String TIMINGS_FORMAT_OPTION = "--timings-format";
+
+    private final DaemonInfo info;
+
+    public DaemonClient(DaemonInfo info) {
+        this.info = info;
+    }
+
+    /**
+     * Executes the given command with the running daemon, forwarding its output, input and exit code.
+     *
+     * @return the exit code of the command, or an empty result if no daemon is running and the command should be
+     *         executed in-process
+     */
+    public static OptionalInt tryExecute(String[] args) {
+        // daemon management always happens in-process
+        if (args.length > 0 && args[0].equals("daemon")) {
+            return OptionalInt.empty();
+        }
+
+        if (System.getenv(DISABLE_VARIABLE) != null || isLongRunning(args)) {
+            return OptionalInt.empty();
+        }
+
+        DaemonInfo info = DaemonInfo.read();
+        if (info == null) {
+            return OptionalInt.empty();
+        }
+
+        Socket socket = connect(info);
+        if (socket == null) {
+            if (!info.isProcessAlive()) {
+                info.delete();
+            }
+
+            return OptionalInt.empty();
+        }
+
+        // the request may have been executed already, so there's no fallback after this point
+        try (socket) {
+            return OptionalInt.of(new DaemonClient(info).execute(socket, args));
+        }
+        catch (IOException e) {
+            System.err.println("Lost connection to the kcctl daemon: " + e.getMessage());
+            return OptionalInt.of(1);
+        }
+    }
+
+    /**
+     * Whether the given command keeps running until it is stopped, e.g. watching connectors, emitting events or
+     * serving metrics. Such commands are executed in-process, so that they can be stopped with Ctrl-C, notice when
+     * their output is closed, and don't occupy the daemon.
+     */
+    static boolean isLongRunning(String[] args) {
+        List<String> commands = new ArrayList<>();
+        boolean watch = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("-w") || arg.equals("--watch") || arg.startsWith("--watch=")) {
+                watch = true;
+            }
+            else if (arg.equals(TIMINGS_FORMAT_OPTION)) {
+                i++;
+            }
+            else if (!arg.startsWith("-")) {
+                commands.add(arg);
+            }
+        }
+
+        if (commands.isEmpty()) {
+            return false;
+        }
+
+        return commands.get(0).equals("events") || commands.get(0).equals("serve")
+                || (watch && commands.size() >= 2 && commands.get(0).equals("get") && commands.get(1).equals("connectors"));
+    }
+
+    /**
+     * Returns the status description of the daemon, or {@code null} if it can't be reached.
+     */
+    public String status() {
+        return request(DaemonProtocol.REQUEST_STATUS);
+    }
+
+    /**
+     * Stops the daemon, returning {@code null} if it can't be reached.
+     */
+    public String stop() {
+        return request(DaemonProtocol.REQUEST_STOP);
+    }
+
+    private String request(byte type) {
+        Socket socket = connect(info);
+        if (socket == null) {
+            return null;
+        }
+
+        try (socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHeader(out, type);
+            out.flush();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PrintStream printStream = new PrintStream(output, true);
+            readFrames(new DataInputStream(new BufferedInputStream(socket.getInputStream())), out, printStream, printStream);
+
+            return output.toString().trim();
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private int execute(Socket socket, String[] args) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        writeHeader(out, DaemonProtocol.REQUEST_EXECUTE);
+        out.writeUTF(System.getProperty("user.dir"));
+        out.writeBoolean(System.console() != null);
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+
+        return readFrames(new DataInputStream(new BufferedInputStream(socket.getInputStream())), out, System.out, System.err);
+    }
+
+    private void writeHeader(DataOutputStream out, byte type) throws IOException {
+        out.writeInt(DaemonProtocol.VERSION);
+        out.writeUTF(info.getToken());
+        out.writeByte(type);
+    }
+
+    private static int readFrames(DataInputStream in, DataOutputStream out, PrintStream stdout, PrintStream stderr) throws IOException {
+        while (true) {
+            byte type = in.readByte();
+
+            if (type == FRAME_EXIT) {
+                stdout.flush();
+                stderr.flush();
+                return in.readInt();
+            }
+
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+
+            if (type == FRAME_STDOUT) {
+                stdout.write(payload);
+                stdout.flush();
+            }
+            else if (type == FRAME_STDERR) {
+                stderr.write(payload);
+                stderr.flush();
+            }
+            else if (type == FRAME_STDIN_REQUEST) {
+                Thread pump = new Thread(() -> forwardInput(System.in, out), "kcctl-daemon-stdin");
+                pump.setDaemon(true);
+                pump.start();
+            }
+            else {
+                throw new IOException("Unexpected frame type: " + type);
+            }
+        }
+    }
+
+    private static void forwardInput(InputStream in, DataOutputStream out) {
+        byte[] buffer = new byte[8192];
+
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                DaemonProtocol.writeFrame(out, FRAME_STDIN, buffer, 0, read);
+            }
+
+            DaemonProtocol.writeFrame(out, FRAME_STDIN, buffer, 0, 0);
+        }
+        catch (IOException e) {
+            // the command finished without consuming all input
+        }
+    }
+
+    private static Socket connect(DaemonInfo info) {
+        Socket socket = new Socket();
+
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), info.getPort()), CONNECT_TIMEOUT_MS);
+            return socket;
+        }
+        catch (IOException e) {
+            close(socket);
+            return null;
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            // nothing to do
+        }
+    }
+}
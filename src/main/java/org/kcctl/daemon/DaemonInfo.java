@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+/**
+ * Describes how to reach a running daemon. Stored in the file ~/.kcctl-daemon, readable only by the current user,
+ * as it contains the token needed for sending requests to the daemon.
+ */
+public class DaemonInfo {
+
+    private static final String DAEMON_FILE = ".kcctl-daemon";
+
+    private final int port;
+    private final String token;
+    private final long pid;
+    private final long startedAt;
+
+    public DaemonInfo(int port, String token, long pid, long startedAt) {
+        this.port = port;
+        this.token = token;
+        this.pid = pid;
+        this.startedAt = startedAt;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getPid() {
+        return pid;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public static File getFile() {
+        return new File(System.getProperty("user.home"), DAEMON_FILE);
+    }
+
+    public static File getLogFile() {
+        return new File(System.getProperty("user.home"), DAEMON_FILE + ".log");
+    }
+
+    /**
+     * Returns the info of the running daemon, or {@code null} if no daemon is running.
+     */
+    public static DaemonInfo read() {
+        File file = getFile();
+
+        if (!file.exists()) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath())) {
+            properties.load(reader);
+
+            return new DaemonInfo(
+                    Integer.parseInt(properties.getProperty("port")),
+                    properties.getProperty("token"),
+                    Long.parseLong(properties.getProperty("pid")),
+                    Long.parseLong(properties.getProperty("startedAt")));
+        }
+        catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void write() throws IOException {
+        Path file = getFile().toPath();
+        Files.deleteIfExists(file);
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        else {
+            Files.createFile(file);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("port", String.valueOf(port));
+        properties.setProperty("token", token);
+        properties.setProperty("pid", String.valueOf(pid));
+        properties.setProperty("startedAt", String.valueOf(startedAt));
+
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "kcctl daemon");
+        }
+    }
+
+    /**
+     * Deletes the daemon file, if it still belongs to this daemon.
+     */
+    public void delete() {
+        DaemonInfo current = read();
+
+        if (current != null && current.pid == pid && current.port == port) {
+            getFile().delete();
+        }
+    }
+
+    public boolean isProcessAlive() {
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The wire protocol between the kcctl client and the daemon.
+ * <p>
+ * A client sends a request header: the protocol version, the access token from the daemon file, the request type
+ * and, for {@link #REQUEST_EXECUTE}, the working directory, whether the client's output is a terminal and the
+ * command line arguments. The daemon then sends frames (type, length, payload) with the command's output and
+ * finally an {@link #FRAME_EXIT} frame with the exit code. Standard input is only transferred if the command
+ * reads it: the daemon sends {@link #FRAME_STDIN_REQUEST}, upon which the client streams its input as
+ * {@link #FRAME_STDIN} frames, an empty one marking the end of the input. The daemon keeps reading from the
+ * connection while executing a command, so that it notices when the client goes away, e.g. upon Ctrl-C.
+ */
+public final class DaemonProtocol {
+
+    public static final int VERSION = 1;
+
+    public static final byte REQUEST_EXECUTE = 1;
+    public static final byte REQUEST_STATUS = 2;
+    public static final byte REQUEST_STOP = 3;
+
+    public static final byte FRAME_STDOUT = 1;
+    public static final byte FRAME_STDERR = 2;
+    public static final byte FRAME_EXIT = 3;
+    public static final byte FRAME_STDIN_REQUEST = 4;
+    public static final byte FRAME_STDIN = 5;
+
+    private DaemonProtocol() {
+    }
+
+    public static void writeFrame(DataOutputStream out, byte type, byte[] payload, int offset, int length) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            out.writeInt(length);
+            out.write(payload, offset, length);
+            out.flush();
+        }
+    }
+
+    public static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the input frames sent by the client and passes them on to the given stream, until the connection is
+     * closed.
+     *
+     * @throws IOException once the connection is closed or broken
+     */
+    public static void readInput(DataInputStream in, RemoteInputStream stdin) throws IOException {
+        while (true) {
+            byte type = in.readByte();
+            if (type != FRAME_STDIN) {
+                throw new IOException("Unexpected frame type: " + type);
+            }
+
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            stdin.receive(payload);
+        }
+    }
+
+    /**
+     * An output stream sending everything written to it as frames of the given type.
+     */
+    static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{ (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                writeFrame(out, type, b, off, len);
+            }
+        }
+    }
+
+    /**
+     * An input stream which requests the client's standard input upon the first read. The input is passed to it by
+     * {@link DaemonProtocol#readInput(DataInputStream, RemoteInputStream)}.
+     */
+    static class RemoteInputStream extends InputStream {
+
+        private static final byte[] DISCONNECTED = new byte[0];
+
+        private final DataOutputStream out;
+        private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+        private boolean requested;
+        private boolean eof;
+        private byte[] buffer = new byte[0];
+        private int position;
+
+        RemoteInputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Passes on a chunk of input, an empty one marking the end of the input.
+         */
+        void receive(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        /**
+         * Fails all pending and further reads, as the client went away.
+         */
+        void disconnect() {
+            chunks.add(DISCONNECTED);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int read = read(b, 0, 1);
+            return read == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (position == buffer.length) {
+                if (eof) {
+                    return -1;
+                }
+
+                if (!requested) {
+                    writeFrame(out, FRAME_STDIN_REQUEST, new byte[0], 0, 0);
+                    requested = true;
+                }
+
+                try {
+                    buffer = chunks.take();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for input");
+                }
+
+                if (buffer == DISCONNECTED) {
+                    chunks.add(DISCONNECTED);
+                    buffer = new byte[0];
+                    throw new IOException("The client disconnected");
+                }
+
+                position = 0;
+                eof = buffer.length == 0;
+            }
+
+            int count = Math.min(len, buffer.length - position);
+            System.arraycopy(buffer, position, b, off, count);
+            position += count;
+
+            return count;
+        }
+    }
+}
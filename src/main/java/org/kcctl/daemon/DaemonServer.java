@@ -0,0 +1,294 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.kcctl.daemon.DaemonProtocol.FrameOutputStream;
+import org.kcctl.daemon.DaemonProtocol.RemoteInputStream;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.RoutingInputStream;
+import org.kcctl.util.RoutingPrintStream;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Help.Ansi;
+import picocli.CommandLine.IExecutionStrategy;
+
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDERR;
+import static org.kcctl.daemon.DaemonProtocol.FRAME_STDOUT;
+
+/**
+ * Executes the commands sent by kcctl clients within one long-lived process, so that REST clients, configuration
+ * and caches stay warm between invocations. Each connection is served by a thread of its own, executing the
+ * command with its own {@link CommandLine}; the standard streams of that thread are redirected to the client for
+ * the duration of the request. If the client goes away, the command is interrupted.
+ */
+public class DaemonServer {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static volatile boolean serving;
+
+    private final Supplier<CommandLine> commandLineFactory;
+    private final ConfigurationContext context;
+    private final ServerSocket serverSocket;
+    private final DaemonInfo info;
+    private final AtomicLong requests = new AtomicLong();
+    private final Set<Thread> handlers = ConcurrentHashMap.newKeySet();
+    private RoutingPrintStream routedOut;
+    private RoutingPrintStream routedErr;
+    private RoutingInputStream routedIn;
+    private volatile boolean stopped;
+
+    public DaemonServer(Supplier<CommandLine> commandLineFactory, ConfigurationContext context) throws IOException {
+        this.commandLineFactory = commandLineFactory;
+        this.context = context;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.info = new DaemonInfo(serverSocket.getLocalPort(), newToken(), ProcessHandle.current().pid(), System.currentTimeMillis());
+    }
+
+    /**
+     * Whether this process is a daemon serving requests. Background work can then be done in-process rather than
+     * in a separate process.
+     */
+    public static boolean isServing() {
+        return serving;
+    }
+
+    public DaemonInfo getInfo() {
+        return info;
+    }
+
+    public void serve() throws IOException {
+        info.write();
+        serving = true;
+
+        Thread cleanup = new Thread(info::delete);
+        Runtime.getRuntime().addShutdownHook(cleanup);
+
+        // commands may hold on to the standard streams, so they are redirected once and routed per request
+        routedOut = new RoutingPrintStream(System.out);
+        routedErr = new RoutingPrintStream(System.err);
+        routedIn = new RoutingInputStream(System.in);
+        System.setOut(routedOut);
+        System.setErr(routedErr);
+        System.setIn(routedIn);
+
+        try {
+            while (!stopped) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                }
+                catch (SocketException e) {
+                    if (stopped) {
+                        break;
+                    }
+                    throw e;
+                }
+
+                Thread handler = new Thread(() -> serve(socket), "kcctl-daemon-request-" + THREAD_COUNTER.incrementAndGet());
+                handlers.add(handler);
+                handler.start();
+            }
+
+            // requests in progress are completed, none of the commands executed by the daemon runs indefinitely
+            for (Thread handler : handlers) {
+                handler.join();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            serving = false;
+            System.setOut(routedOut.getFallback());
+            System.setErr(routedErr.getFallback());
+            System.setIn(routedIn.getFallback());
+            info.delete();
+            serverSocket.close();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            handle(socket);
+        }
+        catch (IOException e) {
+            // the client went away
+        }
+        finally {
+            handlers.remove(Thread.currentThread());
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        if (in.readInt() != DaemonProtocol.VERSION) {
+            writeText(out, FRAME_STDERR, "The running kcctl daemon is of another version, restart it using 'kcctl daemon stop' and 'kcctl daemon start'");
+            DaemonProtocol.writeExit(out, CommandLine.ExitCode.SOFTWARE);
+            return;
+        }
+
+        if (!MessageDigest.isEqual(in.readUTF().getBytes(StandardCharsets.UTF_8), info.getToken().getBytes(StandardCharsets.UTF_8))) {
+            return;
+        }
+
+        byte type = in.readByte();
+        switch (type) {
+            case DaemonProtocol.REQUEST_EXECUTE:
+                execute(in, out);
+                break;
+            case DaemonProtocol.REQUEST_STATUS:
+                writeText(out, FRAME_STDOUT, getStatus());
+                DaemonProtocol.writeExit(out, CommandLine.ExitCode.OK);
+                break;
+            case DaemonProtocol.REQUEST_STOP:
+                stopped = true;
+                writeText(out, FRAME_STDOUT, "kcctl daemon (pid " + info.getPid() + ") stopped");
+                DaemonProtocol.writeExit(out, CommandLine.ExitCode.OK);
+                // ends waiting for further connections
+                serverSocket.close();
+                break;
+            default:
+                throw new IOException("Unexpected request type: " + type);
+        }
+    }
+
+    private void execute(DataInputStream in, DataOutputStream out) throws IOException {
+        Path clientWorkingDirectory = Paths.get(in.readUTF());
+        boolean ansi = in.readBoolean();
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        PrintStream stdout = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, FRAME_STDOUT)), true);
+        PrintStream stderr = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, FRAME_STDERR)), true);
+        RemoteInputStream stdin = new RemoteInputStream(out);
+
+        CommandLine commandLine = newCommandLine(clientWorkingDirectory, ansi);
+        Thread command = Thread.currentThread();
+        AtomicBoolean executing = new AtomicBoolean(true);
+
+        // the client only sends input while the command runs, so the end of the stream means that it went away
+        Thread input = new Thread(() -> {
+            try {
+                DaemonProtocol.readInput(in, stdin);
+            }
+            catch (IOException e) {
+                stdin.disconnect();
+                synchronized (executing) {
+                    if (executing.get()) {
+                        command.interrupt();
+                    }
+                }
+            }
+        }, command.getName() + "-input");
+        input.setDaemon(true);
+        input.start();
+
+        int exitCode;
+        try {
+            context.reloadIfChanged();
+
+            routedOut.routeCurrentThread(stdout);
+            routedErr.routeCurrentThread(stderr);
+            routedIn.routeCurrentThread(stdin);
+
+            exitCode = commandLine.execute(args);
+        }
+        finally {
+            commandLine.getOut().flush();
+            commandLine.getErr().flush();
+            routedOut.routeCurrentThread(null);
+            routedErr.routeCurrentThread(null);
+            routedIn.routeCurrentThread(null);
+            requests.incrementAndGet();
+
+            synchronized (executing) {
+                executing.set(false);
+                Thread.interrupted();
+            }
+        }
+
+        stdout.flush();
+        stderr.flush();
+        DaemonProtocol.writeExit(out, exitCode);
+    }
+
+    private CommandLine newCommandLine(Path workingDirectory, boolean ansi) {
+        CommandLine commandLine = commandLineFactory.get();
+        commandLine.setOut(new PrintWriter(routedOut, true));
+        commandLine.setErr(new PrintWriter(routedErr, true));
+        commandLine.setColorScheme(Help.defaultColorScheme(ansi ? Ansi.ON : Ansi.OFF));
+
+        // relative paths given by clients refer to their working directory; "-" stands for standard input
+        commandLine.registerConverter(File.class, value -> value.equals("-") ? new File(value) : workingDirectory.resolve(value).toFile());
+        commandLine.registerConverter(Path.class, value -> value.equals("-") ? Paths.get(value) : workingDirectory.resolve(value));
+
+        // the default strategy remembers the streams at its creation and would reset the writers set above
+        IExecutionStrategy strategy = commandLine.getExecutionStrategy();
+        commandLine.setExecutionStrategy(strategy::execute);
+
+        return commandLine;
+    }
+
+    private String getStatus() {
+        Duration uptime = Duration.ofMillis(System.currentTimeMillis() - info.getStartedAt());
+
+        return String.format("kcctl daemon is running (pid %d, port %d, up %dh %02dm %02ds, %d requests served)",
+                info.getPid(), info.getPort(), uptime.toHours(), uptime.toMinutesPart(), uptime.toSecondsPart(), requests.get());
+    }
+
+    private static void writeText(DataOutputStream out, byte type, String text) throws IOException {
+        byte[] bytes = (text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        DaemonProtocol.writeFrame(out, type, bytes, 0, bytes.length);
+    }
+
+    private static String newToken() {
+        byte[] token = new byte[32];
+        new SecureRandom().nextBytes(token);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.kcctl.util.CacheFiles;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.Strings;
+import org.kcctl.util.Version;
+
+/**
+ * Knows which features the Kafka Connect cluster of a context supports. The worker info (version, commit, Kafka
+ * cluster id) is cached per context in the kcctl cache directory, so that commands can check for features without
+ * an extra request to the cluster. Cached info expires after a while or when the cluster URL of the context changes.
+ */
+@ApplicationScoped
+public class CapabilityRegistry {
+
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private static final String CACHE_FILE = "worker-info.json";
+
+    private final ConfigurationContext context;
+    private final Function<String, KafkaConnectApi> clients;
+    private final Duration ttl;
+    private final Map<String, CachedWorkerInfo> workerInfos = new ConcurrentHashMap<>();
+
+    @Inject
+    public CapabilityRegistry(ConfigurationContext context, KafkaConnectClientFactory clientFactory) {
+        this(context, contextName -> Strings.isBlank(contextName) ? clientFactory.getClient() : clientFactory.getClient(contextName), DEFAULT_TTL);
+    }
+
+    /**
+     * @param clients provides the client for a given context name, which is blank for the default context
+     */
+    CapabilityRegistry(ConfigurationContext context, Function<String, KafkaConnectApi> clients, Duration ttl) {
+        this.context = context;
+        this.clients = clients;
+        this.ttl = ttl;
+    }
+
+    public KafkaConnectInfo getWorkerInfo() {
+        return getWorkerInfo(context.getCurrentContextName());
+    }
+
+    public KafkaConnectInfo getWorkerInfo(String contextName) {
+        CachedWorkerInfo cached = workerInfos.get(contextName);
+
+        // checked again in case of long-running processes
+        if (!isValid(cached, contextName)) {
+            cached = loadWorkerInfo(contextName);
+            workerInfos.put(contextName, cached);
+        }
+
+        return cached.info;
+    }
+
+    public Version getVersion() {
+        return new Version(getWorkerInfo().version);
+    }
+
+    public boolean supports(ClusterFeature feature) {
+        return feature.isSupportedBy(getVersion());
+    }
+
+    /**
+     * Retrieves the worker info of the current context from the cluster, bypassing and updating the cache.
+     */
+    public KafkaConnectInfo refresh() {
+        String contextName = context.getCurrentContextName();
+        CachedWorkerInfo cached = fetchAndCache(contextName);
+
+        workerInfos.put(contextName, cached);
+
+        return cached.info;
+    }
+
+    private CachedWorkerInfo loadWorkerInfo(String contextName) {
+        CachedWorkerInfo cached = readCache(contextName);
+
+        if (isValid(cached, contextName)) {
+            return cached;
+        }
+
+        return fetchAndCache(contextName);
+    }
+
+    private CachedWorkerInfo fetchAndCache(String contextName) {
+        CachedWorkerInfo cached = new CachedWorkerInfo();
+        cached.cluster = getCluster(contextName);
+        cached.fetchedAt = System.currentTimeMillis();
+        cached.info = clients.apply(contextName).getWorkerInfo();
+
+        File cacheFile = getCacheFile(contextName);
+        if (cacheFile != null) {
+            CacheFiles.write(cacheFile, cached);
+        }
+
+        return cached;
+    }
+
+    private boolean isValid(CachedWorkerInfo cached, String contextName) {
+        return cached != null && cached.info != null && cached.cluster != null && cached.cluster.equals(getCluster(contextName)) &&
+                System.currentTimeMillis() - cached.fetchedAt < ttl.toMillis();
+    }
+
+    private URI getCluster(String contextName) {
+        Context clientContext = Strings.isBlank(contextName) ? context.getCurrentContext() : context.getContext(contextName);
+        return clientContext != null ? clientContext.getCluster() : null;
+    }
+
+    private CachedWorkerInfo readCache(String contextName) {
+        File cacheFile = getCacheFile(contextName);
+        return cacheFile != null ? CacheFiles.read(cacheFile, CachedWorkerInfo.class) : null;
+    }
+
+    private File getCacheFile(String contextName) {
+        // no caching for the default context used without any configuration
+        if (Strings.isBlank(contextName)) {
+            return null;
+        }
+
+        return new File(context.getCacheDirectory(contextName), CACHE_FILE);
+    }
+
+    public static class CachedWorkerInfo {
+
+        public URI cluster;
+        public long fetchedAt;
+        public KafkaConnectInfo info;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+public class ClientStatistics implements ClientRequestFilter, ClientResponseFilter {
+
+    /**
+     * Outcome of a request which received a successful response.
+     */
+    public static final String OUTCOME_SUCCESS = "success";
+
+    /**
+     * Outcome of a request which received an error response.
+     */
+    public static final String OUTCOME_ERROR = "error";
+
+    /**
+     * Outcome of a request which failed without a response, e.g. due to a connection failure or timeout.
+     */
+    public static final String OUTCOME_FAILURE = "failure";
+
+    private static final String START_PROPERTY = "org.kcctl.start";
+
+    private final int connectionPoolSize;
+    private final AtomicLong clientLookups = new AtomicLong();
+    private final AtomicLong requestsSent = new AtomicLong();
+    private final AtomicLong responsesReceived = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong();
+    private final Map<String, Map<String, LatencyHistogram>> latencies = new ConcurrentHashMap<>();
+
+    public ClientStatistics(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        requestsSent.incrementAndGet();
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        responsesReceived.incrementAndGet();
+
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (start instanceof Long) {
+            String outcome = responseContext.getStatus() >= 400 ? OUTCOME_ERROR : OUTCOME_SUCCESS;
+            recordLatency(requestContext.getMethod(), outcome, System.nanoTime() - (Long) start);
+        }
+    }
+
+    void requestStarted() {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Invoked once a request has been completed, be it with a response or a failure.
+     */
+    void requestCompleted() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Invoked once a request started at the given time has failed. Failures without a response are recorded with
+     * their latency, while the latency of error responses has been recorded when receiving them.
+     */
+    void requestFailed(String method, long startNanos, Throwable error) {
+        if (!(error instanceof KafkaConnectException)) {
+            recordLatency(method, OUTCOME_FAILURE, System.nanoTime() - startNanos);
+        }
+    }
+
+    void recordLatency(String method, String outcome, long nanos) {
+        latencies.computeIfAbsent(method, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, o -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    void clientLookedUp() {
+        clientLookups.incrementAndGet();
+    }
+
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public long getClientLookups() {
+        return clientLookups.get();
+    }
+
+    public long getRequestsSent() {
+        return requestsSent.get();
+    }
+
+    public long getResponsesReceived() {
+        return responsesReceived.get();
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /**
+     * Returns the latencies until receiving the response, or failing without one, by HTTP method and outcome.
+     */
+    public Map<String, Map<String, LatencyHistogram>> getLatencies() {
+        Map<String, Map<String, LatencyHistogram>> latencies = new TreeMap<>();
+        this.latencies.forEach((method, byOutcome) -> latencies.put(method, Collections.unmodifiableMap(new TreeMap<>(byOutcome))));
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    @Override
+    public String toString() {
+        return "ClientStatistics [connectionPoolSize=" + connectionPoolSize + ", clientLookups=" + clientLookups + ", requestsSent=" + requestsSent
+                + ", responsesReceived=" + responsesReceived + ", peakInFlight=" + peakInFlight + "]";
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import org.kcctl.util.Version;
+
+/**
+ * Features of the Kafka Connect REST API which are not available in all versions.
+ */
+public enum ClusterFeature {
+
+    EXPAND_API("expanded connector listing", new Version(2, 3)),
+    TOPICS_API("connector topics", new Version(2, 5)),
+    TASKS_CONFIG("tasks configuration", new Version(2, 8)),
+    RESTART_FILTERS("restart of connectors and tasks", new Version(3, 0)),
+    OFFSETS_API("connector offsets", new Version(3, 5));
+
+    private final String description;
+    private final Version requiredVersion;
+
+    ClusterFeature(String description, Version requiredVersion) {
+        this.description = description;
+        this.requiredVersion = requiredVersion;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Version getRequiredVersion() {
+        return requiredVersion;
+    }
+
+    public boolean isSupportedBy(Version version) {
+        return version.greaterOrEquals(requiredVersion);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.http.HttpStatus;
+import org.kcctl.service.FanOutExecutor.Result;
+
+/**
+ * The connectors of a cluster with their configuration and optionally their status, as of one point in time.
+ * Operations affecting many connectors evaluate their selection and plan against one snapshot, rather than
+ * requesting the state of each connector separately.
+ */
+public class ClusterSnapshot {
+
+    private final Map<String, ConnectorInfo> infos;
+    private final Map<String, ConnectorStatusInfo> statuses;
+
+    public ClusterSnapshot(Map<String, ConnectorInfo> infos, Map<String, ConnectorStatusInfo> statuses) {
+        this.infos = Collections.unmodifiableMap(new LinkedHashMap<>(infos));
+        this.statuses = Collections.unmodifiableMap(new LinkedHashMap<>(statuses));
+    }
+
+    /**
+     * Takes a snapshot using a single expanded listing if supported by the cluster, or by requesting each
+     * connector using the given executor otherwise.
+     */
+    public static ClusterSnapshot take(KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, FanOutExecutor executor,
+                                       boolean includeStatus) {
+        Map<String, ConnectorInfo> infos = new LinkedHashMap<>();
+        Map<String, ConnectorStatusInfo> statuses = new LinkedHashMap<>();
+
+        if (capabilities.supports(ClusterFeature.EXPAND_API)) {
+            List<String> expand = includeStatus ? ConnectorExpandInfo.STATUS_AND_INFO : ConnectorExpandInfo.INFO;
+
+            for (Map.Entry<String, ConnectorExpandInfo> connector : kafkaConnectApi.getConnectorsExpanded(expand).entrySet()) {
+                infos.put(connector.getKey(), connector.getValue().info);
+                if (includeStatus) {
+                    statuses.put(connector.getKey(), connector.getValue().status);
+                }
+            }
+        }
+        else {
+            List<String> names = kafkaConnectApi.getConnectors();
+
+            for (Result<String, ConnectorInfo> result : throwOnFailure(executor.execute(names, kafkaConnectApi::getConnector))) {
+                infos.put(result.getItem(), result.getValue());
+            }
+
+            if (includeStatus) {
+                for (Result<String, ConnectorStatusInfo> result : throwOnFailure(executor.execute(names, kafkaConnectApi::getConnectorStatus))) {
+                    if (infos.containsKey(result.getItem())) {
+                        statuses.put(result.getItem(), result.getValue());
+                    }
+                }
+            }
+        }
+
+        return new ClusterSnapshot(infos, statuses);
+    }
+
+    private static <T, R> List<Result<T, R>> throwOnFailure(List<Result<T, R>> results) {
+        List<Result<T, R>> successful = new ArrayList<>(results.size());
+
+        for (Result<T, R> result : results) {
+            if (result.isSuccessful()) {
+                successful.add(result);
+            }
+            // connectors deleted after the listing are not part of the snapshot
+            else if (!(result.getError() instanceof KafkaConnectException)
+                    || ((KafkaConnectException) result.getError()).getErrorCode() != HttpStatus.SC_NOT_FOUND) {
+                throw result.getError();
+            }
+        }
+
+        return successful;
+    }
+
+    public Set<String> getConnectorNames() {
+        return infos.keySet();
+    }
+
+    public boolean contains(String connectorName) {
+        return infos.containsKey(connectorName);
+    }
+
+    public ConnectorInfo getInfo(String connectorName) {
+        return infos.get(connectorName);
+    }
+
+    public Map<String, String> getConfig(String connectorName) {
+        ConnectorInfo info = infos.get(connectorName);
+        return info != null ? info.config : null;
+    }
+
+    /**
+     * Returns the status of the given connector, or {@code null} if the snapshot was taken without status.
+     */
+    public ConnectorStatusInfo getStatus(String connectorName) {
+        return statuses.get(connectorName);
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.kcctl.daemon.DaemonClient;
+import org.kcctl.daemon.DaemonServer;
+import org.kcctl.service.FanOutExecutor.Result;
+import org.kcctl.util.CacheFiles;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.Strings;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Provides the candidates for shell completion of connector, task and logger names. Candidates are cached per
+ * context in the kcctl cache directory, so that completion doesn't have to wait for the cluster. Once the cached
+ * candidates are older than the TTL, they are still returned, while a detached kcctl process refreshes them in the
+ * background. Only if there are no cached candidates at all they are retrieved right away.
+ */
+@ApplicationScoped
+public class CompletionCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Set for the detached process refreshing the cache; completion commands then refresh instead of printing
+     * candidates. Passed via the environment, as the command line may end with "--" and a prefix.
+     */
+    public static final String REFRESH_VARIABLE = "KCCTL_REFRESH_COMPLETIONS";
+
+    // a refresh which didn't finish after that time is assumed to have died
+    private static final Duration REFRESH_TIMEOUT = Duration.ofMinutes(2);
+
+    public enum Kind {
+        CONNECTOR_NAMES("connector-names"),
+        TASK_NAMES("task-names"),
+        LOGGER_NAMES("logger-names");
+
+        private final String fileName;
+
+        Kind(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+
+    private final ConfigurationContext context;
+    private final Supplier<KafkaConnectApi> client;
+    private final CapabilityRegistry capabilities;
+    private final Duration ttl;
+    private final Consumer<Kind> backgroundRefresh;
+
+    @Inject
+    public CompletionCache(ConfigurationContext context, KafkaConnectClientFactory clientFactory, CapabilityRegistry capabilities) {
+        this(context, clientFactory::getClient, capabilities, DEFAULT_TTL, null);
+    }
+
+    /**
+     * @param backgroundRefresh triggers the refresh of stale candidates, or {@code null} for refreshing them in a
+     *        detached process
+     */
+    CompletionCache(ConfigurationContext context, Supplier<KafkaConnectApi> client, CapabilityRegistry capabilities, Duration ttl,
+                    Consumer<Kind> backgroundRefresh) {
+        this.context = context;
+        this.client = client;
+        this.capabilities = capabilities;
+        this.ttl = ttl;
+        this.backgroundRefresh = backgroundRefresh != null ? backgroundRefresh : this::refreshInBackground;
+    }
+
+    /**
+     * Returns the candidates of the given kind starting with the given prefix.
+     */
+    public List<String> getCompletions(Kind kind, String prefix) {
+        List<String> candidates = getCandidates(kind);
+
+        if (Strings.isBlank(prefix)) {
+            return candidates;
+        }
+
+        return candidates.stream()
+                .filter(candidate -> candidate.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the candidates of the given kind from the cluster and updates the cache.
+     */
+    public List<String> refresh(Kind kind) {
+        List<String> candidates = fetch(kind);
+
+        File cacheFile = getCacheFile(kind);
+        if (cacheFile != null) {
+            CachedCompletions cached = new CachedCompletions();
+            cached.cluster = context.getCurrentContext().getCluster();
+            cached.fetchedAt = System.currentTimeMillis();
+            cached.candidates = candidates;
+
+            CacheFiles.write(cacheFile, cached);
+        }
+
+        return candidates;
+    }
+
+    private List<String> getCandidates(Kind kind) {
+        File cacheFile = getCacheFile(kind);
+        CachedCompletions cached = cacheFile != null ? CacheFiles.read(cacheFile, CachedCompletions.class) : null;
+
+        if (cached == null || cached.candidates == null || !context.getCurrentContext().getCluster().equals(cached.cluster)) {
+            return refresh(kind);
+        }
+
+        if (System.currentTimeMillis() - cached.fetchedAt >= ttl.toMillis() && tryLock(kind)) {
+            backgroundRefresh.accept(kind);
+        }
+
+        return cached.candidates;
+    }
+
+    private List<String> fetch(Kind kind) {
+        KafkaConnectApi kafkaConnectApi = client.get();
+
+        switch (kind) {
+            case CONNECTOR_NAMES:
+                return kafkaConnectApi.getConnectors();
+            case TASK_NAMES:
+                return fetchTaskNames(kafkaConnectApi);
+            case LOGGER_NAMES:
+                ObjectNode loggers = kafkaConnectApi.getLoggers("");
+                List<String> loggerNames = new ArrayList<>();
+                loggers.fieldNames().forEachRemaining(loggerNames::add);
+                return loggerNames;
+            default:
+                throw new IllegalArgumentException("Unsupported completion kind: " + kind);
+        }
+    }
+
+    private List<String> fetchTaskNames(KafkaConnectApi kafkaConnectApi) {
+        List<ConnectorStatusInfo> statuses;
+
+        if (capabilities.supports(ClusterFeature.EXPAND_API)) {
+            statuses = kafkaConnectApi.getConnectorsExpanded(ConnectorExpandInfo.STATUS)
+                    .values()
+                    .stream()
+                    .map(connector -> connector.status)
+                    .collect(Collectors.toList());
+        }
+        else {
+            FanOutExecutor executor = FanOutExecutor.forContext(context.getCurrentContext(), null);
+
+            // connectors deleted in the meantime are ignored
+            statuses = executor.execute(kafkaConnectApi.getConnectors(), kafkaConnectApi::getConnectorStatus)
+                    .stream()
+                    .filter(Result::isSuccessful)
+                    .map(Result::getValue)
+                    .collect(Collectors.toList());
+        }
+
+        List<String> taskNames = new ArrayList<>();
+        for (ConnectorStatusInfo status : statuses) {
+            for (TaskState task : status.tasks) {
+                taskNames.add(status.name + "/" + task.id);
+            }
+        }
+
+        return taskNames;
+    }
+
+    /**
+     * Re-runs the current kcctl command as a detached process in refresh mode, so the shell doesn't have to
+     * wait for it. Within the daemon, a background thread is used instead. If the command line of the current
+     * process can't be determined, the cache is refreshed in-process.
+     */
+    private void refreshInBackground(Kind kind) {
+        // a daemon keeps running after the command completed
+        if (DaemonServer.isServing()) {
+            Thread refresh = new Thread(null, () -> refreshAndUnlock(kind), "kcctl-completion-refresh", 0, false);
+            refresh.setDaemon(true);
+            refresh.start();
+            return;
+        }
+
+        ProcessHandle.Info info = ProcessHandle.current().info();
+        Optional<String> command = info.command();
+        Optional<String[]> arguments = info.arguments();
+
+        if (command.isEmpty() || arguments.isEmpty()) {
+            refreshAndUnlock(kind);
+            return;
+        }
+
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add(command.get());
+        commandLine.addAll(List.of(arguments.get()));
+
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(commandLine)
+                    .redirectOutput(Redirect.DISCARD)
+                    .redirectError(Redirect.DISCARD);
+            processBuilder.environment().put(REFRESH_VARIABLE, kind.name());
+            processBuilder.environment().put(DaemonClient.DISABLE_VARIABLE, "true");
+            processBuilder.start();
+        }
+        catch (IOException e) {
+            refreshAndUnlock(kind);
+        }
+    }
+
+    /**
+     * Refreshes the cache on behalf of a background refresh triggered by another kcctl process.
+     */
+    public static boolean isRefreshRequested() {
+        return System.getenv(REFRESH_VARIABLE) != null;
+    }
+
+    public void refreshAndUnlock(Kind kind) {
+        try {
+            refresh(kind);
+        }
+        finally {
+            unlock(kind);
+        }
+    }
+
+    private boolean tryLock(Kind kind) {
+        File lockFile = getLockFile(kind);
+
+        try {
+            Files.createDirectories(lockFile.getParentFile().toPath());
+            Files.createFile(lockFile.toPath());
+            return true;
+        }
+        catch (FileAlreadyExistsException e) {
+            // another refresh is in progress, unless it died without releasing the lock
+            if (System.currentTimeMillis() - lockFile.lastModified() > REFRESH_TIMEOUT.toMillis()) {
+                lockFile.setLastModified(System.currentTimeMillis());
+                return true;
+            }
+
+            return false;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void unlock(Kind kind) {
+        File lockFile = getLockFile(kind);
+
+        if (lockFile != null) {
+            lockFile.delete();
+        }
+    }
+
+    private File getLockFile(Kind kind) {
+        File cacheFile = getCacheFile(kind);
+        return cacheFile != null ? new File(cacheFile.getParentFile(), kind.fileName + ".lock") : null;
+    }
+
+    private File getCacheFile(Kind kind) {
+        String contextName = context.getCurrentContextName();
+
+        // no caching for the default context used without any configuration
+        if (Strings.isBlank(contextName)) {
+            return null;
+        }
+
+        return new File(context.getCacheDirectory(contextName), kind.fileName + ".json");
+    }
+
+    public static class CachedCompletions {
+
+        public URI cluster;
+        public long fetchedAt;
+        public List<String> candidates;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares connector configurations the way Kafka Connect stores them, i.e. with all values as strings and the
+ * connector name contained in the configuration.
+ */
+public class ConnectorConfigs {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ConnectorConfigs() {
+    }
+
+    public static Map<String, String> normalize(Map<String, ?> config, String connectorName) {
+        Map<String, String> normalized = new TreeMap<>();
+
+        for (Map.Entry<String, ?> entry : config.entrySet()) {
+            normalized.put(entry.getKey(), toString(entry.getValue()));
+        }
+
+        if (connectorName != null) {
+            normalized.putIfAbsent("name", connectorName);
+        }
+
+        return normalized;
+    }
+
+    /**
+     * Whether applying the given desired configuration to a connector with the given live configuration would
+     * not change anything.
+     */
+    public static boolean isUnchanged(Map<String, ?> desired, Map<String, String> live, String connectorName) {
+        return live != null && normalize(desired, connectorName).equals(normalize(live, connectorName));
+    }
+
+    /**
+     * Returns the names of all properties added, removed or changed by the given desired configuration.
+     */
+    public static Set<String> getChangedProperties(Map<String, ?> desired, Map<String, String> live, String connectorName) {
+        Map<String, String> normalizedDesired = normalize(desired, connectorName);
+        Map<String, String> normalizedLive = normalize(live, connectorName);
+
+        Set<String> changed = new TreeSet<>();
+        for (String key : normalizedDesired.keySet()) {
+            if (!Objects.equals(normalizedDesired.get(key), normalizedLive.get(key))) {
+                changed.add(key);
+            }
+        }
+        for (String key : normalizedLive.keySet()) {
+            if (!normalizedDesired.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Whether the given file contents have the format of the create connector request, i.e. a name and a nested
+     * configuration, rather than being a plain connector configuration.
+     */
+    public static boolean isCreateRequest(Map<String, Object> contents) {
+        return contents.containsKey("name") && contents.containsKey("config");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getConfig(Map<String, Object> contents) {
+        return isCreateRequest(contents) ? (Map<String, Object>) contents.get("config") : contents;
+    }
+
+    /**
+     * Returns the connector name given in the file contents, falling back to the name of the file without
+     * extension.
+     */
+    public static String getConnectorName(Map<String, Object> contents, File file) {
+        if (contents.get("name") instanceof String) {
+            return (String) contents.get("name");
+        }
+
+        String fileName = file.getName();
+        return fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - ".json".length()) : fileName;
+    }
+
+    private static String toString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        else if (value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+
+        try {
+            return MAPPER.writeValueAsString(value);
+        }
+        catch (JsonProcessingException e) {
+            return Objects.toString(value);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+
+public class ConnectorExpandInfo {
+
+    public static final List<String> STATUS = List.of("status");
+    public static final List<String> INFO = List.of("info");
+    public static final List<String> STATUS_AND_INFO = List.of("status", "info");
+
+    public ConnectorStatusInfo status;
+    public ConnectorInfo info;
+}
@@ -15,7 +15,13 @@
  */
 package org.kcctl.service;
 
+import java.util.List;
+import java.util.Map;
+
 public class ConnectorInfo {
 
     public String name;
+    public Map<String, String> config;
+    public List<ConnectorTaskId> tasks;
+    public String type;
 }
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Selects connectors by name pattern, state, type or class. The criteria are compiled once and evaluated against
+ * a {@link ClusterSnapshot}; a connector is selected if it matches all given criteria.
+ */
+public class ConnectorSelector {
+
+    private static final String CONNECTOR_CLASS = "connector.class";
+
+    private final boolean all;
+    private final Pattern namePattern;
+    private final Set<String> states;
+    private final String type;
+    private final String connectorClass;
+
+    /**
+     * Creates a selector for the given criteria, any of which may be {@code null}.
+     *
+     * @param all whether to select all connectors
+     * @param regex a regular expression the names of the selected connectors match
+     * @param glob a glob pattern with the wildcards {@code *} and {@code ?} the names of the selected connectors match
+     * @param states the states of the selected connectors or of any of their tasks, e.g. FAILED
+     * @param type the type of the selected connectors, i.e. source or sink
+     * @param connectorClass the fully-qualified or simple class name of the selected connectors
+     */
+    public ConnectorSelector(boolean all, String regex, String glob, Collection<String> states, String type, String connectorClass) {
+        if (regex != null && glob != null) {
+            throw new IllegalArgumentException("Only one of a regular expression and a glob pattern may be given");
+        }
+
+        this.all = all;
+        this.namePattern = regex != null ? Pattern.compile(regex) : glob != null ? compileGlob(glob) : null;
+        this.states = states != null && !states.isEmpty() ? states.stream().map(ConnectorSelector::upperCase).collect(Collectors.toSet()) : null;
+        this.type = upperCase(type);
+        this.connectorClass = connectorClass;
+    }
+
+    /**
+     * Whether any criteria have been given at all.
+     */
+    public boolean isEmpty() {
+        return !all && namePattern == null && states == null && type == null && connectorClass == null;
+    }
+
+    /**
+     * Whether evaluating this selector requires the status of the connectors.
+     */
+    public boolean requiresStatus() {
+        return states != null;
+    }
+
+    public List<String> select(ClusterSnapshot snapshot) {
+        List<String> selected = new ArrayList<>();
+
+        for (String connector : snapshot.getConnectorNames()) {
+            if (matches(connector, snapshot.getInfo(connector), snapshot.getStatus(connector))) {
+                selected.add(connector);
+            }
+        }
+
+        return selected;
+    }
+
+    public boolean matches(String name, ConnectorInfo info, ConnectorStatusInfo status) {
+        if (isEmpty()) {
+            return false;
+        }
+        if (namePattern != null && !namePattern.matcher(name).matches()) {
+            return false;
+        }
+        if (states != null && !matchesState(status)) {
+            return false;
+        }
+        if (type != null && !type.equals(upperCase(getType(info, status)))) {
+            return false;
+        }
+        if (connectorClass != null && !matchesClass(info)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether the given connector or any of its tasks is in one of the selected states, so that e.g. connectors
+     * with failed tasks are selected by FAILED, as their connector instance usually keeps running.
+     */
+    private boolean matchesState(ConnectorStatusInfo status) {
+        if (status == null) {
+            return false;
+        }
+        if (status.connector != null && states.contains(upperCase(status.connector.state))) {
+            return true;
+        }
+
+        return status.tasks != null && status.tasks.stream().anyMatch(task -> states.contains(upperCase(task.state)));
+    }
+
+    private boolean matchesClass(ConnectorInfo info) {
+        String actual = info != null && info.config != null ? info.config.get(CONNECTOR_CLASS) : null;
+        if (actual == null) {
+            return false;
+        }
+
+        return actual.equals(connectorClass) || actual.substring(actual.lastIndexOf('.') + 1).equals(connectorClass);
+    }
+
+    private static String getType(ConnectorInfo info, ConnectorStatusInfo status) {
+        if (info != null && info.type != null) {
+            return info.type;
+        }
+
+        return status != null ? status.type : null;
+    }
+
+    private static String upperCase(String value) {
+        return value != null ? value.toUpperCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Converts a glob pattern with the wildcards {@code *} and {@code ?} into a regular expression.
+     */
+    static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            }
+            else {
+                literal.append(c);
+            }
+        }
+
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        return Pattern.compile(regex.toString());
+    }
+}
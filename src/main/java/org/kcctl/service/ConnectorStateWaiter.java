@@ -0,0 +1,315 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.kcctl.service.FanOutExecutor.Result;
+
+/**
+ * Waits for connectors to reach a given state, e.g. after resuming them. The status of the pending connectors is
+ * polled with exponential backoff, either with one expanded listing of all connectors or, for a single connector or
+ * on clusters not supporting the expand API, with one request per connector. Connectors which fail are not waited
+ * for any longer. For connectors which were just updated, the status from before their restart isn't taken as the
+ * outcome. A connector without tasks, e.g. a new one whose task configs haven't been generated yet, only counts as
+ * paused, or as being in any other state once the {@link #RESTART_GRACE_PERIOD} has passed.
+ */
+public class ConnectorStateWaiter {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String FAILED = "FAILED";
+    public static final String PAUSED = "PAUSED";
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * How long after an update an unchanged status is taken as the outcome, for restarts too quick to be observed,
+     * and a status without tasks, for connectors which don't create any.
+     */
+    public static final Duration RESTART_GRACE_PERIOD = Duration.ofSeconds(5);
+
+    static final long INITIAL_INTERVAL_MS = 200;
+    static final long MAX_INTERVAL_MS = 2000;
+
+    private final KafkaConnectApi kafkaConnectApi;
+    private final CapabilityRegistry capabilities;
+    private final FanOutExecutor executor;
+    private final Sleeper sleeper;
+
+    public ConnectorStateWaiter(KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, FanOutExecutor executor) {
+        this(kafkaConnectApi, capabilities, executor, Sleeper.DEFAULT);
+    }
+
+    ConnectorStateWaiter(KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, FanOutExecutor executor, Sleeper sleeper) {
+        this.kafkaConnectApi = kafkaConnectApi;
+        this.capabilities = capabilities;
+        this.executor = executor;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Waits until the given connectors and all their tasks are in the given state, they fail, or the timeout
+     * expires.
+     *
+     * @return the outcome for each connector, in the given order
+     */
+    public List<ConnectorWait> await(Collection<String> connectors, String targetState, Duration timeout) {
+        return await(connectors, targetState, timeout, System.nanoTime());
+    }
+
+    /**
+     * Waits like {@link #await(Collection, String, Duration)}, measuring the time until each connector reaches the
+     * state from the given start, e.g. when the operation changing the state was issued.
+     *
+     * @param start the start as per {@link System#nanoTime()}
+     */
+    public List<ConnectorWait> await(Collection<String> connectors, String targetState, Duration timeout, long start) {
+        return await(connectors, targetState, timeout, start, Map.of());
+    }
+
+    /**
+     * Waits like {@link #await(Collection, String, Duration, long)} for connectors which were updated at the given
+     * start. Until an updated connector has restarted, its status may still be the one from before the update, so
+     * its status only counts once it differs from the given previous one, i.e. the restart was observed, or once
+     * the {@link #RESTART_GRACE_PERIOD} has passed since the start.
+     *
+     * @param previousStatuses the statuses of the updated connectors right before the update, by name
+     */
+    public List<ConnectorWait> await(Collection<String> connectors, String targetState, Duration timeout, long start,
+                                     Map<String, ConnectorStatusInfo> previousStatuses) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        Map<String, ConnectorWait> waits = new HashMap<>();
+        Map<String, ConnectorStatusInfo> lastStatuses = new HashMap<>();
+        Set<String> pending = new LinkedHashSet<>(connectors);
+        Set<String> restarted = new HashSet<>();
+
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            Map<String, ConnectorStatusInfo> statuses = poll(new ArrayList<>(pending));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            for (String connector : new ArrayList<>(pending)) {
+                ConnectorStatusInfo status = statuses.get(connector);
+
+                // not (yet) known to the cluster
+                if (status == null) {
+                    continue;
+                }
+
+                lastStatuses.put(connector, status);
+
+                ConnectorStatusInfo previousStatus = previousStatuses.get(connector);
+                if (previousStatus != null && !restarted.contains(connector)) {
+                    if (isRestarted(previousStatus, status)) {
+                        restarted.add(connector);
+                    }
+                    else if (elapsedMs < RESTART_GRACE_PERIOD.toMillis()) {
+                        continue;
+                    }
+                }
+
+                // a new connector is running before its tasks have been created
+                boolean awaitingTasks = !PAUSED.equals(targetState) && (status.tasks == null || status.tasks.isEmpty())
+                        && elapsedMs < RESTART_GRACE_PERIOD.toMillis();
+
+                if (isInState(status, targetState) && !awaitingTasks) {
+                    waits.put(connector, new ConnectorWait(connector, Outcome.REACHED, status, elapsedMs));
+                    pending.remove(connector);
+                }
+                else if (!FAILED.equals(targetState) && isFailed(status)) {
+                    waits.put(connector, new ConnectorWait(connector, Outcome.FAILED, status, elapsedMs));
+                    pending.remove(connector);
+                }
+            }
+
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (!pending.isEmpty() && remainingMs <= 0) {
+                for (String connector : pending) {
+                    waits.put(connector, new ConnectorWait(connector, Outcome.TIMED_OUT, lastStatuses.get(connector), elapsedMs));
+                }
+                break;
+            }
+
+            if (!pending.isEmpty()) {
+                sleep(Math.min(getInterval(attempt), remainingMs));
+            }
+        }
+
+        List<ConnectorWait> result = new ArrayList<>(connectors.size());
+        for (String connector : connectors) {
+            result.add(waits.get(connector));
+        }
+
+        return result;
+    }
+
+    static long getInterval(int attempt) {
+        return Math.min(MAX_INTERVAL_MS, INITIAL_INTERVAL_MS << Math.min(attempt, 20));
+    }
+
+    static boolean isInState(ConnectorStatusInfo status, String state) {
+        if (status.connector == null || !state.equalsIgnoreCase(status.connector.state)) {
+            return false;
+        }
+
+        if (status.tasks != null) {
+            for (TaskState task : status.tasks) {
+                if (!state.equalsIgnoreCase(task.state)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether the given status differs from the given previous one of the same connector, in the state or worker of
+     * the connector or any of its tasks, or in the tasks themselves.
+     */
+    static boolean isRestarted(ConnectorStatusInfo previous, ConnectorStatusInfo status) {
+        if (previous.connector == null || status.connector == null) {
+            return previous.connector != status.connector;
+        }
+        if (!Objects.equals(previous.connector.state, status.connector.state) || !Objects.equals(previous.connector.worker_id, status.connector.worker_id)) {
+            return true;
+        }
+
+        List<TaskState> previousTasks = previous.tasks != null ? previous.tasks : List.of();
+        List<TaskState> tasks = status.tasks != null ? status.tasks : List.of();
+        if (previousTasks.size() != tasks.size()) {
+            return true;
+        }
+
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskState previousTask = previousTasks.get(i);
+            TaskState task = tasks.get(i);
+            if (previousTask.id != task.id || !Objects.equals(previousTask.state, task.state) || !Objects.equals(previousTask.worker_id, task.worker_id)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static boolean isFailed(ConnectorStatusInfo status) {
+        if (status.connector != null && FAILED.equals(status.connector.state)) {
+            return true;
+        }
+
+        if (status.tasks != null) {
+            for (TaskState task : status.tasks) {
+                if (FAILED.equals(task.state)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Retrieves the status of the given connectors; connectors not known to the cluster are absent from the result.
+     */
+    private Map<String, ConnectorStatusInfo> poll(List<String> connectors) {
+        Map<String, ConnectorStatusInfo> statuses = new HashMap<>();
+
+        if (connectors.size() > 1 && capabilities.supports(ClusterFeature.EXPAND_API)) {
+            for (Map.Entry<String, ConnectorExpandInfo> connector : kafkaConnectApi.getConnectorsExpanded(ConnectorExpandInfo.STATUS).entrySet()) {
+                statuses.put(connector.getKey(), connector.getValue().status);
+            }
+
+            return statuses;
+        }
+
+        for (Result<String, ConnectorStatusInfo> result : executor.execute(connectors, kafkaConnectApi::getConnectorStatus)) {
+            if (result.isSuccessful()) {
+                statuses.put(result.getItem(), result.getValue());
+            }
+            else if (!(result.getError() instanceof KafkaConnectException)
+                    || ((KafkaConnectException) result.getError()).getErrorCode() != HttpStatus.SC_NOT_FOUND) {
+                throw result.getError();
+            }
+        }
+
+        return statuses;
+    }
+
+    private void sleep(long millis) {
+        try {
+            sleeper.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for connectors", e);
+        }
+    }
+
+    public enum Outcome {
+        REACHED,
+        FAILED,
+        TIMED_OUT
+    }
+
+    public static class ConnectorWait {
+
+        private final String connector;
+        private final Outcome outcome;
+        private final ConnectorStatusInfo status;
+        private final long elapsedMs;
+
+        public ConnectorWait(String connector, Outcome outcome, ConnectorStatusInfo status, long elapsedMs) {
+            this.connector = connector;
+            this.outcome = outcome;
+            this.status = status;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public String getConnector() {
+            return connector;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Returns the last observed status of the connector, or {@code null} if it was never found.
+         */
+        public ConnectorStatusInfo getStatus() {
+            return status;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public String getState() {
+            return status != null && status.connector != null ? status.connector.state : "NOT FOUND";
+        }
+    }
+}
@@ -16,40 +16,96 @@
 package org.kcctl.service;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import org.apache.commons.codec.binary.Base64;
 import org.kcctl.util.Strings;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Context {
     private final URI cluster;
+    private final List<URI> workers;
     private final String bootstrapServers;
     private final String offsetTopic;
     private final String username;
     private final String password;
     private final Map<String, Object> clientConfig;
+    private final Integer parallelism;
+    private final Long connectTimeoutMs;
+    private final Long readTimeoutMs;
+    private final Integer maxRetries;
+    private final Long retryTimeoutMs;
+    private final String authorizationHeader;
 
+    public Context(URI cluster, String bootstrapServers, String offsetTopic, String username, String password, Map<String, Object> clientConfig) {
+        this(cluster, null, bootstrapServers, offsetTopic, username, password, clientConfig, null, null, null, null, null);
+    }
+
+    @JsonCreator
     public Context(
                    @JsonProperty("cluster") URI cluster,
+                   @JsonProperty("workers") List<URI> workers,
                    @JsonProperty("bootstrapServers") String bootstrapServers,
                    @JsonProperty("offsetTopic") String offsetTopic,
                    @JsonProperty("username") String username,
                    @JsonProperty("password") String password,
-                   @JsonProperty("clientConfig") Map<String, Object> clientConfig) {
+                   @JsonProperty("clientConfig") Map<String, Object> clientConfig,
+                   @JsonProperty("parallelism") Integer parallelism,
+                   @JsonProperty("connectTimeoutMs") Long connectTimeoutMs,
+                   @JsonProperty("readTimeoutMs") Long readTimeoutMs,
+                   @JsonProperty("maxRetries") Integer maxRetries,
+                   @JsonProperty("retryTimeoutMs") Long retryTimeoutMs) {
         this.cluster = cluster;
+        this.workers = workers;
         this.bootstrapServers = bootstrapServers;
         this.offsetTopic = offsetTopic;
         this.username = username;
         this.password = password;
         this.clientConfig = clientConfig;
+        this.parallelism = parallelism;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.maxRetries = maxRetries;
+        this.retryTimeoutMs = retryTimeoutMs;
+        this.authorizationHeader = isUsingBasicAuthentication() ? generateBasicAuthHeaderValue(username, password) : null;
     }
 
     public URI getCluster() {
         return cluster;
     }
 
+    /**
+     * Returns the URLs of further workers of the cluster, if any.
+     */
+    public List<URI> getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the URLs of all the known workers of the cluster, starting with the cluster URL.
+     */
+    @JsonIgnore
+    public List<URI> getWorkerUrls() {
+        List<URI> urls = new ArrayList<>();
+        urls.add(cluster);
+
+        if (workers != null) {
+            for (URI worker : workers) {
+                if (!urls.contains(worker)) {
+                    urls.add(worker);
+                }
+            }
+        }
+
+        return urls;
+    }
+
     public String getBootstrapServers() {
         return bootstrapServers;
     }
@@ -70,13 +126,77 @@ public class Context {
         return this.clientConfig;
     }
 
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public Long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public Long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public Integer getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Long getRetryTimeoutMs() {
+        return retryTimeoutMs;
+    }
+
     @JsonIgnore
     public boolean isUsingBasicAuthentication() {
         return !Strings.isBlank(this.getUsername()) &&
                 !Strings.isBlank(this.getPassword());
     }
 
+    /**
+     * Returns the value of the "Authorization" header to send with each request, or {@code null} if no
+     * authentication is configured. Computed once per context.
+     */
+    @JsonIgnore
+    public String getAuthorizationHeader() {
+        return authorizationHeader;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        Context other = (Context) obj;
+        return Objects.equals(cluster, other.cluster) &&
+                Objects.equals(workers, other.workers) &&
+                Objects.equals(bootstrapServers, other.bootstrapServers) &&
+                Objects.equals(offsetTopic, other.offsetTopic) &&
+                Objects.equals(username, other.username) &&
+                Objects.equals(password, other.password) &&
+                Objects.equals(clientConfig, other.clientConfig) &&
+                Objects.equals(parallelism, other.parallelism) &&
+                Objects.equals(connectTimeoutMs, other.connectTimeoutMs) &&
+                Objects.equals(readTimeoutMs, other.readTimeoutMs) &&
+                Objects.equals(maxRetries, other.maxRetries) &&
+                Objects.equals(retryTimeoutMs, other.retryTimeoutMs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cluster, workers, bootstrapServers, offsetTopic, username, password, clientConfig, parallelism, connectTimeoutMs, readTimeoutMs,
+                maxRetries, retryTimeoutMs);
+    }
+
     public static Context defaultContext() {
         return new Context(URI.create("http://localhost:8083"), null, null, null, null, null);
     }
+
+    private static String generateBasicAuthHeaderValue(String username, String password) {
+        return String.format("Basic %s",
+                new Base64().encodeAsString(String.format("%s:%s", username, password).getBytes()));
+    }
 }
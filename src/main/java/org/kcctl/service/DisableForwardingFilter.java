@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.IOException;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.UriBuilder;
+
+/**
+ * Adds the "forward=false" query parameter to requests, which makes followers reject configuration changes with a
+ * 409 response instead of forwarding them to the leader. Used for the requests sent to the presumed leader of a
+ * cluster, which thus are only executed if it actually is the leader.
+ */
+public class DisableForwardingFilter implements ClientRequestFilter {
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        requestContext.setUri(UriBuilder.fromUri(requestContext.getUri()).replaceQueryParam("forward", false).build());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Issues one operation per item concurrently, using at most a given number of threads. Results are returned in
+ * the order of the given items, failures of individual items are collected instead of aborting the other ones.
+ */
+public class FanOutExecutor {
+
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final int parallelism;
+
+    public FanOutExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    public static FanOutExecutor forContext(Context context, Integer parallelism) {
+        if (parallelism != null) {
+            return new FanOutExecutor(parallelism);
+        }
+        else if (context.getParallelism() != null) {
+            return new FanOutExecutor(context.getParallelism());
+        }
+        else {
+            return new FanOutExecutor(DEFAULT_PARALLELISM);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public <T, R> List<Result<T, R>> execute(List<T> items, Function<T, R> operation) {
+        List<Result<T, R>> results = new ArrayList<>(items.size());
+
+        if (items.size() <= 1 || parallelism == 1) {
+            for (T item : items) {
+                results.add(invoke(item, operation));
+            }
+
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, items.size()), r -> {
+            Thread thread = new Thread(r, "kcctl-fan-out-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Result<T, R>>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> invoke(item, operation)));
+            }
+
+            for (Future<Result<T, R>> future : futures) {
+                results.add(future.get());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for requests to complete", e);
+        }
+        catch (ExecutionException e) {
+            // invoke() never throws, so this is unexpected
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    private static <T, R> Result<T, R> invoke(T item, Function<T, R> operation) {
+        try {
+            return new Result<>(item, operation.apply(item), null);
+        }
+        catch (RuntimeException e) {
+            return new Result<>(item, null, e);
+        }
+    }
+
+    public static <T, R> List<Result<T, R>> failures(List<Result<T, R>> results) {
+        List<Result<T, R>> failures = new ArrayList<>();
+
+        for (Result<T, R> result : results) {
+            if (!result.isSuccessful()) {
+                failures.add(result);
+            }
+        }
+
+        return failures;
+    }
+
+    public static class Result<T, R> {
+
+        private final T item;
+        private final R value;
+        private final RuntimeException error;
+
+        public Result(T item, R value, RuntimeException error) {
+            this.item = item;
+            this.value = value;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public R getValue() {
+            return value;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+}
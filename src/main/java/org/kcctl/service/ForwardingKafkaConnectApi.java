@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.ws.rs.HttpMethod;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Base class for decorators of {@link KafkaConnectApi}, which forward each request via
+ * {@link #execute(String, Function)}.
+ */
+abstract class ForwardingKafkaConnectApi implements KafkaConnectApi {
+
+    /**
+     * Executes the given request, which uses the given HTTP method, against one of the underlying clients.
+     */
+    protected abstract <T> T execute(String method, Function<KafkaConnectApi, T> request);
+
+    /**
+     * Executes the given request which only the leader of the cluster executes, i.e. a configuration change or a
+     * restart of a connector together with its tasks, and which other workers forward to it.
+     */
+    protected <T> T executeOnLeader(String method, Function<KafkaConnectApi, T> request) {
+        return execute(method, request);
+    }
+
+    @Override
+    public KafkaConnectInfo getWorkerInfo() {
+        return execute(HttpMethod.GET, KafkaConnectApi::getWorkerInfo);
+    }
+
+    @Override
+    public List<ConnectorPlugin> getConnectorPlugins() {
+        return execute(HttpMethod.GET, KafkaConnectApi::getConnectorPlugins);
+    }
+
+    @Override
+    public ConfigInfos validateConfig(String name, String config) {
+        return execute(HttpMethod.PUT, api -> api.validateConfig(name, config));
+    }
+
+    @Override
+    public List<String> getConnectors() {
+        return execute(HttpMethod.GET, KafkaConnectApi::getConnectors);
+    }
+
+    @Override
+    public Map<String, ConnectorExpandInfo> getConnectorsExpanded(List<String> expand) {
+        return execute(HttpMethod.GET, api -> api.getConnectorsExpanded(expand));
+    }
+
+    @Override
+    public ConnectorStatusInfo createConnector(String config) {
+        return executeOnLeader(HttpMethod.POST, api -> api.createConnector(config));
+    }
+
+    @Override
+    public ConnectorInfo getConnector(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnector(name));
+    }
+
+    @Override
+    public void restartConnector(String name) {
+        // executed by the worker running the connector rather than by the leader
+        execute(HttpMethod.POST, api -> {
+            api.restartConnector(name);
+            return null;
+        });
+    }
+
+    @Override
+    public ConnectorStatusInfo restartConnector(String name, boolean includeTasks, boolean onlyFailed) {
+        Function<KafkaConnectApi, ConnectorStatusInfo> request = api -> api.restartConnector(name, includeTasks, onlyFailed);
+
+        // only restarts including tasks or restricted to failed instances are executed by the leader
+        return includeTasks || onlyFailed ? executeOnLeader(HttpMethod.POST, request) : execute(HttpMethod.POST, request);
+    }
+
+    @Override
+    public void pauseConnector(String name) {
+        execute(HttpMethod.PUT, api -> {
+            api.pauseConnector(name);
+            return null;
+        });
+    }
+
+    @Override
+    public void resumeConnector(String name) {
+        execute(HttpMethod.PUT, api -> {
+            api.resumeConnector(name);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteConnector(String name) {
+        executeOnLeader(HttpMethod.DELETE, api -> {
+            api.deleteConnector(name);
+            return null;
+        });
+    }
+
+    @Override
+    public ConnectorStatusInfo getConnectorStatus(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorStatus(name));
+    }
+
+    @Override
+    public Map<String, TopicsInfo> getConnectorTopics(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorTopics(name));
+    }
+
+    @Override
+    public Map<String, String> getConnectorConfig(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorConfig(name));
+    }
+
+    @Override
+    public ConnectorStatusInfo updateConnector(String name, String config) {
+        return executeOnLeader(HttpMethod.PUT, api -> api.updateConnector(name, config));
+    }
+
+    @Override
+    public ConnectorInfo restartTask(String name, String id) {
+        return execute(HttpMethod.POST, api -> api.restartTask(name, id));
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getConnectorTasksConfig(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorTasksConfig(name));
+    }
+
+    @Override
+    public List<String> updateLogLevel(String classPath, String content) {
+        return execute(HttpMethod.PUT, api -> api.updateLogLevel(classPath, content));
+    }
+
+    @Override
+    public ObjectNode getLoggers(String path) {
+        return execute(HttpMethod.GET, api -> api.getLoggers(path));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import javax.ws.rs.HttpMethod;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Base class for decorators of {@link KafkaConnectAsyncApi}, which forward each request via
+ * {@link #execute(String, Function)}.
+ */
+abstract class ForwardingKafkaConnectAsyncApi implements KafkaConnectAsyncApi {
+
+    /**
+     * Executes the given request, which uses the given HTTP method, against one of the underlying clients.
+     */
+    protected abstract <T> CompletionStage<T> execute(String method, Function<KafkaConnectAsyncApi, CompletionStage<T>> request);
+
+    @Override
+    public CompletionStage<KafkaConnectInfo> getWorkerInfo() {
+        return execute(HttpMethod.GET, KafkaConnectAsyncApi::getWorkerInfo);
+    }
+
+    @Override
+    public CompletionStage<List<String>> getConnectors() {
+        return execute(HttpMethod.GET, KafkaConnectAsyncApi::getConnectors);
+    }
+
+    @Override
+    public CompletionStage<Map<String, ConnectorExpandInfo>> getConnectorsExpanded(List<String> expand) {
+        return execute(HttpMethod.GET, api -> api.getConnectorsExpanded(expand));
+    }
+
+    @Override
+    public CompletionStage<ConnectorInfo> getConnector(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnector(name));
+    }
+
+    @Override
+    public CompletionStage<Void> restartConnector(String name) {
+        return execute(HttpMethod.POST, api -> api.restartConnector(name));
+    }
+
+    @Override
+    public CompletionStage<Void> pauseConnector(String name) {
+        return execute(HttpMethod.PUT, api -> api.pauseConnector(name));
+    }
+
+    @Override
+    public CompletionStage<Void> resumeConnector(String name) {
+        return execute(HttpMethod.PUT, api -> api.resumeConnector(name));
+    }
+
+    @Override
+    public CompletionStage<Void> deleteConnector(String name) {
+        return execute(HttpMethod.DELETE, api -> api.deleteConnector(name));
+    }
+
+    @Override
+    public CompletionStage<ConnectorStatusInfo> getConnectorStatus(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorStatus(name));
+    }
+
+    @Override
+    public CompletionStage<Map<String, TopicsInfo>> getConnectorTopics(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorTopics(name));
+    }
+
+    @Override
+    public CompletionStage<Map<String, String>> getConnectorConfig(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorConfig(name));
+    }
+
+    @Override
+    public CompletionStage<ConnectorStatusInfo> updateConnector(String name, String config) {
+        return execute(HttpMethod.PUT, api -> api.updateConnector(name, config));
+    }
+
+    @Override
+    public CompletionStage<Void> restartTask(String name, String id) {
+        return execute(HttpMethod.POST, api -> api.restartTask(name, id));
+    }
+
+    @Override
+    public CompletionStage<Map<String, Map<String, String>>> getConnectorTasksConfig(String name) {
+        return execute(HttpMethod.GET, api -> api.getConnectorTasksConfig(name));
+    }
+
+    @Override
+    public CompletionStage<List<String>> updateLogLevel(String classPath, String content) {
+        return execute(HttpMethod.PUT, api -> api.updateLogLevel(classPath, content));
+    }
+
+    @Override
+    public CompletionStage<ObjectNode> getLoggers(String path) {
+        return execute(HttpMethod.GET, api -> api.getLoggers(path));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.function.Function;
+
+/**
+ * Tracks the requests of the given client in {@link ClientStatistics} and the {@link TimingFilter}. Unlike the
+ * filters of the client, this sees the completion of each request, also if it fails without a response, e.g. due to
+ * a connection failure or timeout.
+ */
+class InstrumentedKafkaConnectApi extends ForwardingKafkaConnectApi {
+
+    private final KafkaConnectApi delegate;
+    private final ClientStatistics statistics;
+    private final TimingFilter timingFilter;
+
+    InstrumentedKafkaConnectApi(KafkaConnectApi delegate, ClientStatistics statistics, TimingFilter timingFilter) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+        this.timingFilter = timingFilter;
+    }
+
+    @Override
+    protected <T> T execute(String method, Function<KafkaConnectApi, T> request) {
+        statistics.requestStarted();
+        long start = System.nanoTime();
+        TimingFilter.Attempt attempt = timingFilter.startAttempt();
+        try {
+            return request.apply(delegate);
+        }
+        catch (RuntimeException e) {
+            statistics.requestFailed(method, start, e);
+            timingFilter.failed(attempt, e);
+            throw e;
+        }
+        finally {
+            timingFilter.endAttempt(attempt);
+            statistics.requestCompleted();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import org.kcctl.util.Futures;
+
+/**
+ * Tracks the requests of the given non-blocking client in {@link ClientStatistics} and the {@link TimingFilter}, also
+ * if they fail without a response.
+ */
+class InstrumentedKafkaConnectAsyncApi extends ForwardingKafkaConnectAsyncApi {
+
+    private final KafkaConnectAsyncApi delegate;
+    private final ClientStatistics statistics;
+    private final TimingFilter timingFilter;
+
+    InstrumentedKafkaConnectAsyncApi(KafkaConnectAsyncApi delegate, ClientStatistics statistics, TimingFilter timingFilter) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+        this.timingFilter = timingFilter;
+    }
+
+    @Override
+    protected <T> CompletionStage<T> execute(String method, Function<KafkaConnectAsyncApi, CompletionStage<T>> request) {
+        statistics.requestStarted();
+        long start = System.nanoTime();
+        // passed on to the pooled thread sending the request when submitting it
+        TimingFilter.Attempt attempt = timingFilter.startAttempt();
+
+        CompletionStage<T> stage;
+        try {
+            stage = request.apply(delegate);
+        }
+        catch (RuntimeException e) {
+            statistics.requestFailed(method, start, e);
+            timingFilter.failed(attempt, e);
+            statistics.requestCompleted();
+            throw e;
+        }
+        finally {
+            timingFilter.endAttempt(attempt);
+        }
+
+        return stage.whenComplete((value, error) -> {
+            if (error != null) {
+                statistics.requestFailed(method, start, Futures.unwrap(error));
+                timingFilter.failed(attempt, Futures.unwrap(error));
+            }
+            statistics.requestCompleted();
+        });
+    }
+}
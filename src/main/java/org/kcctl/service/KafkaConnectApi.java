@@ -24,6 +24,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 import org.eclipse.microprofile.rest.client.annotation.RegisterClientHeaders;
 import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
@@ -52,6 +53,10 @@ public interface KafkaConnectApi {
     @Path("/connectors/")
     List<String> getConnectors();
 
+    @GET
+    @Path("/connectors/")
+    Map<String, ConnectorExpandInfo> getConnectorsExpanded(@QueryParam("expand") List<String> expand);
+
     @POST
     @Path("/connectors/")
     ConnectorStatusInfo createConnector(String config);
@@ -64,6 +69,16 @@ public interface KafkaConnectApi {
     @Path("/connectors/{name}/restart")
     void restartConnector(@PathParam("name") String name);
 
+    /**
+     * Restarts the connector and, if requested, its tasks; optionally only those which have failed. Returns the
+     * status with the instances to be restarted in state RESTARTING, or {@code null} if only the connector is
+     * restarted. Requires Kafka Connect 3.0.
+     */
+    @POST
+    @Path("/connectors/{name}/restart")
+    ConnectorStatusInfo restartConnector(@PathParam("name") String name, @QueryParam("includeTasks") boolean includeTasks,
+                                         @QueryParam("onlyFailed") boolean onlyFailed);
+
     @PUT
     @Path("/connectors/{name}/pause")
     void pauseConnector(@PathParam("name") String name);
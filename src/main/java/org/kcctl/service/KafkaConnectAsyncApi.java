@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+import org.eclipse.microprofile.rest.client.annotation.RegisterClientHeaders;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Non-blocking variant of {@link KafkaConnectApi}. Failed requests complete the returned stage exceptionally with
+ * the same exceptions the blocking API throws, use {@link org.kcctl.util.Futures#join(CompletionStage)} to await a
+ * result and rethrow them.
+ */
+@Path("/")
+@RegisterClientHeaders(value = KafkaConnectClientHeadersFactory.class)
+@RegisterProvider(value = KafkaConnectResponseExceptionMapper.class, priority = 50)
+public interface KafkaConnectAsyncApi {
+
+    @GET
+    CompletionStage<KafkaConnectInfo> getWorkerInfo();
+
+    @GET
+    @Path("/connectors/")
+    CompletionStage<List<String>> getConnectors();
+
+    @GET
+    @Path("/connectors/")
+    CompletionStage<Map<String, ConnectorExpandInfo>> getConnectorsExpanded(@QueryParam("expand") List<String> expand);
+
+    @GET
+    @Path("/connectors/{name}")
+    CompletionStage<ConnectorInfo> getConnector(@PathParam("name") String name);
+
+    @POST
+    @Path("/connectors/{name}/restart")
+    CompletionStage<Void> restartConnector(@PathParam("name") String name);
+
+    @PUT
+    @Path("/connectors/{name}/pause")
+    CompletionStage<Void> pauseConnector(@PathParam("name") String name);
+
+    @PUT
+    @Path("/connectors/{name}/resume")
+    CompletionStage<Void> resumeConnector(@PathParam("name") String name);
+
+    @DELETE
+    @Path("/connectors/{name}")
+    CompletionStage<Void> deleteConnector(@PathParam("name") String name);
+
+    @GET
+    @Path("/connectors/{name}/status")
+    CompletionStage<ConnectorStatusInfo> getConnectorStatus(@PathParam("name") String name);
+
+    @GET
+    @Path("/connectors/{name}/topics")
+    CompletionStage<Map<String, TopicsInfo>> getConnectorTopics(@PathParam("name") String name);
+
+    @GET
+    @Path("/connectors/{name}/config")
+    CompletionStage<Map<String, String>> getConnectorConfig(@PathParam("name") String name);
+
+    @PUT
+    @Path("/connectors/{name}/config")
+    CompletionStage<ConnectorStatusInfo> updateConnector(@PathParam("name") String name, String config);
+
+    @POST
+    @Path("/connectors/{name}/tasks/{id}/restart")
+    CompletionStage<Void> restartTask(@PathParam("name") String name, @PathParam("id") String id);
+
+    @GET
+    @Path("/connectors/{name}/tasks-config")
+    CompletionStage<Map<String, Map<String, String>>> getConnectorTasksConfig(@PathParam("name") String name);
+
+    @PUT
+    @Path("/admin/loggers/{classPath}")
+    CompletionStage<List<String>> updateLogLevel(@PathParam("classPath") String classPath, String content);
+
+    @GET
+    @Path("/admin/loggers/{path}")
+    CompletionStage<ObjectNode> getLoggers(@PathParam("path") String path);
+}
@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.Strings;
+import org.kcctl.util.Timings;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Provides the Kafka Connect clients for the configured contexts. There is one client per context, shared by all
+ * commands of a kcctl invocation, so that HTTP connections to the cluster are pooled and kept alive. Failed requests
+ * are retried according to the {@link RetryPolicy} of the context. If the context lists multiple workers, the requests
+ * are spread across them by a {@link LoadBalancer}, sending configuration changes to the leader.
+ */
+@ApplicationScoped
+// the "resteasy." builder properties are applied reflectively
+@RegisterForReflection(classNames = "org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder")
+public class KafkaConnectClientFactory {
+
+    public static final int MIN_CONNECTION_POOL_SIZE = 20;
+    public static final long CONNECTION_TTL_SECONDS = 60;
+
+    private static final String LEADER_CACHE_FILE = "leader.json";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ConfigurationContext context;
+    private final Timings timings;
+    private final TimingFilter timingFilter;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    public KafkaConnectClientFactory(ConfigurationContext context) {
+        this(context, new Timings());
+    }
+
+    @Inject
+    public KafkaConnectClientFactory(ConfigurationContext context, Timings timings) {
+        this.context = context;
+        this.timings = timings;
+        this.timingFilter = new TimingFilter(timings);
+    }
+
+    public KafkaConnectApi getClient() {
+        return getClient(context.getCurrentContextName(), context.getCurrentContext());
+    }
+
+    public KafkaConnectApi getClient(String contextName) {
+        return getClient(contextName, context.getContext(contextName));
+    }
+
+    /**
+     * Returns the non-blocking client for the current context. It shares the connection pool size and statistics
+     * of the blocking client, requests are executed by a pool of that size.
+     */
+    public KafkaConnectAsyncApi getAsyncClient() {
+        return getClientFor(context.getCurrentContextName(), context.getCurrentContext()).getAsyncApi();
+    }
+
+    public KafkaConnectAsyncApi getAsyncClient(String contextName) {
+        return getClientFor(contextName, context.getContext(contextName)).getAsyncApi();
+    }
+
+    public ClientStatistics getStatistics() {
+        Client client = clients.get(context.getCurrentContextName());
+        return client != null ? client.statistics : null;
+    }
+
+    private KafkaConnectApi getClient(String contextName, Context clientContext) {
+        return getClientFor(contextName, clientContext).api;
+    }
+
+    private Client getClientFor(String contextName, Context clientContext) {
+        Client client = clients.compute(contextName, (name, existing) -> {
+            if (existing != null && existing.context.equals(clientContext)) {
+                return existing;
+            }
+
+            // the context has been changed in the meantime, which can only happen in long-running processes
+            if (existing != null) {
+                existing.close();
+            }
+
+            return createClient(name, clientContext);
+        });
+
+        client.statistics.clientLookedUp();
+        return client;
+    }
+
+    private Client createClient(String contextName, Context clientContext) {
+        long start = System.nanoTime();
+        int connectionPoolSize = getConnectionPoolSize(clientContext);
+        ClientStatistics statistics = new ClientStatistics(connectionPoolSize);
+
+        // no caching for the default context used without any configuration
+        File leaderCacheFile = Strings.isBlank(contextName) ? null : new File(context.getCacheDirectory(contextName), LEADER_CACHE_FILE);
+        LeaderCache leaderCache = new LeaderCache(clientContext.getWorkerUrls(), leaderCacheFile);
+
+        Client client = new Client(clientContext, connectionPoolSize, statistics, timingFilter, RetryPolicy.forContext(clientContext), leaderCache);
+        timings.recordPhase(Timings.CLIENT_BUILD, System.nanoTime() - start);
+
+        return client;
+    }
+
+    private static RestClientBuilder newBuilder(Context clientContext, URI workerUrl, int connectionPoolSize, ClientStatistics statistics,
+                                                TimingFilter timingFilter) {
+        RestClientBuilder builder = RestClientBuilder.newBuilder()
+                .baseUri(workerUrl)
+                .property("resteasy.connectionPoolSize", connectionPoolSize)
+                .property("resteasy.maxPooledPerRoute", connectionPoolSize)
+                .property("resteasy.connectionTTL", List.of(CONNECTION_TTL_SECONDS, TimeUnit.SECONDS))
+                .register(statistics)
+                .register(timingFilter);
+
+        if (clientContext.getConnectTimeoutMs() != null) {
+            builder.connectTimeout(clientContext.getConnectTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        if (clientContext.getReadTimeoutMs() != null) {
+            builder.readTimeout(clientContext.getReadTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+
+        return builder;
+    }
+
+    private static int getConnectionPoolSize(Context clientContext) {
+        if (clientContext.getParallelism() != null) {
+            return Math.max(MIN_CONNECTION_POOL_SIZE, clientContext.getParallelism());
+        }
+
+        return MIN_CONNECTION_POOL_SIZE;
+    }
+
+    @PreDestroy
+    void close() {
+        for (Client client : clients.values()) {
+            client.close();
+        }
+
+        clients.clear();
+    }
+
+    private static void close(Object api) {
+        if (api instanceof Closeable) {
+            try {
+                ((Closeable) api).close();
+            }
+            catch (IOException e) {
+                // ignore, we're shutting down
+            }
+        }
+    }
+
+    private static class Client {
+
+        private final Context context;
+        private final int connectionPoolSize;
+        private final ClientStatistics statistics;
+        private final TimingFilter timingFilter;
+        private final RetryPolicy retryPolicy;
+        private final LoadBalancer loadBalancer;
+        // the clients as built, which must be closed eventually
+        private final List<Object> builtClients = new ArrayList<>();
+        private final List<KafkaConnectApi> restClients = new ArrayList<>();
+        private final List<KafkaConnectApi> leaderRestClients = new ArrayList<>();
+        private final KafkaConnectApi api;
+        private final List<KafkaConnectAsyncApi> asyncRestClients = new ArrayList<>();
+        private KafkaConnectAsyncApi asyncApi;
+        private ExecutorService executor;
+
+        private Client(Context context, int connectionPoolSize, ClientStatistics statistics, TimingFilter timingFilter, RetryPolicy retryPolicy,
+                       LeaderCache leaderCache) {
+            this.context = context;
+            this.connectionPoolSize = connectionPoolSize;
+            this.statistics = statistics;
+            this.timingFilter = timingFilter;
+            this.retryPolicy = retryPolicy;
+            this.loadBalancer = new LoadBalancer(context.getWorkerUrls());
+
+            for (URI workerUrl : context.getWorkerUrls()) {
+                restClients.add(build(newBuilder(context, workerUrl, connectionPoolSize, statistics, timingFilter)));
+            }
+
+            if (restClients.size() == 1) {
+                this.api = new RetryingKafkaConnectApi(restClients.get(0), retryPolicy);
+            }
+            else {
+                for (URI workerUrl : context.getWorkerUrls()) {
+                    leaderRestClients.add(build(newBuilder(context, workerUrl, connectionPoolSize, statistics, timingFilter)
+                            .register(new DisableForwardingFilter())));
+                }
+
+                this.api = new RetryingKafkaConnectApi(new LoadBalancingKafkaConnectApi(restClients, leaderRestClients, loadBalancer, leaderCache), retryPolicy);
+            }
+        }
+
+        // created on demand, as most commands only use the blocking client
+        private synchronized KafkaConnectAsyncApi getAsyncApi() {
+            if (asyncApi == null) {
+                // the pool outlives the command creating it, so its threads must not inherit routed streams or
+                // timings; instead, the timings of the submitting command are passed on with each task
+                executor = new ThreadPoolExecutor(connectionPoolSize, connectionPoolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(null, r, "kcctl-async-" + THREAD_COUNTER.incrementAndGet(), 0, false);
+                    thread.setDaemon(true);
+                    return thread;
+                }) {
+                    @Override
+                    public void execute(Runnable command) {
+                        super.execute(timingFilter.propagate(command));
+                    }
+                };
+
+                for (URI workerUrl : context.getWorkerUrls()) {
+                    KafkaConnectAsyncApi asyncRestClient = newBuilder(context, workerUrl, connectionPoolSize, statistics, timingFilter)
+                            .executorService(executor)
+                            .build(KafkaConnectAsyncApi.class);
+                    builtClients.add(asyncRestClient);
+                    asyncRestClients.add(new InstrumentedKafkaConnectAsyncApi(asyncRestClient, statistics, timingFilter));
+                }
+
+                KafkaConnectAsyncApi balanced = asyncRestClients.size() == 1 ? asyncRestClients.get(0)
+                        : new LoadBalancingKafkaConnectAsyncApi(asyncRestClients, loadBalancer);
+                asyncApi = new RetryingKafkaConnectAsyncApi(balanced, retryPolicy);
+            }
+
+            return asyncApi;
+        }
+
+        private KafkaConnectApi build(RestClientBuilder builder) {
+            KafkaConnectApi restClient = builder.build(KafkaConnectApi.class);
+            builtClients.add(restClient);
+            return new InstrumentedKafkaConnectApi(restClient, statistics, timingFilter);
+        }
+
+        private synchronized void close() {
+            builtClients.forEach(KafkaConnectClientFactory::close);
+
+            if (asyncApi != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -19,7 +19,6 @@ import javax.inject.Inject;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 
-import org.apache.commons.codec.binary.Base64;
 import org.eclipse.microprofile.rest.client.ext.ClientHeadersFactory;
 import org.kcctl.util.ConfigurationContext;
 
@@ -38,21 +37,12 @@ public class KafkaConnectClientHeadersFactory implements ClientHeadersFactory {
     public MultivaluedMap<String, String> update(MultivaluedMap<String, String> incomingHeaders,
                                                  MultivaluedMap<String, String> clientOutgoingHeaders) {
         MultivaluedMap<String, String> result = new MultivaluedHashMap<String, String>();
-        Context currentContext = context.getCurrentContext();
-
-        if (currentContext.isUsingBasicAuthentication()) {
-            result.add("Authorization",
-                    generateBasicAuthHeaderValue(
-                            currentContext.getUsername(),
-                            currentContext.getPassword()));
-            return result;
+        String authorizationHeader = context.getCurrentContext().getAuthorizationHeader();
+
+        if (authorizationHeader != null) {
+            result.add("Authorization", authorizationHeader);
         }
 
         return result;
     }
-
-    private static String generateBasicAuthHeaderValue(String username, String password) {
-        return String.format("Basic %s",
-                new Base64().encodeAsString(String.format("%s:%s", username, password).getBytes()));
-    }
 }
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.kcctl.util.CacheFiles;
+
+/**
+ * Remembers which of the workers of a cluster is the leader, so that configuration changes can be sent to it
+ * directly rather than being forwarded by another worker. The leader is cached in the kcctl cache directory of the
+ * context, if given, so that subsequent invocations don't have to discover it again.
+ */
+public class LeaderCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private final List<URI> workers;
+    private final File cacheFile;
+    private final Duration ttl;
+
+    private boolean loaded;
+    private int leader = -1;
+
+    public LeaderCache(List<URI> workers, File cacheFile) {
+        this(workers, cacheFile, DEFAULT_TTL);
+    }
+
+    LeaderCache(List<URI> workers, File cacheFile, Duration ttl) {
+        this.workers = workers;
+        this.cacheFile = cacheFile;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the index of the leader within the workers, or -1 if it isn't known.
+     */
+    public synchronized int getLeader() {
+        if (!loaded) {
+            loaded = true;
+            leader = readCache();
+        }
+
+        return leader;
+    }
+
+    public synchronized void setLeader(int worker) {
+        if (loaded && leader == worker) {
+            return;
+        }
+
+        loaded = true;
+        leader = worker;
+        writeCache();
+    }
+
+    /**
+     * Forgets the given worker as the leader, e.g. as it rejected a request only the leader may execute.
+     */
+    public synchronized void invalidate(int worker) {
+        if (getLeader() == worker) {
+            leader = -1;
+            writeCache();
+        }
+    }
+
+    private int readCache() {
+        CachedLeader cached = cacheFile != null ? CacheFiles.read(cacheFile, CachedLeader.class) : null;
+
+        if (cached == null || cached.leader == null || !workers.equals(cached.workers)
+                || System.currentTimeMillis() - cached.discoveredAt >= ttl.toMillis()) {
+            return -1;
+        }
+
+        return workers.indexOf(cached.leader);
+    }
+
+    private void writeCache() {
+        if (cacheFile == null) {
+            return;
+        }
+
+        CachedLeader cached = new CachedLeader();
+        cached.workers = workers;
+        cached.leader = leader != -1 ? workers.get(leader) : null;
+        cached.discoveredAt = System.currentTimeMillis();
+
+        CacheFiles.write(cacheFile, cached);
+    }
+
+    public static class CachedLeader {
+
+        public List<URI> workers;
+        public URI leader;
+        public long discoveredAt;
+    }
+}
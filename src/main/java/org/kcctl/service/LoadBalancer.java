@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.kcctl.service.RetryPolicy.Classification;
+
+/**
+ * Spreads the requests against a Kafka Connect cluster across its workers. Each request is sent to the healthy worker
+ * with the fewest outstanding requests. Health is tracked passively: a worker which failed repeatedly, e.g. as it
+ * couldn't be reached or timed out, is ejected for a period growing with each ejection, after which it receives
+ * requests again. Ejections are forgiven one at a time, for each period without failures as long as the ejection
+ * they made up for, so that the ejections of a flapping worker keep growing. Requests which failed on one worker may
+ * be failed over to another one, if that is safe for their method.
+ */
+public class LoadBalancer {
+
+    public static final int FAILURE_THRESHOLD = 2;
+    public static final long INITIAL_EJECTION_MS = 5_000;
+    public static final long MAX_EJECTION_MS = 60_000;
+
+    private final List<Worker> workers = new ArrayList<>();
+    private final LongSupplier nanoTime;
+    private int next;
+
+    public LoadBalancer(List<URI> urls) {
+        this(urls, System::nanoTime);
+    }
+
+    LoadBalancer(List<URI> urls, LongSupplier nanoTime) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker URL is required");
+        }
+
+        this.nanoTime = nanoTime;
+        for (URI url : urls) {
+            workers.add(new Worker(url));
+        }
+    }
+
+    public int size() {
+        return workers.size();
+    }
+
+    /**
+     * Whether the given error indicates a problem with the worker rather than with the request or the cluster as a
+     * whole.
+     */
+    public static boolean isWorkerFailure(Throwable error) {
+        error = RetryPolicy.unwrap(error);
+        Classification classification = RetryPolicy.classify(error);
+        return classification == Classification.RETRYABLE_IF_IDEMPOTENT
+                || (classification == Classification.RETRYABLE && !(error instanceof KafkaConnectException));
+    }
+
+    /**
+     * Whether a request with the given method, which failed with the given error, may be sent to another worker.
+     */
+    public static boolean canFailOver(String method, Throwable error) {
+        return isWorkerFailure(error) && (RetryPolicy.classify(error) == Classification.RETRYABLE || RetryPolicy.isIdempotent(method));
+    }
+
+    /**
+     * Selects the worker for the next request, preferring healthy ones, and counts the request as outstanding until
+     * it is released.
+     *
+     * @param excluded the workers a request has been sent to already
+     * @return the index of the selected worker, or -1 if all are excluded
+     */
+    public synchronized int acquire(Set<Integer> excluded) {
+        long now = nanoTime.getAsLong();
+        int selected = -1;
+
+        // start at a rotating offset, so that workers with the same load are selected in turns
+        for (int i = 0; i < workers.size(); i++) {
+            int candidate = (next + i) % workers.size();
+            if (excluded.contains(candidate)) {
+                continue;
+            }
+
+            if (selected == -1 || isPreferable(workers.get(candidate), workers.get(selected), now)) {
+                selected = candidate;
+            }
+        }
+
+        if (selected != -1) {
+            next = (selected + 1) % workers.size();
+            workers.get(selected).outstanding++;
+        }
+
+        return selected;
+    }
+
+    /**
+     * Counts a request to the given worker as outstanding until it is released, e.g. if only that worker can
+     * execute it.
+     */
+    public synchronized void acquire(int worker) {
+        workers.get(worker).outstanding++;
+    }
+
+    public synchronized void release(int worker, Throwable error) {
+        Worker released = workers.get(worker);
+        released.outstanding--;
+        long now = nanoTime.getAsLong();
+
+        if (error == null || !isWorkerFailure(error)) {
+            released.consecutiveFailures = 0;
+
+            // a worker which was used while ejected, as there was no other, and succeeded is reinstated right away
+            if (released.isEjected(now)) {
+                released.ejectedUntil = now;
+                released.healthySince = now;
+            }
+            else if (released.ejections > 0 && now - released.healthySince >= getEjectionNanos(released.ejections - 1)) {
+                released.ejections--;
+                released.healthySince = now;
+            }
+
+            return;
+        }
+
+        released.consecutiveFailures++;
+        released.failures++;
+        released.healthySince = now;
+
+        if (released.consecutiveFailures >= FAILURE_THRESHOLD) {
+            released.ejectedUntil = now + getEjectionNanos(released.ejections);
+            released.healthySince = released.ejectedUntil;
+            released.ejections++;
+        }
+    }
+
+    private static long getEjectionNanos(int ejections) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.min(MAX_EJECTION_MS, INITIAL_EJECTION_MS << Math.min(ejections, 16)));
+    }
+
+    public URI getUrl(int worker) {
+        return workers.get(worker).url;
+    }
+
+    public synchronized boolean isHealthy(int worker) {
+        return !workers.get(worker).isEjected(nanoTime.getAsLong());
+    }
+
+    public synchronized int getOutstanding(int worker) {
+        return workers.get(worker).outstanding;
+    }
+
+    public synchronized long getFailures(int worker) {
+        return workers.get(worker).failures;
+    }
+
+    private static boolean isPreferable(Worker candidate, Worker selected, long now) {
+        boolean candidateEjected = candidate.isEjected(now);
+        boolean selectedEjected = selected.isEjected(now);
+
+        if (candidateEjected != selectedEjected) {
+            return !candidateEjected;
+        }
+        // if all workers are ejected, try the one which is going to be available first
+        if (candidateEjected) {
+            return candidate.ejectedUntil - selected.ejectedUntil < 0;
+        }
+
+        return candidate.outstanding < selected.outstanding;
+    }
+
+    private static class Worker {
+
+        private final URI url;
+        private int outstanding;
+        private int consecutiveFailures;
+        private int ejections;
+        private long ejectedUntil;
+        private long healthySince;
+        private long failures;
+
+        private Worker(URI url) {
+            this.url = url;
+        }
+
+        private boolean isEjected(long now) {
+            return ejections > 0 && now - ejectedUntil < 0;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.kcctl.service.RetryPolicy.Classification;
+
+/**
+ * Executes each request against one of the given clients of the workers of a cluster, as selected by a
+ * {@link LoadBalancer}. Configuration changes are sent to the leader directly, using the given clients which
+ * don't let other workers forward requests. If the leader isn't known yet or has changed, the workers are probed
+ * until one accepts the request.
+ */
+class LoadBalancingKafkaConnectApi extends ForwardingKafkaConnectApi {
+
+    private final List<KafkaConnectApi> workers;
+    private final List<KafkaConnectApi> leaderWorkers;
+    private final LoadBalancer balancer;
+    private final LeaderCache leaderCache;
+
+    LoadBalancingKafkaConnectApi(List<KafkaConnectApi> workers, LoadBalancer balancer) {
+        this(workers, null, balancer, null);
+    }
+
+    LoadBalancingKafkaConnectApi(List<KafkaConnectApi> workers, List<KafkaConnectApi> leaderWorkers, LoadBalancer balancer, LeaderCache leaderCache) {
+        this.workers = workers;
+        this.leaderWorkers = leaderWorkers;
+        this.balancer = balancer;
+        this.leaderCache = leaderCache;
+    }
+
+    @Override
+    protected <T> T execute(String method, Function<KafkaConnectApi, T> request) {
+        Set<Integer> tried = new HashSet<>();
+
+        while (true) {
+            int worker = balancer.acquire(tried);
+            try {
+                T result = request.apply(workers.get(worker));
+                balancer.release(worker, null);
+                return result;
+            }
+            catch (RuntimeException e) {
+                balancer.release(worker, e);
+                tried.add(worker);
+
+                if (tried.size() == workers.size() || !LoadBalancer.canFailOver(method, e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected <T> T executeOnLeader(String method, Function<KafkaConnectApi, T> request) {
+        if (leaderWorkers == null) {
+            return execute(method, request);
+        }
+
+        int leader = leaderCache.getLeader();
+        if (leader != -1) {
+            try {
+                T result = request.apply(acquire(leader));
+                balancer.release(leader, null);
+                return result;
+            }
+            catch (RuntimeException e) {
+                balancer.release(leader, e);
+                if (!isNotApplied(e)) {
+                    throw e;
+                }
+
+                leaderCache.invalidate(leader);
+            }
+        }
+
+        for (int worker : getProbingOrder(leader)) {
+            try {
+                T result = request.apply(acquire(worker));
+                balancer.release(worker, null);
+                leaderCache.setLeader(worker);
+                return result;
+            }
+            catch (RuntimeException e) {
+                balancer.release(worker, e);
+                if (!isNotApplied(e)) {
+                    throw e;
+                }
+            }
+        }
+
+        // no worker accepted the request as leader, e.g. during a rebalance, so let the cluster forward it
+        return execute(method, request);
+    }
+
+    private KafkaConnectApi acquire(int worker) {
+        balancer.acquire(worker);
+        return leaderWorkers.get(worker);
+    }
+
+    /**
+     * Whether the given error indicates that a request wasn't executed, either as the worker isn't the leader (which
+     * followers report just like a rebalance) or as it couldn't be reached.
+     */
+    private static boolean isNotApplied(RuntimeException e) {
+        return RetryPolicy.classify(e) == Classification.RETRYABLE;
+    }
+
+    private List<Integer> getProbingOrder(int excluded) {
+        List<Integer> healthy = new ArrayList<>();
+        List<Integer> ejected = new ArrayList<>();
+
+        for (int worker = 0; worker < leaderWorkers.size(); worker++) {
+            if (worker != excluded) {
+                (balancer.isHealthy(worker) ? healthy : ejected).add(worker);
+            }
+        }
+
+        healthy.addAll(ejected);
+        return healthy;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Executes each request against one of the given non-blocking clients of the workers of a cluster, as selected by a
+ * {@link LoadBalancer}.
+ */
+class LoadBalancingKafkaConnectAsyncApi extends ForwardingKafkaConnectAsyncApi {
+
+    private final List<KafkaConnectAsyncApi> workers;
+    private final LoadBalancer balancer;
+
+    LoadBalancingKafkaConnectAsyncApi(List<KafkaConnectAsyncApi> workers, LoadBalancer balancer) {
+        this.workers = workers;
+        this.balancer = balancer;
+    }
+
+    @Override
+    protected <T> CompletionStage<T> execute(String method, Function<KafkaConnectAsyncApi, CompletionStage<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(method, request, new HashSet<>(), result);
+        return result;
+    }
+
+    private <T> void execute(String method, Function<KafkaConnectAsyncApi, CompletionStage<T>> request, Set<Integer> tried,
+                             CompletableFuture<T> result) {
+        int worker = balancer.acquire(tried);
+
+        CompletionStage<T> stage;
+        try {
+            stage = request.apply(workers.get(worker));
+        }
+        catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+
+        stage.whenComplete((value, error) -> {
+            balancer.release(worker, error);
+
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            tried.add(worker);
+            if (tried.size() == workers.size() || !LoadBalancer.canFailOver(method, error)) {
+                result.completeExceptionally(error);
+            }
+            else {
+                execute(method, request, tried, result);
+            }
+        });
+    }
+}
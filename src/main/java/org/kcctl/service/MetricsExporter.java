@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the state of a cluster in the OpenMetrics text format. The metrics of the connectors and tasks are
+ * rendered whenever a new status snapshot is received from the {@link StatusWatcher}, so that the cost of a scrape
+ * doesn't depend on the size of the cluster and scrapes never cause requests to the cluster themselves.
+ */
+public class MetricsExporter implements StatusWatcher.Listener {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final ClientStatistics statistics;
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private volatile String clusterMetrics = "";
+    private volatile boolean up;
+    private volatile long lastRefreshMs;
+
+    /**
+     * @param statistics the statistics of the client used for refreshing, for exposing the request latencies; may
+     *            be {@code null}
+     */
+    public MetricsExporter(ClientStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public boolean onUpdate(Map<String, ConnectorStatusInfo> statuses, List<StateTransition> transitions, long nextPollMs) {
+        clusterMetrics = render(statuses);
+        lastRefreshMs = System.currentTimeMillis();
+        up = true;
+        return true;
+    }
+
+    /**
+     * Keeps the metrics of the previous snapshot, as the cluster itself is available.
+     */
+    @Override
+    public boolean onRebalance(KafkaConnectException e, long nextPollMs) {
+        return true;
+    }
+
+    /**
+     * Records a failed refresh, e.g. as the cluster isn't reachable; the metrics of the previous snapshot are kept.
+     */
+    public void onFailure(Exception e) {
+        refreshFailures.incrementAndGet();
+        up = false;
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+
+    /**
+     * Returns the current metrics.
+     */
+    public String scrape() {
+        StringBuilder metrics = new StringBuilder();
+
+        metrics.append("# TYPE kcctl_up gauge\n");
+        metrics.append("# HELP kcctl_up Whether the last refresh of the cluster state succeeded.\n");
+        metrics.append("kcctl_up ").append(up ? 1 : 0).append('\n');
+        metrics.append("# TYPE kcctl_last_refresh_timestamp_seconds gauge\n");
+        metrics.append("# HELP kcctl_last_refresh_timestamp_seconds Time of the last successful refresh of the cluster state.\n");
+        metrics.append("kcctl_last_refresh_timestamp_seconds ").append(String.format(Locale.ROOT, "%.3f", lastRefreshMs / 1000.0)).append('\n');
+        metrics.append("# TYPE kcctl_refresh_failures counter\n");
+        metrics.append("# HELP kcctl_refresh_failures Number of failed refreshes of the cluster state.\n");
+        metrics.append("kcctl_refresh_failures_total ").append(refreshFailures.get()).append('\n');
+
+        metrics.append(clusterMetrics);
+
+        if (statistics != null) {
+            metrics.append("# TYPE kcctl_rest_request_duration_seconds histogram\n");
+            metrics.append("# HELP kcctl_rest_request_duration_seconds Latency of the requests to the Kafka Connect REST API.\n");
+
+            for (Map.Entry<String, Map<String, LatencyHistogram>> byMethod : statistics.getLatencies().entrySet()) {
+                for (Map.Entry<String, LatencyHistogram> latency : byMethod.getValue().entrySet()) {
+                    String labels = "method=\"" + escape(byMethod.getKey()) + "\",outcome=\"" + escape(latency.getKey()) + "\"";
+                    long[] counts = latency.getValue().getCumulativeCounts();
+
+                    for (int i = 0; i < LatencyHistogram.BUCKETS.length; i++) {
+                        metrics.append("kcctl_rest_request_duration_seconds_bucket{").append(labels).append(",le=\"").append(format(LatencyHistogram.BUCKETS[i]))
+                                .append("\"} ").append(counts[i]).append('\n');
+                    }
+                    metrics.append("kcctl_rest_request_duration_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ").append(counts[counts.length - 1])
+                            .append('\n');
+                    metrics.append("kcctl_rest_request_duration_seconds_count{").append(labels).append("} ").append(counts[counts.length - 1]).append('\n');
+                    metrics.append("kcctl_rest_request_duration_seconds_sum{").append(labels).append("} ").append(format(latency.getValue().getSum()))
+                            .append('\n');
+                }
+            }
+        }
+
+        metrics.append("# EOF\n");
+        return metrics.toString();
+    }
+
+    static String render(Map<String, ConnectorStatusInfo> statuses) {
+        Map<String, Integer> connectors = new TreeMap<>();
+        Map<String, Integer> tasks = new TreeMap<>();
+        Map<String, Integer> failedTasks = new TreeMap<>();
+
+        for (Map.Entry<String, ConnectorStatusInfo> connector : statuses.entrySet()) {
+            ConnectorStatusInfo status = connector.getValue();
+            String type = status.type != null ? status.type : "unknown";
+
+            if (status.connector != null) {
+                connectors.merge(labels(status.connector.state, type, status.connector.worker_id), 1, Integer::sum);
+            }
+
+            int failed = 0;
+            if (status.tasks != null) {
+                for (TaskState task : status.tasks) {
+                    tasks.merge(labels(task.state, type, task.worker_id), 1, Integer::sum);
+                    if ("FAILED".equals(task.state)) {
+                        failed++;
+                    }
+                }
+            }
+
+            failedTasks.put("connector=\"" + escape(connector.getKey()) + "\"", failed);
+        }
+
+        StringBuilder metrics = new StringBuilder();
+        append(metrics, "kcctl_connectors", "Number of connectors by state, type and worker.", connectors);
+        append(metrics, "kcctl_tasks", "Number of tasks by state, type and worker.", tasks);
+        append(metrics, "kcctl_connector_failed_tasks", "Number of failed tasks of each connector.", failedTasks);
+
+        return metrics.toString();
+    }
+
+    private static void append(StringBuilder metrics, String name, String help, Map<String, Integer> values) {
+        metrics.append("# TYPE ").append(name).append(" gauge\n");
+        metrics.append("# HELP ").append(name).append(' ').append(help).append('\n');
+
+        for (Map.Entry<String, Integer> value : values.entrySet()) {
+            metrics.append(name).append('{').append(value.getKey()).append("} ").append(value.getValue()).append('\n');
+        }
+    }
+
+    private static String labels(String state, String type, String worker) {
+        return "state=\"" + escape(state) + "\",type=\"" + escape(type) + "\",worker=\"" + escape(worker) + "\"";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+}
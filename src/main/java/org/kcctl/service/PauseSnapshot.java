@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * The states of a set of connectors before pausing them, e.g. for the maintenance of a cluster. Resuming from the
+ * snapshot resumes exactly those connectors which weren't paused at the time it was taken.
+ */
+public class PauseSnapshot {
+
+    public static final String PAUSED = "PAUSED";
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.INDENT_OUTPUT, true)
+            .build();
+
+    public String context;
+    public URI cluster;
+    public String takenAt;
+    public Map<String, String> connectors = new TreeMap<>();
+
+    public static PauseSnapshot take(String context, URI cluster, ClusterSnapshot clusterSnapshot, Collection<String> connectorNames) {
+        PauseSnapshot snapshot = new PauseSnapshot();
+        snapshot.context = context;
+        snapshot.cluster = cluster;
+        snapshot.takenAt = Instant.now().toString();
+
+        for (String connectorName : connectorNames) {
+            ConnectorStatusInfo status = clusterSnapshot.getStatus(connectorName);
+            if (status == null) {
+                throw new IllegalArgumentException("The snapshot of the cluster contains no status for connector " + connectorName);
+            }
+
+            snapshot.connectors.put(connectorName, status.connector.state);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns the connectors which weren't paused when the snapshot was taken, i.e. those to pause and to resume
+     * later on.
+     */
+    public List<String> getUnpausedConnectors() {
+        List<String> unpaused = new ArrayList<>();
+
+        for (Map.Entry<String, String> connector : connectors.entrySet()) {
+            if (!PAUSED.equals(connector.getValue())) {
+                unpaused.add(connector.getKey());
+            }
+        }
+
+        return unpaused;
+    }
+
+    /**
+     * Returns the connectors which were in the given state when the snapshot was taken.
+     */
+    public List<String> getConnectors(String state) {
+        List<String> inState = new ArrayList<>();
+
+        for (Map.Entry<String, String> connector : connectors.entrySet()) {
+            if (state.equals(connector.getValue())) {
+                inState.add(connector.getKey());
+            }
+        }
+
+        return inState;
+    }
+
+    public static PauseSnapshot read(File file) throws IOException {
+        PauseSnapshot snapshot = OBJECT_MAPPER.readValue(file, PauseSnapshot.class);
+
+        if (snapshot.connectors == null) {
+            throw new IOException("No connectors found in snapshot " + file);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Writes the snapshot to the given file, which must not exist yet, so a snapshot can't be overwritten
+     * accidentally by pausing the already paused connectors again.
+     */
+    public void write(File file) throws IOException {
+        if (file.exists()) {
+            throw new IOException("Snapshot file " + file + " exists already");
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            OBJECT_MAPPER.writeValue(tempFile, this);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The failed connectors and tasks of a cluster to restart, as determined from one {@link ClusterSnapshot}.
+ */
+public class RestartPlan {
+
+    public static final String FAILED = "FAILED";
+
+    private final List<Restart> restarts;
+
+    private RestartPlan(List<Restart> restarts) {
+        this.restarts = Collections.unmodifiableList(restarts);
+    }
+
+    /**
+     * Plans the restart of all connectors and tasks in state FAILED in the given snapshot, which must include the
+     * connector status.
+     */
+    public static RestartPlan forFailed(ClusterSnapshot snapshot) {
+        List<Restart> restarts = new ArrayList<>();
+
+        for (String connector : snapshot.getConnectorNames()) {
+            ConnectorStatusInfo status = snapshot.getStatus(connector);
+            if (status == null) {
+                continue;
+            }
+
+            boolean connectorFailed = status.connector != null && FAILED.equals(status.connector.state);
+            List<Integer> failedTasks = status.tasks == null ? List.of()
+                    : status.tasks.stream()
+                            .filter(task -> FAILED.equals(task.state))
+                            .map(task -> task.id)
+                            .collect(Collectors.toList());
+
+            if (connectorFailed || !failedTasks.isEmpty()) {
+                restarts.add(new Restart(connector, connectorFailed, failedTasks));
+            }
+        }
+
+        return new RestartPlan(restarts);
+    }
+
+    public List<Restart> getRestarts() {
+        return restarts;
+    }
+
+    public int getConnectorCount() {
+        return (int) restarts.stream().filter(Restart::isConnectorFailed).count();
+    }
+
+    public int getTaskCount() {
+        return restarts.stream().mapToInt(r -> r.getFailedTasks().size()).sum();
+    }
+
+    public static class Restart {
+
+        private final String connector;
+        private final boolean connectorFailed;
+        private final List<Integer> failedTasks;
+
+        public Restart(String connector, boolean connectorFailed, List<Integer> failedTasks) {
+            this.connector = connector;
+            this.connectorFailed = connectorFailed;
+            this.failedTasks = failedTasks;
+        }
+
+        public String getConnector() {
+            return connector;
+        }
+
+        public boolean isConnectorFailed() {
+            return connectorFailed;
+        }
+
+        public List<Integer> getFailedTasks() {
+            return failedTasks;
+        }
+
+        /**
+         * Describes the instances to restart, e.g. "connector, tasks 0, 2".
+         */
+        public String getDescription() {
+            List<String> parts = new ArrayList<>();
+            if (connectorFailed) {
+                parts.add("connector");
+            }
+            if (!failedTasks.isEmpty()) {
+                parts.add((failedTasks.size() == 1 ? "task " : "tasks ") + failedTasks.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+            }
+
+            return String.join(", ", parts);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ProcessingException;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectTimeoutException;
+
+/**
+ * Decides whether failed requests against a Kafka Connect cluster are retried, and how long to wait in between.
+ * Requests which were rejected before being applied, e.g. during a rebalance or because no connection could be
+ * established, are retried regardless of their method. Requests which may have been applied, e.g. as the response
+ * timed out, are only retried if they are idempotent, so that a connector is never created or restarted twice.
+ * A retried deletion which fails as the connector doesn't exist is considered successful, as an earlier attempt
+ * whose response was lost may have deleted it.
+ * Retries back off exponentially with jitter, until the maximum number of retries or the timeout is reached.
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(200);
+
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    // set while a caller such as the WriteScheduler retries rejected writes itself
+    private static final ThreadLocal<Boolean> CALLER_HANDLES_REBALANCES = ThreadLocal.withInitial(() -> false);
+
+    public enum Classification {
+        /**
+         * The request failed permanently, e.g. as it was invalid or the connector doesn't exist.
+         */
+        FATAL,
+        /**
+         * The request was rejected without being applied and may be retried.
+         */
+        RETRYABLE,
+        /**
+         * The request may or may not have been applied, it may only be retried if it is idempotent.
+         */
+        RETRYABLE_IF_IDEMPOTENT
+    }
+
+    private final int maxRetries;
+    private final Duration timeout;
+    private final long initialBackoffMs;
+    private final Sleeper sleeper;
+
+    public RetryPolicy(int maxRetries, Duration timeout) {
+        this(maxRetries, timeout, DEFAULT_INITIAL_BACKOFF);
+    }
+
+    public RetryPolicy(int maxRetries, Duration timeout, Duration initialBackoff) {
+        this(maxRetries, timeout, initialBackoff, Sleeper.DEFAULT);
+    }
+
+    RetryPolicy(int maxRetries, Duration timeout, Duration initialBackoff, Sleeper sleeper) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("The number of retries must not be negative, but was " + maxRetries);
+        }
+
+        this.maxRetries = maxRetries;
+        this.timeout = timeout;
+        this.initialBackoffMs = Math.max(1, initialBackoff.toMillis());
+        this.sleeper = sleeper;
+    }
+
+    public static RetryPolicy forContext(Context context) {
+        return new RetryPolicy(
+                context.getMaxRetries() != null ? context.getMaxRetries() : DEFAULT_MAX_RETRIES,
+                context.getRetryTimeoutMs() != null ? Duration.ofMillis(context.getRetryTimeoutMs()) : DEFAULT_TIMEOUT);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Executes the given action with the given retry policy disabled for requests rejected during a rebalance, as
+     * the action retries those itself.
+     */
+    public static <T> T withRebalancesHandledByCaller(Supplier<T> action) {
+        boolean previous = CALLER_HANDLES_REBALANCES.get();
+        CALLER_HANDLES_REBALANCES.set(true);
+        try {
+            return action.get();
+        }
+        finally {
+            CALLER_HANDLES_REBALANCES.set(previous);
+        }
+    }
+
+    public static Classification classify(Throwable error) {
+        error = unwrap(error);
+
+        if (error instanceof KafkaConnectException) {
+            KafkaConnectException kce = (KafkaConnectException) error;
+            switch (kce.getErrorCode()) {
+                case HttpStatus.SC_CONFLICT:
+                    return WriteScheduler.isRebalance(kce) ? Classification.RETRYABLE : Classification.FATAL;
+                case HttpStatus.SC_REQUEST_TIMEOUT:
+                case 429: // too many requests
+                case HttpStatus.SC_BAD_GATEWAY:
+                case HttpStatus.SC_SERVICE_UNAVAILABLE:
+                case HttpStatus.SC_GATEWAY_TIMEOUT:
+                    return Classification.RETRYABLE_IF_IDEMPOTENT;
+                case HttpStatus.SC_INTERNAL_SERVER_ERROR:
+                    // the worker timed out waiting for the leader, e.g. during a rebalance
+                    String message = kce.getMessage() != null ? kce.getMessage() : "";
+                    return message.contains("timed out") ? Classification.RETRYABLE_IF_IDEMPOTENT : Classification.FATAL;
+                default:
+                    return Classification.FATAL;
+            }
+        }
+
+        if (error instanceof ProcessingException) {
+            Classification classification = Classification.FATAL;
+
+            for (Throwable cause = error.getCause(); cause != null; cause = cause.getCause()) {
+                // the request hasn't been sent
+                if (cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof ConnectTimeoutException) {
+                    return Classification.RETRYABLE;
+                }
+                // the connection failed while the request was sent or processed
+                if (cause instanceof IOException) {
+                    classification = Classification.RETRYABLE_IF_IDEMPOTENT;
+                }
+            }
+
+            return classification;
+        }
+
+        return Classification.FATAL;
+    }
+
+    public static boolean isIdempotent(String method) {
+        return !HttpMethod.POST.equals(method);
+    }
+
+    /**
+     * Whether a request with the given method, which failed with the given error, may be retried.
+     */
+    public boolean isRetryable(String method, Throwable error) {
+        return isRetryable(method, error, CALLER_HANDLES_REBALANCES.get());
+    }
+
+    private static boolean isRetryable(String method, Throwable error, boolean callerHandlesRebalances) {
+        switch (classify(error)) {
+            case RETRYABLE:
+                return !(callerHandlesRebalances && WriteScheduler.isRebalance((Exception) unwrap(error)));
+            case RETRYABLE_IF_IDEMPOTENT:
+                return isIdempotent(method);
+            default:
+                return false;
+        }
+    }
+
+    public <T> T execute(String method, Supplier<T> request) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean mayHaveBeenApplied = false;
+
+        for (int attempt = 0;; attempt++) {
+            try {
+                return request.get();
+            }
+            catch (RuntimeException e) {
+                if (isAlreadyDeleted(method, e, mayHaveBeenApplied)) {
+                    return null;
+                }
+
+                mayHaveBeenApplied |= classify(e) == Classification.RETRYABLE_IF_IDEMPOTENT;
+                long backoff = getBackoff(attempt, initialBackoffMs, MAX_BACKOFF_MS);
+                if (!shouldRetry(method, e, attempt, backoff, deadline, CALLER_HANDLES_REBALANCES.get())) {
+                    throw e;
+                }
+
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Executes the given non-blocking request, scheduling retries without blocking the calling thread.
+     */
+    public <T> CompletionStage<T> executeAsync(String method, Supplier<CompletionStage<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // retries are scheduled on other threads, which don't see the thread-local flag
+        attempt(method, request, 0, System.nanoTime() + timeout.toNanos(), CALLER_HANDLES_REBALANCES.get(), false, result);
+        return result;
+    }
+
+    private <T> void attempt(String method, Supplier<CompletionStage<T>> request, int attempt, long deadline, boolean callerHandlesRebalances,
+                             boolean mayHaveBeenApplied, CompletableFuture<T> result) {
+        CompletionStage<T> stage;
+        try {
+            stage = request.get();
+        }
+        catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+
+        stage.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            if (isAlreadyDeleted(method, error, mayHaveBeenApplied)) {
+                result.complete(null);
+                return;
+            }
+
+            boolean applied = mayHaveBeenApplied || classify(error) == Classification.RETRYABLE_IF_IDEMPOTENT;
+            long backoff = getBackoff(attempt, initialBackoffMs, MAX_BACKOFF_MS);
+            if (shouldRetry(method, error, attempt, backoff, deadline, callerHandlesRebalances)) {
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(method, request, attempt + 1, deadline, callerHandlesRebalances, applied, result));
+            }
+            else {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private boolean shouldRetry(String method, Throwable error, int attempt, long backoff, long deadline, boolean callerHandlesRebalances) {
+        return attempt < maxRetries && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) < deadline
+                && isRetryable(method, error, callerHandlesRebalances);
+    }
+
+    /**
+     * Whether the given error of a retried deletion indicates that an earlier attempt, which may have been applied
+     * before failing, deleted the resource already.
+     */
+    private static boolean isAlreadyDeleted(String method, Throwable error, boolean mayHaveBeenApplied) {
+        error = unwrap(error);
+
+        return mayHaveBeenApplied && HttpMethod.DELETE.equals(method) && error instanceof KafkaConnectException
+                && ((KafkaConnectException) error).getErrorCode() == HttpStatus.SC_NOT_FOUND;
+    }
+
+    private void sleep(long millis) {
+        try {
+            sleeper.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry a request", e);
+        }
+    }
+
+    /**
+     * Returns the backoff before the given retry, doubling per attempt up to the given maximum, of which a random
+     * part of up to one half is subtracted so that concurrent clients don't retry in lockstep.
+     */
+    static long getBackoff(int attempt, long initialBackoffMs, long maxBackoffMs) {
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt, 16));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+
+        return error;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+/**
+ * Pauses the current thread between polls or retries; replaced in tests so they don't actually wait.
+ */
+@FunctionalInterface
+public interface Sleeper {
+
+    Sleeper DEFAULT = Thread::sleep;
+
+    void sleep(long millis) throws InterruptedException;
+}
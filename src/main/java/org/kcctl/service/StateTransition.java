@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * A change of the state of a connector or task between two successive status snapshots of a cluster. Connectors
+ * and tasks which appear or disappear have no old or new state, respectively.
+ */
+public class StateTransition {
+
+    private final String connector;
+    private final Integer task;
+    private final String oldState;
+    private final String newState;
+    private final String workerId;
+    private final String trace;
+
+    public StateTransition(String connector, Integer task, String oldState, String newState, String workerId, String trace) {
+        this.connector = connector;
+        this.task = task;
+        this.oldState = oldState;
+        this.newState = newState;
+        this.workerId = workerId;
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the transitions between the given snapshots of connector statuses, ordered by connector name and task
+     * id; a connector's own transition comes before those of its tasks.
+     */
+    public static List<StateTransition> between(Map<String, ConnectorStatusInfo> previous, Map<String, ConnectorStatusInfo> current) {
+        List<StateTransition> transitions = new ArrayList<>();
+
+        TreeSet<String> names = new TreeSet<>(previous.keySet());
+        names.addAll(current.keySet());
+
+        for (String name : names) {
+            ConnectorStatusInfo before = previous.get(name);
+            ConnectorStatusInfo after = current.get(name);
+
+            String stateBefore = before != null && before.connector != null ? before.connector.state : null;
+            String stateAfter = after != null && after.connector != null ? after.connector.state : null;
+            if (!Objects.equals(stateBefore, stateAfter)) {
+                String workerId = after != null && after.connector != null ? after.connector.worker_id : null;
+                transitions.add(new StateTransition(name, null, stateBefore, stateAfter, workerId, null));
+            }
+
+            Map<Integer, TaskState> tasksBefore = tasksById(before);
+            Map<Integer, TaskState> tasksAfter = tasksById(after);
+
+            TreeSet<Integer> ids = new TreeSet<>(tasksBefore.keySet());
+            ids.addAll(tasksAfter.keySet());
+
+            for (Integer id : ids) {
+                TaskState taskBefore = tasksBefore.get(id);
+                TaskState taskAfter = tasksAfter.get(id);
+
+                String taskStateBefore = taskBefore != null ? taskBefore.state : null;
+                String taskStateAfter = taskAfter != null ? taskAfter.state : null;
+                if (!Objects.equals(taskStateBefore, taskStateAfter)) {
+                    transitions.add(new StateTransition(name, id, taskStateBefore, taskStateAfter,
+                            taskAfter != null ? taskAfter.worker_id : null, taskAfter != null ? taskAfter.trace : null));
+                }
+            }
+        }
+
+        return transitions;
+    }
+
+    private static Map<Integer, TaskState> tasksById(ConnectorStatusInfo status) {
+        if (status == null || status.tasks == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, TaskState> tasks = new HashMap<>();
+        for (TaskState task : status.tasks) {
+            tasks.put(task.id, task);
+        }
+
+        return tasks;
+    }
+
+    public String getConnector() {
+        return connector;
+    }
+
+    /**
+     * Returns the id of the task, or {@code null} if this is a transition of the connector itself.
+     */
+    public Integer getTask() {
+        return task;
+    }
+
+    public String getOldState() {
+        return oldState;
+    }
+
+    public String getNewState() {
+        return newState;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Returns the stack trace of a task in the new state, if any, e.g. if it has failed.
+     */
+    public String getTrace() {
+        return trace;
+    }
+
+    @Override
+    public String toString() {
+        return connector + (task != null ? " task " + task : "") + ": " + (oldState != null ? oldState : "-") + " -> " + (newState != null ? newState : "-");
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * A state transition of a connector or task, emitted as one JSON line. Failed tasks carry a hash of their stack
+ * trace rather than the trace itself, allowing to group failures with the same cause.
+ */
+@JsonInclude(Include.NON_NULL)
+public class StateTransitionEvent {
+
+    private static final int TRACE_HASH_LENGTH = 16;
+
+    public String time;
+    public String connector;
+    public Integer task;
+    public String old_state;
+    public String new_state;
+    public String worker_id;
+    public String trace_hash;
+
+    public StateTransitionEvent() {
+    }
+
+    public StateTransitionEvent(Instant time, StateTransition transition) {
+        this.time = time.toString();
+        this.connector = transition.getConnector();
+        this.task = transition.getTask();
+        this.old_state = transition.getOldState();
+        this.new_state = transition.getNewState();
+        this.worker_id = transition.getWorkerId();
+        this.trace_hash = transition.getTrace() != null ? hash(transition.getTrace()) : null;
+    }
+
+    static String hash(String trace) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(trace.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < TRACE_HASH_LENGTH / 2; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            // guaranteed to be available by the JDK
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.http.HttpStatus;
+import org.kcctl.service.FanOutExecutor.Result;
+
+/**
+ * Polls the status of all connectors of a cluster repeatedly, reporting the transitions between successive
+ * snapshots. Only the states of the previous snapshot are kept, so the memory use doesn't grow over time. The
+ * polling interval adapts to the activity of the cluster: it is reset to the minimum whenever something has changed
+ * and grows up to the maximum while nothing does. While the cluster rejects requests due to a rebalance, polling is
+ * paused with a growing interval as well.
+ */
+public class StatusWatcher {
+
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(10);
+
+    private final KafkaConnectApi kafkaConnectApi;
+    private final CapabilityRegistry capabilities;
+    private final FanOutExecutor executor;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final Sleeper sleeper;
+
+    public StatusWatcher(KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, FanOutExecutor executor, Duration minInterval, Duration maxInterval) {
+        this(kafkaConnectApi, capabilities, executor, minInterval, maxInterval, Sleeper.DEFAULT);
+    }
+
+    StatusWatcher(KafkaConnectApi kafkaConnectApi, CapabilityRegistry capabilities, FanOutExecutor executor, Duration minInterval, Duration maxInterval,
+                  Sleeper sleeper) {
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("The minimum interval must not be larger than the maximum interval");
+        }
+
+        this.kafkaConnectApi = kafkaConnectApi;
+        this.capabilities = capabilities;
+        this.executor = executor;
+        this.minIntervalMs = Math.max(1, minInterval.toMillis());
+        this.maxIntervalMs = Math.max(1, maxInterval.toMillis());
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Polls the cluster until the listener asks to stop or the current thread is interrupted.
+     */
+    public void watch(Listener listener) {
+        Map<String, ConnectorStatusInfo> previous = null;
+        long intervalMs = minIntervalMs;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean proceed;
+
+            try {
+                Map<String, ConnectorStatusInfo> current = poll();
+                List<StateTransition> transitions = previous != null ? StateTransition.between(previous, current) : Collections.emptyList();
+
+                intervalMs = previous == null || !transitions.isEmpty() ? minIntervalMs : Math.min(maxIntervalMs, intervalMs * 3 / 2);
+                proceed = listener.onUpdate(current, transitions, intervalMs);
+
+                // only the states are compared, the potentially large stack traces aren't needed any longer
+                removeTraces(current);
+                previous = current;
+            }
+            catch (KafkaConnectException e) {
+                if (!WriteScheduler.isRebalance(e)) {
+                    throw e;
+                }
+
+                intervalMs = Math.min(maxIntervalMs, intervalMs * 2);
+                proceed = listener.onRebalance(e, intervalMs);
+            }
+
+            if (!proceed) {
+                return;
+            }
+
+            sleep(intervalMs);
+        }
+    }
+
+    private static void removeTraces(Map<String, ConnectorStatusInfo> statuses) {
+        for (ConnectorStatusInfo status : statuses.values()) {
+            if (status.tasks != null) {
+                for (TaskState task : status.tasks) {
+                    task.trace = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the status of all connectors, ordered by name. Rebalances are reported rather than retried.
+     */
+    private Map<String, ConnectorStatusInfo> poll() {
+        Map<String, ConnectorStatusInfo> statuses = new TreeMap<>();
+
+        if (capabilities.supports(ClusterFeature.EXPAND_API)) {
+            Map<String, ConnectorExpandInfo> connectors = RetryPolicy.withRebalancesHandledByCaller(
+                    () -> kafkaConnectApi.getConnectorsExpanded(ConnectorExpandInfo.STATUS));
+
+            for (Map.Entry<String, ConnectorExpandInfo> connector : connectors.entrySet()) {
+                statuses.put(connector.getKey(), connector.getValue().status);
+            }
+
+            return statuses;
+        }
+
+        List<String> names = RetryPolicy.withRebalancesHandledByCaller(kafkaConnectApi::getConnectors);
+        List<Result<String, ConnectorStatusInfo>> results = executor.execute(new ArrayList<>(names),
+                name -> RetryPolicy.withRebalancesHandledByCaller(() -> kafkaConnectApi.getConnectorStatus(name)));
+
+        for (Result<String, ConnectorStatusInfo> result : results) {
+            if (result.isSuccessful()) {
+                statuses.put(result.getItem(), result.getValue());
+            }
+            // connectors deleted after the listing are gone
+            else if (!(result.getError() instanceof KafkaConnectException)
+                    || ((KafkaConnectException) result.getError()).getErrorCode() != HttpStatus.SC_NOT_FOUND) {
+                throw result.getError();
+            }
+        }
+
+        return statuses;
+    }
+
+    private void sleep(long millis) {
+        try {
+            sleeper.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public interface Listener {
+
+        /**
+         * Invoked with each new snapshot and the transitions since the previous one; there are none for the first
+         * snapshot. The stack traces of failed tasks are only available during the invocation.
+         *
+         * @param nextPollMs the time until the next poll
+         * @return whether to continue watching
+         */
+        boolean onUpdate(Map<String, ConnectorStatusInfo> statuses, List<StateTransition> transitions, long nextPollMs);
+
+        /**
+         * Invoked if the cluster rejected the poll due to a rebalance.
+         *
+         * @param nextPollMs the time until the next poll
+         * @return whether to continue watching
+         */
+        boolean onRebalance(KafkaConnectException e, long nextPollMs);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The changes needed for converging the connectors of a cluster to a desired state. Creates and updates come
+ * first, in the order of the desired connectors; deletes, which are only planned if requested, come last.
+ */
+public class SyncPlan {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        UNCHANGED,
+        DELETE
+    }
+
+    private final List<Change> changes;
+    private final List<String> unmanaged;
+
+    private SyncPlan(List<Change> changes, List<String> unmanaged) {
+        this.changes = Collections.unmodifiableList(changes);
+        this.unmanaged = Collections.unmodifiableList(unmanaged);
+    }
+
+    /**
+     * Computes the plan for the given desired connectors, keyed by name. Connectors existing in the cluster but
+     * not desired are deleted if {@code prune} is set, and reported as unmanaged otherwise.
+     */
+    public static SyncPlan compute(Map<String, Map<String, Object>> desired, ClusterSnapshot snapshot, boolean prune) {
+        List<Change> changes = new ArrayList<>();
+        List<String> unmanaged = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Object>> connector : desired.entrySet()) {
+            String name = connector.getKey();
+
+            if (!snapshot.contains(name)) {
+                changes.add(new Change(name, Action.CREATE, connector.getValue(), ConnectorConfigs.normalize(connector.getValue(), name).keySet()));
+            }
+            else {
+                Set<String> changed = ConnectorConfigs.getChangedProperties(connector.getValue(), snapshot.getConfig(name), name);
+                changes.add(new Change(name, changed.isEmpty() ? Action.UNCHANGED : Action.UPDATE, connector.getValue(), changed));
+            }
+        }
+
+        for (String name : snapshot.getConnectorNames()) {
+            if (!desired.containsKey(name)) {
+                if (prune) {
+                    changes.add(new Change(name, Action.DELETE, null, Set.of()));
+                }
+                else {
+                    unmanaged.add(name);
+                }
+            }
+        }
+
+        return new SyncPlan(changes, unmanaged);
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public List<Change> getChanges(Action action) {
+        return changes.stream()
+                .filter(c -> c.action == action)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the number of planned changes per action, in the order of the actions.
+     */
+    public Map<Action, Integer> getCounts() {
+        Map<Action, Integer> counts = new LinkedHashMap<>();
+        for (Action action : Action.values()) {
+            counts.put(action, 0);
+        }
+        for (Change change : changes) {
+            counts.merge(change.action, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public boolean hasChanges() {
+        return changes.stream().anyMatch(c -> c.action != Action.UNCHANGED);
+    }
+
+    /**
+     * Returns the connectors which exist in the cluster without being desired, if they are not to be deleted.
+     */
+    public List<String> getUnmanaged() {
+        return unmanaged;
+    }
+
+    public static class Change {
+
+        private final String connector;
+        private final Action action;
+        private final Map<String, Object> config;
+        private final Set<String> changedProperties;
+
+        public Change(String connector, Action action, Map<String, Object> config, Set<String> changedProperties) {
+            this.connector = connector;
+            this.action = action;
+            this.config = config;
+            this.changedProperties = changedProperties;
+        }
+
+        public String getConnector() {
+            return connector;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        /**
+         * Returns the desired configuration, or {@code null} for deletes.
+         */
+        public Map<String, Object> getConfig() {
+            return config;
+        }
+
+        public Set<String> getChangedProperties() {
+            return changedProperties;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+import org.kcctl.util.Timings;
+
+/**
+ * Records the method, path, status, response size and latency of each request with the {@link Timings} of the thread
+ * sending it, if enabled. A request is recorded once its response body has been read completely. Requests failing
+ * without a response are recorded with their error by the client wrappers via {@link #startAttempt()} and
+ * {@link #failed(Attempt, Throwable)}.
+ */
+public class TimingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String ATTEMPT_PROPERTY = "org.kcctl.timings.attempt";
+
+    private final Timings timings;
+    private final ThreadLocal<Attempt> currentAttempt = new ThreadLocal<>();
+
+    public TimingFilter(Timings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * Starts an attempt of sending a request from the current thread, returning {@code null} if nothing is recorded.
+     * The attempt must be ended via {@link #endAttempt(Attempt)} once the request has been sent or submitted.
+     */
+    Attempt startAttempt() {
+        Timings.Recording recording = timings.getRecording();
+        if (recording == null) {
+            return null;
+        }
+
+        Attempt attempt = new Attempt(recording);
+        currentAttempt.set(attempt);
+        return attempt;
+    }
+
+    void endAttempt(Attempt attempt) {
+        if (attempt != null) {
+            currentAttempt.remove();
+        }
+    }
+
+    /**
+     * Records the given attempt as failed, unless a response was received for it.
+     */
+    void failed(Attempt attempt, Throwable error) {
+        if (attempt == null || attempt.responded || attempt.startNanos == 0) {
+            return;
+        }
+
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        attempt.recording.recordRequest(Timings.Request.failed(attempt.method, attempt.worker, attempt.path, attempt.startNanos, System.nanoTime(), message));
+    }
+
+    /**
+     * Returns a task executing the given one within the recording and attempt of the current thread, for passing it
+     * on to the pooled threads sending asynchronous requests.
+     */
+    Runnable propagate(Runnable task) {
+        Attempt attempt = currentAttempt.get();
+        Runnable propagated = timings.propagate(task);
+
+        return () -> {
+            currentAttempt.set(attempt);
+            try {
+                propagated.run();
+            }
+            finally {
+                currentAttempt.remove();
+            }
+        };
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        Attempt attempt = currentAttempt.get();
+        if (attempt == null) {
+            Timings.Recording recording = timings.getRecording();
+            if (recording == null) {
+                return;
+            }
+            attempt = new Attempt(recording);
+        }
+
+        URI uri = requestContext.getUri();
+        attempt.method = requestContext.getMethod();
+        attempt.worker = uri.getScheme() + "://" + uri.getRawAuthority();
+        attempt.path = uri.getRawQuery() != null ? uri.getRawPath() + "?" + uri.getRawQuery() : uri.getRawPath();
+        attempt.startNanos = System.nanoTime();
+
+        requestContext.setProperty(ATTEMPT_PROPERTY, attempt);
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        long headersNanos = System.nanoTime();
+
+        Object property = requestContext.getProperty(ATTEMPT_PROPERTY);
+        if (!(property instanceof Attempt)) {
+            return;
+        }
+
+        Attempt attempt = (Attempt) property;
+        attempt.responded = true;
+
+        RecordingInputStream recording = new RecordingInputStream(responseContext.hasEntity() ? responseContext.getEntityStream() : InputStream.nullInputStream(),
+                attempt, responseContext.getStatus(), headersNanos);
+
+        if (responseContext.hasEntity()) {
+            responseContext.setEntityStream(recording);
+        }
+        else {
+            recording.complete();
+        }
+    }
+
+    /**
+     * A request sent while recording timings; its details are set once it has passed the request filter.
+     */
+    static class Attempt {
+
+        private final Timings.Recording recording;
+        private volatile String method;
+        private volatile String worker;
+        private volatile String path;
+        private volatile long startNanos;
+        private volatile boolean responded;
+
+        private Attempt(Timings.Recording recording) {
+            this.recording = recording;
+        }
+    }
+
+    private static class RecordingInputStream extends FilterInputStream {
+
+        private final Attempt attempt;
+        private final int status;
+        private final long headersNanos;
+        private long bytes;
+        private boolean completed;
+
+        private RecordingInputStream(InputStream in, Attempt attempt, int status, long headersNanos) {
+            super(in);
+            this.attempt = attempt;
+            this.status = status;
+            this.headersNanos = headersNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read == -1) {
+                complete();
+            }
+            else {
+                bytes++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                complete();
+            }
+            else {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            complete();
+            super.close();
+        }
+
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                attempt.recording.recordRequest(new Timings.Request(attempt.method, attempt.worker, attempt.path, status, bytes, attempt.startNanos,
+                        headersNanos, System.nanoTime()));
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.http.HttpStatus;
+
+/**
+ * Paces write requests against a Kafka Connect cluster. Each configuration change may cause the workers to
+ * rebalance, during which further writes are rejected with 409 responses. Using additive increase/multiplicative
+ * decrease, the number of concurrent writes is halved upon such a response and grows by one again per window of
+ * successful writes; rejected writes are retried with exponential backoff until a timeout.
+ */
+public class WriteScheduler {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private final int maxConcurrency;
+    private final Duration timeout;
+    private final Sleeper sleeper;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double window;
+    private int inFlight;
+    private long lastDecrease;
+    private int minWindow;
+    private boolean started;
+    private long firstStart;
+    private long lastEnd;
+    private long writes;
+    private long rejected;
+
+    public WriteScheduler(int maxConcurrency) {
+        this(maxConcurrency, DEFAULT_TIMEOUT);
+    }
+
+    public WriteScheduler(int maxConcurrency, Duration timeout) {
+        this(maxConcurrency, timeout, Sleeper.DEFAULT);
+    }
+
+    WriteScheduler(int maxConcurrency, Duration timeout, Sleeper sleeper) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1, but was " + maxConcurrency);
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+        this.sleeper = sleeper;
+        this.window = maxConcurrency;
+        this.minWindow = maxConcurrency;
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * Whether the given exception indicates that the cluster rejected a request as it is rebalancing or about to,
+     * i.e. that the request may succeed when retried later on.
+     */
+    public static boolean isRebalance(Exception e) {
+        if (!(e instanceof KafkaConnectException) || ((KafkaConnectException) e).getErrorCode() != HttpStatus.SC_CONFLICT) {
+            return false;
+        }
+
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        return message.contains("rebalance") || message.contains("stale configuration") || message.contains("conflicting operation");
+    }
+
+    public void execute(Runnable write) {
+        execute(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executes the given request once a slot is available, retrying it while the cluster is rebalancing.
+     */
+    public <T> T execute(Supplier<T> write) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int attempt = 0;
+
+        while (true) {
+            long start = acquire();
+            try {
+                // rejected writes are retried here rather than by the client, so that they reduce the concurrency
+                T result = RetryPolicy.withRebalancesHandledByCaller(write);
+                succeeded();
+                return result;
+            }
+            catch (KafkaConnectException e) {
+                if (!isRebalance(e) || System.nanoTime() >= deadline) {
+                    throw e;
+                }
+
+                congested(start);
+            }
+            finally {
+                release();
+            }
+
+            sleep(RetryPolicy.getBackoff(attempt++, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS));
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            sleeper.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the cluster to rebalance", e);
+        }
+    }
+
+    private long acquire() {
+        lock.lock();
+        try {
+            while (inFlight >= (int) window) {
+                available.await();
+            }
+
+            inFlight++;
+            long now = System.nanoTime();
+            if (!started) {
+                started = true;
+                firstStart = now;
+            }
+
+            return now;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a write slot", e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void succeeded() {
+        lock.lock();
+        try {
+            writes++;
+            lastEnd = System.nanoTime();
+            window = Math.min(maxConcurrency, window + 1 / window);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void congested(long start) {
+        lock.lock();
+        try {
+            rejected++;
+
+            // only requests sent after the last decrease trigger another one, so that one rebalance rejecting many
+            // concurrent requests halves the window just once
+            if (start > lastDecrease) {
+                window = Math.max(1, window / 2);
+                minWindow = Math.min(minWindow, (int) window);
+                lastDecrease = System.nanoTime();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWrites() {
+        lock.lock();
+        try {
+            return writes;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of write attempts rejected by the cluster while rebalancing.
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getConcurrency() {
+        lock.lock();
+        try {
+            return (int) window;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMinConcurrency() {
+        lock.lock();
+        try {
+            return minWindow;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the successful writes per second, between the start of the first and the end of the last one.
+     */
+    public double getThroughput() {
+        lock.lock();
+        try {
+            long elapsed = lastEnd - firstStart;
+            return writes == 0 || elapsed <= 0 ? 0 : writes / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public String getSummary() {
+        String summary = String.format("%d writes at %.1f writes/s", getWrites(), getThroughput());
+
+        long rejected = getRejected();
+        if (rejected > 0) {
+            summary += String.format(", %d rejected during rebalances and retried, concurrency reduced down to %d of %d", rejected, getMinConcurrency(),
+                    maxConcurrency);
+        }
+
+        return summary;
+    }
+}
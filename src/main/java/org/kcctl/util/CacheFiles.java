@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads and writes the JSON files in the kcctl cache directory. Caching is best effort: files which can't be read
+ * are treated as missing, and failures to write them are ignored.
+ */
+public class CacheFiles {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .build();
+
+    private CacheFiles() {
+    }
+
+    public static <T> T read(File cacheFile, Class<T> type) {
+        if (!cacheFile.exists()) {
+            return null;
+        }
+
+        try {
+            return OBJECT_MAPPER.readValue(cacheFile, type);
+        }
+        catch (IOException e) {
+            // a broken cache file is ignored and overwritten with fresh data
+            return null;
+        }
+    }
+
+    public static void write(File cacheFile, Object value) {
+        try {
+            Files.createDirectories(cacheFile.getParentFile().toPath());
+
+            // write to a temporary file first, so concurrent kcctl invocations never see a partially written file
+            File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            try {
+                OBJECT_MAPPER.writeValue(tempFile, value);
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+        catch (IOException e) {
+            // the data will be retrieved again next time
+        }
+    }
+}
@@ -17,10 +17,12 @@ package org.kcctl.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 import org.kcctl.service.Configuration;
 import org.kcctl.service.Context;
@@ -33,8 +35,16 @@ import com.fasterxml.jackson.databind.json.JsonMapper;
 @ApplicationScoped
 public class ConfigurationContext {
     private static final String CONFIG_FILE = ".kcctl";
+    private static final String CACHE_DIRECTORY = ".kcctl-cache";
     private final File configFile;
+    private final File cacheDirectory;
     private final ObjectMapper objectMapper;
+    private Configuration configuration;
+    private boolean loaded;
+    private long loadedLastModified;
+
+    @Inject
+    Timings timings;
 
     public ConfigurationContext() {
         this(new File(System.getProperty("user.home")));
@@ -42,6 +52,7 @@ public class ConfigurationContext {
 
     public ConfigurationContext(File configDirectory) {
         this.configFile = new File(configDirectory, CONFIG_FILE);
+        this.cacheDirectory = new File(configDirectory, CACHE_DIRECTORY);
         this.objectMapper = JsonMapper
                 .builder()
                 .serializationInclusion(JsonInclude.Include.NON_NULL)
@@ -62,14 +73,12 @@ public class ConfigurationContext {
     }
 
     public Context getContext(String contextName) {
-        if (!configFile.exists()) {
-            warnAboutMissingConfigFile();
+        var configuration = getConfiguration();
 
+        if (configuration == null) {
             return Context.defaultContext();
         }
 
-        var configuration = tryReadConfiguration();
-
         return configuration.configurationContexts().get(contextName);
     }
 
@@ -79,38 +88,32 @@ public class ConfigurationContext {
     }
 
     public Map<String, Context> getContexts() {
-        Map<String, Context> contexts = new LinkedHashMap<>();
-        if (!configFile.exists()) {
-            warnAboutMissingConfigFile();
+        var configuration = getConfiguration();
 
-            return contexts;
+        if (configuration == null) {
+            return new LinkedHashMap<>();
         }
 
-        var configuration = tryReadConfiguration();
-        return configuration.configurationContexts();
+        return Collections.unmodifiableMap(configuration.configurationContexts());
     }
 
     public Context getCurrentContext() {
-        if (!configFile.exists()) {
-            warnAboutMissingConfigFile();
+        var configuration = getConfiguration();
 
+        if (configuration == null) {
             return Context.defaultContext();
         }
 
-        var configuration = tryReadConfiguration();
-
         return configuration.configurationContexts().get(configuration.getCurrentContext());
     }
 
     public String getCurrentContextName() {
-        if (!configFile.exists()) {
-            warnAboutMissingConfigFile();
+        var configuration = getConfiguration();
 
+        if (configuration == null) {
             return "";
         }
 
-        var configuration = tryReadConfiguration();
-
         return configuration.getCurrentContext();
     }
 
@@ -133,6 +136,56 @@ public class ConfigurationContext {
         return true;
     }
 
+    /**
+     * Returns the directory for data cached on behalf of the given context, e.g. information about the cluster. The
+     * directory may not exist yet.
+     */
+    public File getCacheDirectory(String contextName) {
+        return new File(cacheDirectory, contextName);
+    }
+
+    /**
+     * Returns the configuration as read from the configuration file, or {@code null} if there is no such file. The
+     * file is read only once; the returned instance must not be modified, as it is shared by all callers until
+     * kcctl itself changes the configuration.
+     */
+    private synchronized Configuration getConfiguration() {
+        if (!loaded) {
+            long start = System.nanoTime();
+            loadedLastModified = configFile.lastModified();
+
+            if (configFile.exists()) {
+                configuration = tryReadConfiguration();
+            }
+            else {
+                warnAboutMissingConfigFile();
+            }
+
+            loaded = true;
+
+            if (timings != null) {
+                timings.recordPhase(Timings.CONFIG_LOAD, System.nanoTime() - start);
+            }
+        }
+
+        return configuration;
+    }
+
+    /**
+     * Drops the cached configuration if the configuration file has been changed by another process since it was
+     * read. Only needed by long-running processes like the daemon.
+     */
+    public synchronized void reloadIfChanged() {
+        if (loaded && configFile.lastModified() != loadedLastModified) {
+            invalidate();
+        }
+    }
+
+    private synchronized void invalidate() {
+        configuration = null;
+        loaded = false;
+    }
+
     private Configuration tryReadConfiguration() {
         try {
             return objectMapper.readValue(configFile, Configuration.class);
@@ -148,6 +201,7 @@ public class ConfigurationContext {
     private void tryWriteConfiguration(Configuration configuration) {
         try {
             objectMapper.writeValue(configFile, configuration);
+            invalidate();
         }
         catch (IOException e) {
             throw new RuntimeException("Couldn't write configuration file " + configFile + ". If you are using the legacy," +
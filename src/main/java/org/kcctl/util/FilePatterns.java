@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Expands directories and glob patterns such as {@code connectors/*.json} or {@code connectors/**.json} given for
+ * options taking multiple files.
+ */
+public class FilePatterns {
+
+    private FilePatterns() {
+    }
+
+    public static boolean isPattern(String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('[') >= 0 || path.indexOf('{') >= 0;
+    }
+
+    /**
+     * Returns the given files, with directories replaced by the files with the given extension they contain and
+     * patterns replaced by the files matching them, each in alphabetical order. Other files are returned as given,
+     * whether they exist or not.
+     */
+    public static List<File> expand(List<File> files, String extension) throws IOException {
+        Set<File> expanded = new LinkedHashSet<>();
+
+        for (File file : files) {
+            if (isPattern(file.getPath())) {
+                expanded.addAll(expandPattern(file.getAbsoluteFile().toPath()));
+            }
+            else if (file.isDirectory()) {
+                try (Stream<Path> children = Files.list(file.toPath())) {
+                    expanded.addAll(children
+                            .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(extension))
+                            .sorted()
+                            .map(Path::toFile)
+                            .collect(Collectors.toList()));
+                }
+            }
+            else {
+                expanded.add(file);
+            }
+        }
+
+        return new ArrayList<>(expanded);
+    }
+
+    private static List<File> expandPattern(Path pattern) throws IOException {
+        Path base = pattern.getRoot();
+        int firstPatternElement = 0;
+        while (firstPatternElement < pattern.getNameCount() && !isPattern(pattern.getName(firstPatternElement).toString())) {
+            base = base.resolve(pattern.getName(firstPatternElement));
+            firstPatternElement++;
+        }
+
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+
+        Path relativePattern = pattern.subpath(firstPatternElement, pattern.getNameCount());
+        String glob = relativePattern.toString().replace(File.separatorChar, '/');
+        int maxDepth = glob.contains("**") ? Integer.MAX_VALUE : relativePattern.getNameCount();
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+        Path root = base;
+        try (Stream<Path> candidates = Files.walk(root, maxDepth)) {
+            return candidates
+                    .filter(p -> Files.isRegularFile(p) && matcher.matches(root.relativize(p)))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which reads from an exchangeable source per thread, falling back to a default stream while no
+ * source is set for the current thread. Installed as {@link System#in}, this allows concurrently executed commands
+ * to read their own input. Threads inherit the source of the thread starting them.
+ */
+public class RoutingInputStream extends InputStream {
+
+    private final InputStream fallback;
+    private final ThreadLocal<InputStream> threadSource = new InheritableThreadLocal<>();
+
+    public RoutingInputStream(InputStream fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Lets the current thread read from the given stream, or from the fallback stream again if {@code null} is
+     * given.
+     */
+    public void routeCurrentThread(InputStream source) {
+        if (source != null) {
+            threadSource.set(source);
+        }
+        else {
+            threadSource.remove();
+        }
+    }
+
+    public InputStream getFallback() {
+        return fallback;
+    }
+
+    private InputStream current() {
+        InputStream current = threadSource.get();
+        return current != null ? current : fallback;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return current().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return current().read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return current().available();
+    }
+}
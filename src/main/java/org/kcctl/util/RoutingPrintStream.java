@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * A print stream which forwards everything written to it to an exchangeable target, falling back to a default
+ * stream while no target is set. Installed as {@link System#out} or {@link System#err}, this allows to capture
+ * the output of code that has obtained a reference to the standard streams beforehand. Targets can be set for the
+ * process as a whole or for single threads, the latter taking precedence. Threads inherit the target of the thread
+ * starting them, so that the output of helper threads is captured along with that of the command using them.
+ */
+public class RoutingPrintStream extends PrintStream {
+
+    private final Router router;
+
+    public RoutingPrintStream(PrintStream fallback) {
+        this(new Router(fallback));
+    }
+
+    private RoutingPrintStream(Router router) {
+        super(router, true);
+        this.router = router;
+    }
+
+    /**
+     * Routes all subsequent output to the given stream, or back to the fallback stream if {@code null} is given.
+     */
+    public void route(PrintStream target) {
+        flush();
+        router.target = target;
+    }
+
+    /**
+     * Routes all subsequent output of the current thread to the given stream, or back to the stream used by all
+     * other threads if {@code null} is given. Returns the stream the current thread was routed to before, if any.
+     */
+    public PrintStream routeCurrentThread(PrintStream target) {
+        flush();
+
+        PrintStream previous = router.threadTarget.get();
+        if (target != null) {
+            router.threadTarget.set(target);
+        }
+        else {
+            router.threadTarget.remove();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Whether writing to the current target failed, e.g. as the stream it writes to has been closed.
+     */
+    @Override
+    public boolean checkError() {
+        return super.checkError() || router.current().checkError();
+    }
+
+    public PrintStream getFallback() {
+        return router.fallback;
+    }
+
+    private static class Router extends OutputStream {
+
+        private final PrintStream fallback;
+        private final ThreadLocal<PrintStream> threadTarget = new InheritableThreadLocal<>();
+        private volatile PrintStream target;
+
+        private Router(PrintStream fallback) {
+            this.fallback = fallback;
+        }
+
+        private PrintStream current() {
+            PrintStream current = threadTarget.get();
+            if (current != null) {
+                return current;
+            }
+
+            current = target;
+            return current != null ? current : fallback;
+        }
+
+        @Override
+        public void write(int b) {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
@@ -17,6 +17,8 @@ package org.kcctl.util;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class Strings {
@@ -48,4 +50,65 @@ public class Strings {
             }
         }
     }
+
+    /**
+     * Splits the given command line into arguments like a POSIX shell does, honoring single and double quotes as
+     * well as backslash escapes. Neither variables nor globs are expanded.
+     */
+    public static List<String> splitArguments(String commandLine) {
+        List<String> arguments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+
+        for (int i = 0; i < commandLine.length(); i++) {
+            char c = commandLine.charAt(i);
+
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                }
+                else {
+                    current.append(c);
+                }
+            }
+            else if (c == '\\' && i + 1 < commandLine.length() && (quote == 0 || "\"\\$`".indexOf(commandLine.charAt(i + 1)) >= 0)) {
+                current.append(commandLine.charAt(++i));
+                inArgument = true;
+            }
+            else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                }
+                else {
+                    current.append(c);
+                }
+            }
+            else if (c == '\'' || c == '"') {
+                quote = c;
+                inArgument = true;
+            }
+            else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            }
+            else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated quote in: " + commandLine);
+        }
+
+        if (inArgument) {
+            arguments.add(current.toString());
+        }
+
+        return arguments;
+    }
 }
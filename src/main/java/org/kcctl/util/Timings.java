@@ -0,0 +1,328 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Collects the durations of the phases of a command and of the requests it sends to the cluster. Nothing is recorded
+ * unless enabled via {@link #start()}, i.e. when running a command with {@code --timings}. Recordings are scoped to
+ * the thread executing the command and the threads it starts, so that commands executed concurrently, e.g. within
+ * the daemon or a batch, don't interfere with each other.
+ */
+@ApplicationScoped
+public class Timings {
+
+    public static final String STARTUP = "startup";
+    public static final String CONFIG_LOAD = "config load";
+    public static final String CLIENT_BUILD = "client build";
+    public static final String REQUESTS = "requests";
+    public static final String RENDER = "render";
+    public static final String TOTAL = "total";
+
+    // bounds the memory used by long-running commands such as "events"
+    static final int MAX_REQUESTS = 10_000;
+
+    private final ThreadLocal<Recording> current = new InheritableThreadLocal<>();
+
+    /**
+     * Starts recording the timings of the command executed by the current thread.
+     */
+    public void start() {
+        current.set(new Recording(current.get()));
+    }
+
+    public boolean isEnabled() {
+        return current.get() != null;
+    }
+
+    /**
+     * Returns the recording of the current thread, or {@code null} if nothing is recorded.
+     */
+    public Recording getRecording() {
+        return current.get();
+    }
+
+    public void recordPhase(String phase, long nanos) {
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.recordPhase(phase, nanos);
+        }
+    }
+
+    public void recordRequest(Request request) {
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.recordRequest(request);
+        }
+    }
+
+    /**
+     * Stops the recording of the current thread and returns the timings recorded since {@link #start()}, resuming
+     * the recording of an enclosing command, if any.
+     */
+    public Report stop() {
+        Recording recording = current.get();
+        if (recording == null) {
+            throw new IllegalStateException("No timings are recorded by the current thread");
+        }
+
+        if (recording.enclosing != null) {
+            current.set(recording.enclosing);
+        }
+        else {
+            current.remove();
+        }
+
+        return recording.stop();
+    }
+
+    /**
+     * Returns a task executing the given one within the recording of the current thread, for passing it on to a
+     * pooled thread, which doesn't inherit the recording.
+     */
+    public Runnable propagate(Runnable task) {
+        Recording recording = current.get();
+
+        return () -> {
+            Recording previous = current.get();
+            current.set(recording);
+            try {
+                task.run();
+            }
+            finally {
+                current.set(previous);
+            }
+        };
+    }
+
+    public static class Recording {
+
+        private final Recording enclosing;
+        private final Map<String, Long> phases = new LinkedHashMap<>();
+        private final List<Request> requests = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        private int droppedRequests;
+
+        private Recording(Recording enclosing) {
+            this.enclosing = enclosing;
+        }
+
+        public synchronized void recordPhase(String phase, long nanos) {
+            phases.merge(phase, nanos, Long::sum);
+        }
+
+        public synchronized void recordRequest(Request request) {
+            if (requests.size() < MAX_REQUESTS) {
+                requests.add(request);
+            }
+            else {
+                droppedRequests++;
+            }
+        }
+
+        /**
+         * Besides the recorded phases, the report contains the time from the first request until the last response
+         * ("requests"), the time after the last response until the command completed, which is mostly spent
+         * formatting and printing the output ("render"), and the overall time of the command ("total").
+         */
+        private synchronized Report stop() {
+            long endNanos = System.nanoTime();
+
+            List<Request> sorted = new ArrayList<>(requests);
+            sorted.sort(Comparator.comparingLong(Request::getStartNanos));
+
+            Map<String, Long> reported = new LinkedHashMap<>();
+            for (String phase : List.of(STARTUP, CONFIG_LOAD, CLIENT_BUILD)) {
+                if (phases.containsKey(phase)) {
+                    reported.put(phase, phases.get(phase));
+                }
+            }
+
+            if (sorted.isEmpty()) {
+                long other = reported.getOrDefault(CONFIG_LOAD, 0L) + reported.getOrDefault(CLIENT_BUILD, 0L);
+                reported.put(RENDER, Math.max(0, endNanos - startNanos - other));
+            }
+            else {
+                long lastEndNanos = sorted.stream().mapToLong(Request::getEndNanos).max().getAsLong();
+                reported.put(REQUESTS, lastEndNanos - sorted.get(0).getStartNanos());
+                reported.put(RENDER, Math.max(0, endNanos - lastEndNanos));
+            }
+
+            reported.put(TOTAL, endNanos - startNanos);
+
+            return new Report(startNanos, reported, sorted, droppedRequests);
+        }
+    }
+
+    public static class Request {
+
+        private final String method;
+        private final String worker;
+        private final String path;
+        private final int status;
+        private final long bytes;
+        private final long startNanos;
+        private final long headersNanos;
+        private final long endNanos;
+        private final String error;
+
+        public Request(String method, String worker, String path, int status, long bytes, long startNanos, long headersNanos, long endNanos) {
+            this(method, worker, path, status, bytes, startNanos, headersNanos, endNanos, null);
+        }
+
+        private Request(String method, String worker, String path, int status, long bytes, long startNanos, long headersNanos, long endNanos,
+                        String error) {
+            this.method = method;
+            this.worker = worker;
+            this.path = path;
+            this.status = status;
+            this.bytes = bytes;
+            this.startNanos = startNanos;
+            this.headersNanos = headersNanos;
+            this.endNanos = endNanos;
+            this.error = error;
+        }
+
+        /**
+         * Returns a request which failed without a response, e.g. as the connection was refused or timed out.
+         */
+        public static Request failed(String method, String worker, String path, long startNanos, long endNanos, String error) {
+            return new Request(method, worker, path, 0, 0, startNanos, endNanos, endNanos, error);
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getWorker() {
+            return worker;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the status of the response, or 0 if the request failed without one.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the error of a request which failed without a response, or {@code null} if a response was received.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Returns the number of bytes of the response body as received.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * Returns the time from sending the request until receiving the response headers. It includes waiting for a
+         * pooled connection, establishing a new one (name lookup, TCP and TLS handshake) and the processing by the
+         * worker.
+         */
+        public long getWaitNanos() {
+            return headersNanos - startNanos;
+        }
+
+        /**
+         * Returns the time for reading the response body after receiving the headers.
+         */
+        public long getReadNanos() {
+            return endNanos - headersNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public long getTotalNanos() {
+            return endNanos - startNanos;
+        }
+    }
+
+    public static class Report {
+
+        private final long startNanos;
+        private final Map<String, Long> phases;
+        private final List<Request> requests;
+        private final int droppedRequests;
+
+        Report(long startNanos, Map<String, Long> phases, List<Request> requests, int droppedRequests) {
+            this.startNanos = startNanos;
+            this.phases = phases;
+            this.requests = requests;
+            this.droppedRequests = droppedRequests;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public Map<String, Long> getPhases() {
+            return phases;
+        }
+
+        public List<Request> getRequests() {
+            return requests;
+        }
+
+        public int getDroppedRequests() {
+            return droppedRequests;
+        }
+
+        /**
+         * Returns the maximum number of requests which were in flight at the same time.
+         */
+        public int getPeakConcurrency() {
+            List<long[]> events = new ArrayList<>();
+            for (Request request : requests) {
+                events.add(new long[]{ request.getStartNanos(), 1 });
+                events.add(new long[]{ request.getEndNanos(), -1 });
+            }
+
+            // ends sort before starts at the same instant
+            events.sort(Comparator.<long[]> comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+
+            int current = 0;
+            int peak = 0;
+            for (long[] event : events) {
+                current += event[1];
+                peak = Math.max(peak, current);
+            }
+
+            return peak;
+        }
+    }
+}
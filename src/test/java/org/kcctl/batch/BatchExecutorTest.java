@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class BatchExecutorTest {
+
+    @Test
+    void should_capture_output_and_exit_code_of_each_command() {
+        List<BatchResult> results = new ArrayList<>();
+
+        BatchExecutor.Summary summary = new BatchExecutor(() -> new CommandLine(new EchoCommand()), 1, false)
+                .execute(requests("hello", "fail", "--unknown"), results::add);
+
+        assertThat(results).extracting(r -> r.exit_code).containsExactly(0, 1, CommandLine.ExitCode.USAGE);
+        assertThat(results.get(0).stdout).isEqualTo("hello" + System.lineSeparator());
+        assertThat(results.get(0).stderr).isNull();
+        assertThat(results.get(1).stderr).isEqualTo("fail" + System.lineSeparator());
+        assertThat(results.get(2).stderr).contains("Usage: echo");
+        assertThat(summary.getSucceeded()).isEqualTo(1);
+        assertThat(summary.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    void should_keep_output_of_concurrent_commands_apart() {
+        List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+        List<String> words = IntStream.range(0, 50).mapToObj(i -> "word-" + i).collect(Collectors.toList());
+
+        BatchExecutor.Summary summary = new BatchExecutor(() -> new CommandLine(new EchoCommand()), 4, false)
+                .execute(requests(words.toArray(new String[0])), results::add);
+
+        assertThat(summary.getSucceeded()).isEqualTo(50);
+        assertThat(results).hasSize(50);
+        for (BatchResult result : results) {
+            assertThat(result.stdout).isEqualTo(result.args.get(0) + System.lineSeparator());
+        }
+    }
+
+    @Test
+    void should_capture_output_of_helper_threads() {
+        List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+
+        new BatchExecutor(() -> new CommandLine(new EchoCommand()), 2, false)
+                .execute(requests("helper-one", "helper-two"), results::add);
+
+        assertThat(results).extracting(r -> r.stdout)
+                .containsExactlyInAnyOrder("helper-one" + System.lineSeparator(), "helper-two" + System.lineSeparator());
+    }
+
+    @Test
+    void should_skip_remaining_commands_after_failure_if_requested() {
+        List<BatchResult> results = new ArrayList<>();
+
+        BatchExecutor.Summary summary = new BatchExecutor(() -> new CommandLine(new EchoCommand()), 1, true)
+                .execute(requests("one", "fail", "two", "three"), results::add);
+
+        assertThat(results).extracting(r -> r.args.get(0)).containsExactly("one", "fail");
+        assertThat(summary.getSkipped()).isEqualTo(2);
+    }
+
+    @Test
+    void should_reject_nested_batches() {
+        List<BatchResult> results = new ArrayList<>();
+
+        new BatchExecutor(() -> new CommandLine(new EchoCommand()), 1, false).execute(requests("batch"), results::add);
+
+        assertThat(results.get(0).exit_code).isEqualTo(CommandLine.ExitCode.USAGE);
+        assertThat(results.get(0).stderr).contains("cannot be used within a batch");
+    }
+
+    private static Iterator<BatchRequest> requests(String... lines) {
+        List<BatchRequest> requests = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            requests.add(BatchRequest.parse(i + 1, lines[i]));
+        }
+        return requests.iterator();
+    }
+
+    @Command(name = "echo")
+    static class EchoCommand implements Callable<Integer> {
+
+        @Parameters
+        String word;
+
+        @Override
+        public Integer call() throws Exception {
+            Thread.sleep(1);
+
+            if (word.equals("fail")) {
+                System.err.println(word);
+                return 1;
+            }
+
+            if (word.startsWith("helper-")) {
+                Thread helper = new Thread(() -> System.out.println(word));
+                helper.start();
+                helper.join();
+                return 0;
+            }
+
+            System.out.println(word);
+            return 0;
+        }
+    }
+}
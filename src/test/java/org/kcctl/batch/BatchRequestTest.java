@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.batch;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class BatchRequestTest {
+
+    @Test
+    void should_parse_command_lines() {
+        BatchRequest request = BatchRequest.parse(3, "kcctl patch connector my-connector -s 'topics=a b'");
+
+        assertThat(request.line).isEqualTo(3);
+        assertThat(request.id).isNull();
+        assertThat(request.args).containsExactly("patch", "connector", "my-connector", "-s", "topics=a b");
+        assertThat(request.isValid()).isTrue();
+    }
+
+    @Test
+    void should_parse_json_requests() {
+        assertThat(BatchRequest.parse(1, "{\"id\": \"step-1\", \"args\": [\"describe\", \"connector\", \"a b\"]}").args)
+                .containsExactly("describe", "connector", "a b");
+        assertThat(BatchRequest.parse(1, "{\"id\": \"step-1\", \"args\": []}").id).isEqualTo("step-1");
+        assertThat(BatchRequest.parse(1, "{\"command\": \"get connectors\"}").args).containsExactly("get", "connectors");
+    }
+
+    @Test
+    void should_skip_blank_lines_and_comments() {
+        assertThat(BatchRequest.parse(1, "   ")).isNull();
+        assertThat(BatchRequest.parse(1, "# restart everything")).isNull();
+    }
+
+    @Test
+    void should_return_malformed_requests_with_error() {
+        assertThat(BatchRequest.parse(1, "{\"id\": ").error).startsWith("Invalid JSON request");
+        assertThat(BatchRequest.parse(1, "{\"id\": \"x\"}").error).contains("'args' or 'command'");
+        assertThat(BatchRequest.parse(1, "describe 'connector").isValid()).isFalse();
+    }
+
+    @Test
+    void should_number_requests_by_input_line() {
+        List<BatchRequest> requests = new ArrayList<>();
+        BatchRequest.parseAll(new BufferedReader(new StringReader("info\n\n# comment\nget connectors\n"))).forEachRemaining(requests::add);
+
+        assertThat(requests).extracting(r -> r.line).containsExactly(1, 4);
+    }
+}
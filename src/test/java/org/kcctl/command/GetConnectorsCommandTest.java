@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.command;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.command.GetConnectorsCommand.WatchView;
+import org.kcctl.service.ConnectorStatusInfo;
+import org.kcctl.service.StateTransition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class GetConnectorsCommandTest {
+
+    private static final String CLEAR_LINE = "\u001B[2K";
+
+    @Test
+    void should_rewrite_only_row_of_connector_whose_state_changed() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WatchView view = new WatchView(true, new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        view.onUpdate(statuses(status("orders-source", "RUNNING", "RUNNING"), status("customers-source", "RUNNING", "RUNNING"),
+                status("payments-sink", "RUNNING", "RUNNING")), List.of(), 1000);
+        output.reset();
+
+        view.onUpdate(statuses(status("orders-source", "RUNNING", "RUNNING"), status("customers-source", "PAUSED", "UNASSIGNED"),
+                status("payments-sink", "RUNNING", "RUNNING")), List.of(new StateTransition("customers-source", null, "RUNNING", "PAUSED", null, null)), 1000);
+        String update = output.toString(StandardCharsets.UTF_8);
+
+        // the row of the connector and the footer
+        assertThat(update.split(CLEAR_LINE.replace("[", "\\["), -1)).hasSize(3);
+        assertThat(update).contains("customers-source", "PAUSED (was RUNNING)").doesNotContain("orders-source", "payments-sink", "NAME");
+    }
+
+    private static Map<String, ConnectorStatusInfo> statuses(ConnectorStatusInfo... statuses) {
+        Map<String, ConnectorStatusInfo> byName = new LinkedHashMap<>();
+        for (ConnectorStatusInfo status : statuses) {
+            status.type = "source";
+            byName.put(status.name, status);
+        }
+        return byName;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DaemonClientTest {
+
+    @Test
+    void should_execute_long_running_commands_in_process() {
+        assertThat(DaemonClient.isLongRunning(new String[]{ "get", "connectors", "-w" })).isTrue();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "get", "connectors", "--parallelism", "4", "--watch" })).isTrue();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "--timings-format", "json", "get", "connectors", "-w" })).isTrue();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "events" })).isTrue();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "events", "--parallelism", "4" })).isTrue();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "serve", "metrics", "--port", "9404" })).isTrue();
+
+        assertThat(DaemonClient.isLongRunning(new String[]{ "get", "connectors" })).isFalse();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "get", "plugins" })).isFalse();
+        assertThat(DaemonClient.isLongRunning(new String[]{ "describe", "connector", "my-connector" })).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.daemon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.daemon.DaemonProtocol.FrameOutputStream;
+import org.kcctl.daemon.DaemonProtocol.RemoteInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DaemonProtocolTest {
+
+    @Test
+    void should_send_output_as_frames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        PrintStream stdout = new PrintStream(new FrameOutputStream(out, DaemonProtocol.FRAME_STDOUT), true, StandardCharsets.UTF_8);
+        stdout.print("hello");
+        DaemonProtocol.writeExit(out, 3);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThat(in.readByte()).isEqualTo(DaemonProtocol.FRAME_STDOUT);
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        assertThat(new String(payload, StandardCharsets.UTF_8)).isEqualTo("hello");
+        assertThat(in.readByte()).isEqualTo(DaemonProtocol.FRAME_EXIT);
+        assertThat(in.readInt()).isEqualTo(3);
+    }
+
+    @Test
+    void should_request_input_upon_first_read() throws IOException {
+        ByteArrayOutputStream clientInput = new ByteArrayOutputStream();
+        DataOutputStream client = new DataOutputStream(clientInput);
+        DaemonProtocol.writeFrame(client, DaemonProtocol.FRAME_STDIN, "abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+        DaemonProtocol.writeFrame(client, DaemonProtocol.FRAME_STDIN, "de".getBytes(StandardCharsets.UTF_8), 0, 2);
+        DaemonProtocol.writeFrame(client, DaemonProtocol.FRAME_STDIN, new byte[0], 0, 0);
+
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        RemoteInputStream stdin = new RemoteInputStream(new DataOutputStream(requests));
+
+        assertThatThrownBy(() -> DaemonProtocol.readInput(new DataInputStream(new ByteArrayInputStream(clientInput.toByteArray())), stdin))
+                .isInstanceOf(EOFException.class);
+        assertThat(requests.size()).isZero();
+        assertThat(new String(stdin.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("abcde");
+        assertThat(stdin.read()).isEqualTo(-1);
+
+        DataInputStream sent = new DataInputStream(new ByteArrayInputStream(requests.toByteArray()));
+        assertThat(sent.readByte()).isEqualTo(DaemonProtocol.FRAME_STDIN_REQUEST);
+        assertThat(sent.readInt()).isZero();
+        assertThat(sent.available()).isZero();
+    }
+
+    @Test
+    void should_fail_reads_once_client_disconnected() {
+        RemoteInputStream stdin = new RemoteInputStream(new DataOutputStream(new ByteArrayOutputStream()));
+        stdin.disconnect();
+
+        assertThatThrownBy(stdin::read).isInstanceOf(IOException.class).hasMessage("The client disconnected");
+        assertThatThrownBy(stdin::read).isInstanceOf(IOException.class);
+    }
+}
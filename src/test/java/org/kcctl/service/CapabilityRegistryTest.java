@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kcctl.util.ConfigurationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class CapabilityRegistryTest {
+
+    @TempDir
+    File tempDir;
+
+    FakeKafkaConnectApi api = new FakeKafkaConnectApi();
+
+    @BeforeEach
+    void writeConfiguration() throws IOException {
+        writeConfiguration("http://localhost:8083");
+    }
+
+    @Nested
+    class GetWorkerInfo {
+
+        @Test
+        void should_retrieve_worker_info_only_once() {
+            var registry = registry(CapabilityRegistry.DEFAULT_TTL, "2.8.1");
+
+            assertThat(registry.getWorkerInfo().version).isEqualTo("2.8.1");
+            assertThat(registry.getVersion()).hasToString("2.8");
+            assertThat(api.getRequests("getWorkerInfo")).isEqualTo(1);
+        }
+
+        @Test
+        void should_use_cached_worker_info_of_previous_invocation() {
+            registry(CapabilityRegistry.DEFAULT_TTL, "2.8.1").getWorkerInfo();
+
+            assertThat(registry(CapabilityRegistry.DEFAULT_TTL, "3.0.0").getWorkerInfo().version).isEqualTo("2.8.1");
+            assertThat(api.getRequests("getWorkerInfo")).isEqualTo(1);
+            assertThat(new File(tempDir, ".kcctl-cache/local/worker-info.json")).exists();
+        }
+
+        @Test
+        void should_retrieve_worker_info_again_when_cache_expired() {
+            registry(Duration.ZERO, "2.8.1").getWorkerInfo();
+
+            assertThat(registry(Duration.ZERO, "3.0.0").getWorkerInfo().version).isEqualTo("3.0.0");
+            assertThat(api.getRequests("getWorkerInfo")).isEqualTo(2);
+        }
+
+        @Test
+        void should_retrieve_worker_info_again_when_cluster_changed() throws IOException {
+            registry(CapabilityRegistry.DEFAULT_TTL, "2.8.1").getWorkerInfo();
+
+            writeConfiguration("http://other:8083");
+
+            assertThat(registry(CapabilityRegistry.DEFAULT_TTL, "3.0.0").getWorkerInfo().version).isEqualTo("3.0.0");
+            assertThat(api.getRequests("getWorkerInfo")).isEqualTo(2);
+        }
+
+        @Test
+        void should_update_cache_on_refresh() {
+            registry(CapabilityRegistry.DEFAULT_TTL, "2.8.1").getWorkerInfo();
+            registry(CapabilityRegistry.DEFAULT_TTL, "3.0.0").refresh();
+
+            assertThat(registry(CapabilityRegistry.DEFAULT_TTL, "3.1.0").getWorkerInfo().version).isEqualTo("3.0.0");
+        }
+    }
+
+    @Nested
+    class Supports {
+
+        @Test
+        void should_support_features_of_cluster_version() {
+            var registry = registry(CapabilityRegistry.DEFAULT_TTL, "2.5.0");
+
+            assertThat(registry.supports(ClusterFeature.EXPAND_API)).isTrue();
+            assertThat(registry.supports(ClusterFeature.TOPICS_API)).isTrue();
+            assertThat(registry.supports(ClusterFeature.TASKS_CONFIG)).isFalse();
+            assertThat(registry.supports(ClusterFeature.RESTART_FILTERS)).isFalse();
+            assertThat(registry.supports(ClusterFeature.OFFSETS_API)).isFalse();
+        }
+    }
+
+    private CapabilityRegistry registry(Duration ttl, String version) {
+        api.withVersion(version);
+        return new CapabilityRegistry(new ConfigurationContext(tempDir), contextName -> api, ttl);
+    }
+
+    private void writeConfiguration(String cluster) throws IOException {
+        Files.writeString(new File(tempDir, ".kcctl").toPath(), "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"" + cluster + "\" }}");
+    }
+}
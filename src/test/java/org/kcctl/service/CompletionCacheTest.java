@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kcctl.service.CompletionCache.Kind;
+import org.kcctl.util.ConfigurationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class CompletionCacheTest {
+
+    @TempDir
+    File tempDir;
+
+    FakeKafkaConnectApi api = new FakeKafkaConnectApi();
+    List<Kind> backgroundRefreshes = new ArrayList<>();
+
+    @BeforeEach
+    void writeConfiguration() throws IOException {
+        writeConfiguration("http://localhost:8083");
+    }
+
+    @Nested
+    class GetCompletions {
+
+        @Test
+        void should_retrieve_candidates_when_not_cached() {
+            var cache = cache(CompletionCache.DEFAULT_TTL, "orders-source", "orders-sink", "customers-source");
+
+            assertThat(cache.getCompletions(Kind.CONNECTOR_NAMES, null)).containsExactly("orders-source", "orders-sink", "customers-source");
+            assertThat(api.getRequests()).containsExactly("getConnectors");
+            assertThat(new File(tempDir, ".kcctl-cache/local/connector-names.json")).exists();
+        }
+
+        @Test
+        void should_use_cached_candidates_of_previous_invocation() {
+            cache(CompletionCache.DEFAULT_TTL, "orders-source").getCompletions(Kind.CONNECTOR_NAMES, null);
+
+            assertThat(cache(CompletionCache.DEFAULT_TTL, "other").getCompletions(Kind.CONNECTOR_NAMES, null)).containsExactly("orders-source");
+            assertThat(api.getRequests("getConnectors")).isEqualTo(1);
+            assertThat(backgroundRefreshes).isEmpty();
+        }
+
+        @Test
+        void should_filter_candidates_by_prefix() {
+            var cache = cache(CompletionCache.DEFAULT_TTL, "orders-source", "orders-sink", "customers-source");
+
+            assertThat(cache.getCompletions(Kind.CONNECTOR_NAMES, "orders")).containsExactly("orders-source", "orders-sink");
+            assertThat(cache.getCompletions(Kind.CONNECTOR_NAMES, "x")).isEmpty();
+        }
+
+        @Test
+        void should_cache_candidates_per_kind() {
+            cache(CompletionCache.DEFAULT_TTL, "orders-source").getCompletions(Kind.CONNECTOR_NAMES, null);
+
+            api.withConnectors(status("orders-source", "RUNNING", "RUNNING"));
+
+            assertThat(cache(CompletionCache.DEFAULT_TTL).getCompletions(Kind.TASK_NAMES, null)).containsExactly("orders-source/0");
+            assertThat(api.getRequests()).containsExactly("getConnectors", "getWorkerInfo", "getConnectorsExpanded");
+        }
+
+        @Test
+        void should_retrieve_task_names_per_connector_when_expand_api_is_not_supported() {
+            api.withVersion("2.2.0")
+                    .withConnectors(status("orders-source", "RUNNING", "RUNNING", "FAILED"), status("orders-sink", "PAUSED", "PAUSED"));
+
+            assertThat(cache(CompletionCache.DEFAULT_TTL).getCompletions(Kind.TASK_NAMES, null))
+                    .containsExactlyInAnyOrder("orders-source/0", "orders-source/1", "orders-sink/0");
+            assertThat(api.getRequests("getConnectorStatus")).isEqualTo(2);
+        }
+
+        @Test
+        void should_return_stale_candidates_and_refresh_them_in_background() {
+            cache(Duration.ZERO, "orders-source").getCompletions(Kind.CONNECTOR_NAMES, null);
+
+            assertThat(cache(Duration.ZERO, "other").getCompletions(Kind.CONNECTOR_NAMES, null)).containsExactly("orders-source");
+            assertThat(api.getRequests("getConnectors")).isEqualTo(1);
+            assertThat(backgroundRefreshes).containsExactly(Kind.CONNECTOR_NAMES);
+        }
+
+        @Test
+        void should_refresh_in_background_only_once_at_a_time() {
+            cache(Duration.ZERO, "orders-source").getCompletions(Kind.CONNECTOR_NAMES, null);
+            cache(Duration.ZERO, "other").getCompletions(Kind.CONNECTOR_NAMES, null);
+            cache(Duration.ZERO, "other").getCompletions(Kind.CONNECTOR_NAMES, null);
+
+            assertThat(backgroundRefreshes).containsExactly(Kind.CONNECTOR_NAMES);
+
+            cache(Duration.ZERO, "other").refreshAndUnlock(Kind.CONNECTOR_NAMES);
+
+            assertThat(cache(Duration.ZERO, "another").getCompletions(Kind.CONNECTOR_NAMES, null)).containsExactly("other");
+            assertThat(backgroundRefreshes).containsExactly(Kind.CONNECTOR_NAMES, Kind.CONNECTOR_NAMES);
+        }
+
+        @Test
+        void should_retrieve_candidates_again_when_cluster_changed() throws IOException {
+            cache(CompletionCache.DEFAULT_TTL, "orders-source").getCompletions(Kind.CONNECTOR_NAMES, null);
+
+            writeConfiguration("http://other:8083");
+
+            assertThat(cache(CompletionCache.DEFAULT_TTL, "other").getCompletions(Kind.CONNECTOR_NAMES, null)).containsExactly("other");
+        }
+    }
+
+    private CompletionCache cache(Duration ttl, String... connectors) {
+        if (connectors.length > 0) {
+            api.withConnectors(Arrays.stream(connectors)
+                    .map(connector -> status(connector, "RUNNING"))
+                    .toArray(ConnectorStatusInfo[]::new));
+        }
+
+        return new CompletionCache(new ConfigurationContext(tempDir), () -> api, api.getCapabilities(tempDir), ttl, backgroundRefreshes::add);
+    }
+
+    private void writeConfiguration(String cluster) throws IOException {
+        Files.writeString(new File(tempDir, ".kcctl").toPath(), "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"" + cluster + "\" }}");
+    }
+}
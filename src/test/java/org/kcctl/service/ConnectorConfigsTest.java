@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class ConnectorConfigsTest {
+
+    @Test
+    void should_normalize_values_to_strings_and_add_name() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("tasks.max", 2);
+        config.put("snapshot.enabled", true);
+        config.put("topics", "a,b");
+
+        assertThat(ConnectorConfigs.normalize(config, "my-connector")).containsExactly(
+                Map.entry("name", "my-connector"),
+                Map.entry("snapshot.enabled", "true"),
+                Map.entry("tasks.max", "2"),
+                Map.entry("topics", "a,b"));
+    }
+
+    @Test
+    void should_consider_configurations_differing_only_in_representation_unchanged() {
+        Map<String, Object> desired = Map.of("connector.class", "FileStreamSink", "tasks.max", 1);
+        Map<String, String> live = Map.of("connector.class", "FileStreamSink", "tasks.max", "1", "name", "my-connector");
+
+        assertThat(ConnectorConfigs.isUnchanged(desired, live, "my-connector")).isTrue();
+    }
+
+    @Test
+    void should_detect_changed_added_and_removed_properties() {
+        Map<String, String> live = Map.of("connector.class", "FileStreamSink", "tasks.max", "1", "name", "my-connector");
+
+        assertThat(ConnectorConfigs.isUnchanged(Map.of("connector.class", "FileStreamSink", "tasks.max", 2), live, "my-connector")).isFalse();
+        assertThat(ConnectorConfigs.isUnchanged(Map.of("connector.class", "FileStreamSink", "tasks.max", 1, "topics", "a"), live, "my-connector"))
+                .isFalse();
+        assertThat(ConnectorConfigs.isUnchanged(Map.of("connector.class", "FileStreamSink"), live, "my-connector")).isFalse();
+        assertThat(ConnectorConfigs.isUnchanged(Map.of("connector.class", "FileStreamSink"), null, "my-connector")).isFalse();
+    }
+
+    @Test
+    void should_list_changed_properties() {
+        Map<String, String> live = Map.of("connector.class", "FileStreamSink", "tasks.max", "1", "topics", "a", "name", "my-connector");
+
+        assertThat(ConnectorConfigs.getChangedProperties(Map.of("connector.class", "FileStreamSink", "tasks.max", 2, "file", "/tmp/out"), live,
+                "my-connector")).containsExactly("file", "tasks.max", "topics");
+    }
+
+    @Test
+    void should_take_connector_name_from_contents_or_file_name() {
+        assertThat(ConnectorConfigs.getConnectorName(Map.of("name", "a", "config", Map.of()), new File("b.json"))).isEqualTo("a");
+        assertThat(ConnectorConfigs.getConnectorName(Map.of("name", "a", "connector.class", "X"), new File("b.json"))).isEqualTo("a");
+        assertThat(ConnectorConfigs.getConnectorName(Map.of("connector.class", "X"), new File("connectors/b.json"))).isEqualTo("b");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Factories for the connectors of a cluster as returned by its REST API, shared by the tests of the services and
+ * commands using them.
+ */
+public final class ConnectorFixtures {
+
+    private ConnectorFixtures() {
+    }
+
+    /**
+     * Returns the status of a connector in the given state, with one task in each of the given states, numbered
+     * from 0.
+     */
+    public static ConnectorStatusInfo status(String name, String connectorState, String... taskStates) {
+        ConnectorStatusInfo status = new ConnectorStatusInfo();
+        status.name = name;
+        status.connector = new ConnectorState();
+        status.connector.state = connectorState;
+        status.tasks = new ArrayList<>();
+
+        for (int i = 0; i < taskStates.length; i++) {
+            TaskState task = new TaskState();
+            task.id = i;
+            task.state = taskStates[i];
+            status.tasks.add(task);
+        }
+
+        return status;
+    }
+
+    public static ConnectorInfo info(String name, String type, String connectorClass) {
+        ConnectorInfo info = new ConnectorInfo();
+        info.name = name;
+        info.type = type;
+        info.config = Map.of("connector.class", connectorClass);
+        return info;
+    }
+
+    /**
+     * Returns a snapshot of the connectors with the given statuses, with their configuration comprising name and type
+     * only.
+     */
+    public static ClusterSnapshot snapshot(ConnectorStatusInfo... statuses) {
+        List<ConnectorInfo> infos = new ArrayList<>();
+
+        for (ConnectorStatusInfo status : statuses) {
+            ConnectorInfo info = new ConnectorInfo();
+            info.name = status.name;
+            info.type = status.type;
+            infos.add(info);
+        }
+
+        return snapshot(infos, List.of(statuses));
+    }
+
+    /**
+     * Returns a snapshot of the connectors with the given configurations, without their status.
+     */
+    public static ClusterSnapshot snapshot(ConnectorInfo... infos) {
+        return snapshot(List.of(infos), List.of());
+    }
+
+    public static ClusterSnapshot snapshot(List<ConnectorInfo> infos, List<ConnectorStatusInfo> statuses) {
+        Map<String, ConnectorInfo> infosByName = new LinkedHashMap<>();
+        for (ConnectorInfo info : infos) {
+            infosByName.put(info.name, info);
+        }
+
+        Map<String, ConnectorStatusInfo> statusesByName = new LinkedHashMap<>();
+        for (ConnectorStatusInfo status : statuses) {
+            statusesByName.put(status.name, status);
+        }
+
+        return new ClusterSnapshot(infosByName, statusesByName);
+    }
+}
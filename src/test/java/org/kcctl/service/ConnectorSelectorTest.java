@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.kcctl.service.ConnectorFixtures.info;
+import static org.kcctl.service.ConnectorFixtures.snapshot;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class ConnectorSelectorTest {
+
+    private static final List<ConnectorInfo> INFOS = List.of(
+            info("jdbc-orders", "sink", "io.confluent.connect.jdbc.JdbcSinkConnector"),
+            info("jdbc-customers", "sink", "io.confluent.connect.jdbc.JdbcSinkConnector"),
+            info("debezium-inventory", "source", "io.debezium.connector.postgresql.PostgresConnector"),
+            info("jdbc.legacy", "source", "io.confluent.connect.jdbc.JdbcSourceConnector"));
+
+    private final ClusterSnapshot snapshot = snapshot(INFOS, List.of(
+            status("jdbc-orders", "RUNNING"),
+            status("jdbc-customers", "FAILED"),
+            status("debezium-inventory", "PAUSED"),
+            status("jdbc.legacy", "FAILED")));
+
+    @Test
+    void should_select_nothing_without_criteria() {
+        ConnectorSelector selector = new ConnectorSelector(false, null, null, null, null, null);
+
+        assertThat(selector.isEmpty()).isTrue();
+        assertThat(selector.select(snapshot)).isEmpty();
+    }
+
+    @Test
+    void should_select_all() {
+        assertThat(new ConnectorSelector(true, null, null, null, null, null).select(snapshot)).hasSize(4);
+    }
+
+    @Test
+    void should_select_by_name() {
+        assertThat(new ConnectorSelector(false, "jdbc-.*", null, null, null, null).select(snapshot)).containsExactly("jdbc-orders", "jdbc-customers");
+        assertThat(new ConnectorSelector(false, null, "jdbc.*", null, null, null).select(snapshot)).containsExactly("jdbc.legacy");
+        assertThat(new ConnectorSelector(false, null, "*-???????", null, null, null).select(snapshot)).isEmpty();
+        assertThat(new ConnectorSelector(false, null, "*-orders", null, null, null).select(snapshot)).containsExactly("jdbc-orders");
+    }
+
+    @Test
+    void should_select_by_state_type_and_class() {
+        assertThat(new ConnectorSelector(false, null, null, List.of("failed"), null, null).select(snapshot)).containsExactly("jdbc-customers", "jdbc.legacy");
+        assertThat(new ConnectorSelector(false, null, null, List.of("FAILED", "PAUSED"), "source", null).select(snapshot))
+                .containsExactly("debezium-inventory", "jdbc.legacy");
+        assertThat(new ConnectorSelector(false, null, null, null, null, "JdbcSinkConnector").select(snapshot)).containsExactly("jdbc-orders", "jdbc-customers");
+        assertThat(new ConnectorSelector(false, null, null, null, null, "io.debezium.connector.postgresql.PostgresConnector").select(snapshot))
+                .containsExactly("debezium-inventory");
+    }
+
+    @Test
+    void should_select_by_task_state() {
+        ClusterSnapshot snapshot = snapshot(INFOS.subList(0, 2), List.of(
+                status("jdbc-orders", "RUNNING", "RUNNING", "FAILED"),
+                status("jdbc-customers", "RUNNING", "RUNNING")));
+
+        assertThat(new ConnectorSelector(false, null, null, List.of("FAILED"), null, null).select(snapshot)).containsExactly("jdbc-orders");
+        assertThat(new ConnectorSelector(false, null, null, List.of("RUNNING"), null, null).select(snapshot)).containsExactly("jdbc-orders", "jdbc-customers");
+    }
+
+    @Test
+    void should_require_status_only_for_state() {
+        assertThat(new ConnectorSelector(false, "jdbc-.*", null, null, "sink", null).requiresStatus()).isFalse();
+        assertThat(new ConnectorSelector(false, null, null, List.of("FAILED"), null, null).requiresStatus()).isTrue();
+    }
+
+    @Test
+    void should_reject_regex_and_glob() {
+        assertThatThrownBy(() -> new ConnectorSelector(false, "jdbc-.*", "jdbc-*", null, null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kcctl.service.ConnectorStateWaiter.ConnectorWait;
+import org.kcctl.service.ConnectorStateWaiter.Outcome;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class ConnectorStateWaiterTest {
+
+    @TempDir
+    File tempDir;
+
+    FakeKafkaConnectApi api = new FakeKafkaConnectApi();
+    List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void should_wait_until_connectors_and_tasks_are_running() {
+        api.withConnectors(status("a", "PAUSED", "PAUSED"), status("b", "RUNNING", "PAUSED"))
+                .then(status("a", "RUNNING", "PAUSED"), status("b", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a", "b"), "RUNNING", Duration.ofMinutes(1));
+
+        assertThat(waits).extracting(ConnectorWait::getConnector, ConnectorWait::getOutcome, ConnectorWait::getState).containsExactly(
+                tuple("a", Outcome.REACHED, "RUNNING"),
+                tuple("b", Outcome.REACHED, "RUNNING"));
+        // all connectors are listed at once while several are pending
+        assertThat(api.getRequests("getConnectorsExpanded")).isEqualTo(2);
+        assertThat(api.getRequests("getConnectorStatus")).isEqualTo(1);
+        assertThat(sleeps).containsExactly(200L, 400L);
+    }
+
+    @Test
+    void should_poll_each_connector_if_expand_api_is_not_supported() {
+        api.withVersion("2.2.0")
+                .withConnectors(status("a", "PAUSED", "PAUSED"), status("b", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"), status("b", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a", "b"), "RUNNING", Duration.ofMinutes(1));
+
+        assertThat(waits).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED, Outcome.REACHED);
+        assertThat(api.getRequests("getConnectorsExpanded")).isZero();
+        assertThat(api.getRequests("getConnectorStatus")).isEqualTo(3);
+    }
+
+    @Test
+    void should_stop_waiting_for_failed_connectors() {
+        api.withConnectors(status("a", "RUNNING", "FAILED"), status("b", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a", "b"), "RUNNING", Duration.ofMinutes(1));
+
+        assertThat(waits).extracting(ConnectorWait::getConnector, ConnectorWait::getOutcome).containsExactly(
+                tuple("a", Outcome.FAILED),
+                tuple("b", Outcome.REACHED));
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    void should_wait_for_failed_state() {
+        api.withConnectors(status("a", "FAILED", "FAILED"));
+
+        assertThat(waiter().await(List.of("a"), "FAILED", Duration.ofMinutes(1))).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED);
+    }
+
+    @Test
+    void should_wait_for_connectors_not_known_yet() {
+        api.withConnectors()
+                .then(status("a", "RUNNING", "RUNNING"));
+
+        assertThat(waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1))).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED);
+        assertThat(sleeps).containsExactly(200L);
+    }
+
+    @Test
+    void should_wait_for_tasks_of_new_connector() {
+        api.withConnectors(status("a", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1));
+
+        assertThat(waits).extracting(ConnectorWait::getOutcome, ConnectorWait::getState).containsExactly(tuple(Outcome.REACHED, "RUNNING"));
+        assertThat(waits.get(0).getStatus().tasks).hasSize(1);
+        assertThat(sleeps).containsExactly(200L);
+    }
+
+    @Test
+    void should_take_status_without_tasks_after_grace_period() {
+        api.withConnectors(status("a", "RUNNING"));
+        long start = System.nanoTime() - ConnectorStateWaiter.RESTART_GRACE_PERIOD.toNanos();
+
+        List<ConnectorWait> waits = waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1), start);
+
+        assertThat(waits).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    void should_wait_for_restart_of_updated_connector() {
+        ConnectorStatusInfo previous = status("a", "RUNNING", "RUNNING");
+        api.withConnectors(status("a", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "UNASSIGNED"))
+                .then(status("a", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1), System.nanoTime(), Map.of("a", previous));
+
+        assertThat(waits).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED);
+        assertThat(sleeps).hasSize(2);
+    }
+
+    @Test
+    void should_take_unchanged_status_of_updated_connector_after_grace_period() {
+        ConnectorStatusInfo previous = status("a", "RUNNING", "RUNNING");
+        api.withConnectors(status("a", "RUNNING", "RUNNING"));
+        long start = System.nanoTime() - ConnectorStateWaiter.RESTART_GRACE_PERIOD.toNanos();
+
+        List<ConnectorWait> waits = waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1), start, Map.of("a", previous));
+
+        assertThat(waits).extracting(ConnectorWait::getOutcome).containsExactly(Outcome.REACHED);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    void should_detect_restart() {
+        ConnectorStatusInfo previous = status("a", "RUNNING", "RUNNING");
+        ConnectorStatusInfo moved = status("a", "RUNNING", "RUNNING");
+        moved.tasks.get(0).worker_id = "worker-2:8083";
+
+        assertThat(ConnectorStateWaiter.isRestarted(previous, status("a", "RUNNING", "RUNNING"))).isFalse();
+        assertThat(ConnectorStateWaiter.isRestarted(previous, status("a", "RUNNING", "RUNNING", "RUNNING"))).isTrue();
+        assertThat(ConnectorStateWaiter.isRestarted(previous, status("a", "UNASSIGNED", "RUNNING"))).isTrue();
+        assertThat(ConnectorStateWaiter.isRestarted(previous, moved)).isTrue();
+    }
+
+    @Test
+    void should_time_out() {
+        api.withConnectors(status("a", "PAUSED"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a", "missing"), "RUNNING", Duration.ZERO);
+
+        assertThat(waits).extracting(ConnectorWait::getConnector, ConnectorWait::getOutcome, ConnectorWait::getState).containsExactly(
+                tuple("a", Outcome.TIMED_OUT, "PAUSED"),
+                tuple("missing", Outcome.TIMED_OUT, "NOT FOUND"));
+    }
+
+    @Test
+    void should_measure_time_from_given_start() {
+        api.withConnectors(status("a", "RUNNING", "RUNNING"));
+
+        List<ConnectorWait> waits = waiter().await(List.of("a"), "RUNNING", Duration.ofMinutes(1), System.nanoTime() - TimeUnit.SECONDS.toNanos(5));
+
+        assertThat(waits.get(0).getElapsedMs()).isGreaterThanOrEqualTo(5000);
+    }
+
+    @Test
+    void should_back_off_exponentially() {
+        assertThat(ConnectorStateWaiter.getInterval(0)).isEqualTo(200);
+        assertThat(ConnectorStateWaiter.getInterval(1)).isEqualTo(400);
+        assertThat(ConnectorStateWaiter.getInterval(3)).isEqualTo(1600);
+        assertThat(ConnectorStateWaiter.getInterval(4)).isEqualTo(ConnectorStateWaiter.MAX_INTERVAL_MS);
+        assertThat(ConnectorStateWaiter.getInterval(100)).isEqualTo(ConnectorStateWaiter.MAX_INTERVAL_MS);
+    }
+
+    private ConnectorStateWaiter waiter() {
+        return new ConnectorStateWaiter(api, api.getCapabilities(tempDir), new FanOutExecutor(4), millis -> {
+            sleeps.add(millis);
+            api.advance();
+        });
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.HttpStatus;
+import org.kcctl.util.ConfigurationContext;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * An in-memory stand-in for the REST API of a Kafka Connect cluster, shared by the tests of the services using it.
+ * All requests are recorded by the name of the invoked method.
+ * <p>
+ * The connectors of the cluster can be scripted as a sequence of states, each either the statuses of all connectors
+ * or an exception with which all status requests fail. The cluster moves on to the next state upon {@link #advance()},
+ * e.g. whenever the service under test sleeps, and stays in the last one.
+ */
+class FakeKafkaConnectApi implements KafkaConnectApi {
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> states = new ArrayList<>();
+    private volatile String version = "3.0.0";
+    private int state;
+
+    FakeKafkaConnectApi withVersion(String version) {
+        this.version = version;
+        return this;
+    }
+
+    /**
+     * Replaces the scripted states with a single state with the given connectors.
+     */
+    synchronized FakeKafkaConnectApi withConnectors(ConnectorStatusInfo... statuses) {
+        states.clear();
+        state = 0;
+        return then(statuses);
+    }
+
+    synchronized FakeKafkaConnectApi then(ConnectorStatusInfo... statuses) {
+        Map<String, ConnectorStatusInfo> byName = new LinkedHashMap<>();
+        for (ConnectorStatusInfo status : statuses) {
+            byName.put(status.name, status);
+        }
+
+        states.add(byName);
+        return this;
+    }
+
+    synchronized FakeKafkaConnectApi thenFail(RuntimeException failure) {
+        states.add(failure);
+        return this;
+    }
+
+    synchronized void advance() {
+        if (state < states.size() - 1) {
+            state++;
+        }
+    }
+
+    /**
+     * Returns a registry of the capabilities of this cluster, using the given configuration directory with a
+     * default context unless it has been configured already.
+     */
+    CapabilityRegistry getCapabilities(File configDirectory) {
+        File configFile = new File(configDirectory, ".kcctl");
+        if (!configFile.exists()) {
+            try {
+                Files.writeString(configFile.toPath(), "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }}");
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return new CapabilityRegistry(new ConfigurationContext(configDirectory), contextName -> this, CapabilityRegistry.DEFAULT_TTL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Map<String, ConnectorStatusInfo> getStatuses() {
+        Object current = states.isEmpty() ? Collections.emptyMap() : states.get(state);
+
+        if (current instanceof RuntimeException) {
+            throw (RuntimeException) current;
+        }
+
+        return (Map<String, ConnectorStatusInfo>) current;
+    }
+
+    List<String> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    long getRequests(String method) {
+        return getRequests().stream().filter(method::equals).count();
+    }
+
+    private void record(String method) {
+        requests.add(method);
+    }
+
+    @Override
+    public KafkaConnectInfo getWorkerInfo() {
+        record("getWorkerInfo");
+
+        KafkaConnectInfo workerInfo = new KafkaConnectInfo();
+        workerInfo.version = version;
+        return workerInfo;
+    }
+
+    @Override
+    public List<ConnectorPlugin> getConnectorPlugins() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConfigInfos validateConfig(String name, String config) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> getConnectors() {
+        record("getConnectors");
+        return new ArrayList<>(getStatuses().keySet());
+    }
+
+    @Override
+    public Map<String, ConnectorExpandInfo> getConnectorsExpanded(List<String> expand) {
+        record("getConnectorsExpanded");
+
+        Map<String, ConnectorExpandInfo> connectors = new LinkedHashMap<>();
+        for (ConnectorStatusInfo status : getStatuses().values()) {
+            ConnectorExpandInfo connector = new ConnectorExpandInfo();
+            connector.status = status;
+            connectors.put(status.name, connector);
+        }
+
+        return connectors;
+    }
+
+    @Override
+    public ConnectorStatusInfo createConnector(String config) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConnectorInfo getConnector(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void restartConnector(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConnectorStatusInfo restartConnector(String name, boolean includeTasks, boolean onlyFailed) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void pauseConnector(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void resumeConnector(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteConnector(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConnectorStatusInfo getConnectorStatus(String name) {
+        record("getConnectorStatus");
+
+        ConnectorStatusInfo status = getStatuses().get(name);
+        if (status == null) {
+            throw new KafkaConnectException("Connector " + name + " not found", HttpStatus.SC_NOT_FOUND);
+        }
+
+        return status;
+    }
+
+    @Override
+    public Map<String, TopicsInfo> getConnectorTopics(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, String> getConnectorConfig(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConnectorStatusInfo updateConnector(String name, String config) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConnectorInfo restartTask(String name, String id) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getConnectorTasksConfig(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> updateLogLevel(String classPath, String content) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ObjectNode getLoggers(String path) {
+        throw new UnsupportedOperationException();
+    }
+}
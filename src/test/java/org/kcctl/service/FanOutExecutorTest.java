@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.service.FanOutExecutor.Result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class FanOutExecutorTest {
+
+    @Test
+    void should_return_results_in_input_order() {
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+
+        List<Result<Integer, String>> results = new FanOutExecutor(8).execute(items, i -> {
+            sleep(50 - i);
+            return "item-" + i;
+        });
+
+        assertThat(results).extracting(Result::getItem).isEqualTo(items);
+        assertThat(results).extracting(Result::getValue)
+                .isEqualTo(items.stream().map(i -> "item-" + i).collect(Collectors.toList()));
+    }
+
+    @Test
+    void should_collect_failures_of_individual_items() {
+        List<Result<Integer, Integer>> results = new FanOutExecutor(4).execute(List.of(1, 2, 3, 4), i -> {
+            if (i % 2 == 0) {
+                throw new KafkaConnectException("Connector " + i + " not found", 404);
+            }
+            return i * 10;
+        });
+
+        assertThat(results).extracting(Result::isSuccessful).containsExactly(true, false, true, false);
+        assertThat(FanOutExecutor.failures(results)).extracting(Result::getItem).containsExactly(2, 4);
+        assertThat(results.get(1).getError()).hasMessage("Connector 2 not found");
+        assertThat(results.get(2).getValue()).isEqualTo(30);
+    }
+
+    @Test
+    void should_not_exceed_parallelism() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        new FanOutExecutor(3).execute(IntStream.range(0, 20).boxed().collect(Collectors.toList()), i -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(10);
+            inFlight.decrementAndGet();
+            return i;
+        });
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void should_issue_calls_concurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(5);
+
+        List<Result<Integer, Boolean>> results = new FanOutExecutor(5).execute(List.of(1, 2, 3, 4, 5), i -> {
+            allStarted.countDown();
+            try {
+                return allStarted.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(results).extracting(Result::getValue).containsOnly(true);
+    }
+
+    @Test
+    void should_reject_invalid_parallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new FanOutExecutor(0));
+    }
+
+    @Test
+    void should_use_parallelism_of_context_unless_overridden() {
+        Context context = new Context(null, null, null, null, null, null, null, 3, null, null, null, null);
+
+        assertThat(FanOutExecutor.forContext(context, null).getParallelism()).isEqualTo(3);
+        assertThat(FanOutExecutor.forContext(context, 12).getParallelism()).isEqualTo(12);
+        assertThat(FanOutExecutor.forContext(Context.defaultContext(), null).getParallelism()).isEqualTo(FanOutExecutor.DEFAULT_PARALLELISM);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.util.ConfigurationContext;
+import org.kcctl.util.Futures;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Needs a running application, as the REST client obtains its header factory from CDI
+@QuarkusTest
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class KafkaConnectClientFactoryTest {
+
+    // @TempDir isn't supported for @QuarkusTest
+    File tempDir;
+
+    @BeforeEach
+    void createTempDir() throws IOException {
+        tempDir = Files.createTempDirectory("kcctl").toFile();
+        tempDir.deleteOnExit();
+    }
+
+    @Test
+    void should_reuse_client_of_a_context() throws IOException {
+        writeConfiguration("{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }}");
+
+        var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+
+        assertThat(factory.getClient()).isSameAs(factory.getClient());
+        assertThat(factory.getClient("local")).isSameAs(factory.getClient());
+        assertThat(factory.getStatistics().getClientLookups()).isEqualTo(4);
+    }
+
+    @Test
+    void should_create_one_client_per_context() throws IOException {
+        writeConfiguration(
+                "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }, \"prod\": { \"cluster\": \"http://prod:8083\" }}");
+
+        var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+
+        assertThat(factory.getClient("prod")).isNotSameAs(factory.getClient("local"));
+    }
+
+    @Test
+    void should_size_connection_pool_after_parallelism() throws IOException {
+        writeConfiguration("{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\", \"parallelism\": 64 }}");
+
+        var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+        factory.getClient();
+
+        assertThat(factory.getStatistics().getConnectionPoolSize()).isEqualTo(64);
+    }
+
+    @Test
+    void should_reuse_async_client_of_a_context() throws IOException {
+        writeConfiguration("{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }}");
+
+        var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+
+        assertThat(factory.getAsyncClient()).isSameAs(factory.getAsyncClient("local"));
+        assertThat(factory.getAsyncClient()).isNotSameAs(factory.getClient());
+    }
+
+    @Test
+    void should_complete_async_requests() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/connectors/", exchange -> {
+            boolean found = exchange.getRequestURI().getPath().endsWith("/my-connector/config");
+            byte[] body = (found ? "{ \"connector.class\": \"MyConnector\" }" : "{ \"error_code\": 404, \"message\": \"Connector other not found\" }")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            writeConfiguration("{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://127.0.0.1:" + server.getAddress().getPort() + "\" }}");
+
+            var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+            var client = factory.getAsyncClient();
+
+            assertThat(Futures.join(client.getConnectorConfig("my-connector"))).containsEntry("connector.class", "MyConnector");
+            assertThatThrownBy(() -> Futures.join(client.getConnectorConfig("other")))
+                    .isInstanceOf(KafkaConnectException.class)
+                    .hasMessage("Connector other not found");
+
+            factory.close();
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void should_complete_requests_failing_without_response() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+
+        writeConfiguration("{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://127.0.0.1:" + port + "\", \"maxRetries\": 0 }}");
+
+        var factory = new KafkaConnectClientFactory(new ConfigurationContext(tempDir));
+
+        assertThatThrownBy(() -> factory.getClient().getConnectors()).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> Futures.join(factory.getAsyncClient().getConnectors())).isInstanceOf(RuntimeException.class);
+        assertThat(factory.getStatistics().getInFlight()).isZero();
+        assertThat(factory.getStatistics().getPeakInFlight()).isEqualTo(1);
+
+        factory.close();
+    }
+
+    private void writeConfiguration(String configuration) throws IOException {
+        File configFile = new File(tempDir, ".kcctl");
+        configFile.deleteOnExit();
+        Files.writeString(configFile.toPath(), configuration);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class LeaderCacheTest {
+
+    private static final List<URI> WORKERS = List.of(URI.create("http://worker-1:8083"), URI.create("http://worker-2:8083"));
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void should_persist_leader() {
+        File cacheFile = new File(tempDir, "leader.json");
+
+        new LeaderCache(WORKERS, cacheFile).setLeader(1);
+
+        assertThat(new LeaderCache(WORKERS, cacheFile).getLeader()).isEqualTo(1);
+    }
+
+    @Test
+    void should_ignore_cached_leader_if_workers_changed_or_expired() {
+        File cacheFile = new File(tempDir, "leader.json");
+
+        new LeaderCache(WORKERS, cacheFile).setLeader(1);
+
+        assertThat(new LeaderCache(List.of(WORKERS.get(1), URI.create("http://worker-3:8083")), cacheFile).getLeader()).isEqualTo(-1);
+        assertThat(new LeaderCache(WORKERS, cacheFile, Duration.ZERO).getLeader()).isEqualTo(-1);
+    }
+
+    @Test
+    void should_invalidate_leader() {
+        File cacheFile = new File(tempDir, "leader.json");
+        LeaderCache cache = new LeaderCache(WORKERS, cacheFile);
+        cache.setLeader(0);
+
+        cache.invalidate(1);
+        assertThat(cache.getLeader()).isEqualTo(0);
+
+        cache.invalidate(0);
+        assertThat(cache.getLeader()).isEqualTo(-1);
+        assertThat(new LeaderCache(WORKERS, cacheFile).getLeader()).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.ws.rs.ProcessingException;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class LoadBalancerTest {
+
+    private static final List<URI> WORKERS = List.of(URI.create("http://worker-1:8083"), URI.create("http://worker-2:8083"),
+            URI.create("http://worker-3:8083"));
+
+    private static final ProcessingException CONNECTION_REFUSED = new ProcessingException(new ConnectException("Connection refused"));
+    private static final ProcessingException READ_TIMED_OUT = new ProcessingException(new SocketTimeoutException("Read timed out"));
+
+    @Test
+    void should_select_worker_with_fewest_outstanding_requests() {
+        LoadBalancer balancer = new LoadBalancer(WORKERS);
+
+        int first = balancer.acquire(Set.of());
+        int second = balancer.acquire(Set.of());
+        int third = balancer.acquire(Set.of());
+        assertThat(Set.of(first, second, third)).containsExactlyInAnyOrder(0, 1, 2);
+
+        balancer.release(second, null);
+        assertThat(balancer.acquire(Set.of())).isEqualTo(second);
+        assertThat(balancer.getOutstanding(second)).isEqualTo(1);
+    }
+
+    @Test
+    void should_eject_failing_worker_until_it_succeeds_again() {
+        LoadBalancer balancer = new LoadBalancer(WORKERS);
+
+        balancer.acquire(Set.of(1, 2));
+        balancer.release(0, READ_TIMED_OUT);
+        assertThat(balancer.isHealthy(0)).isTrue();
+
+        balancer.acquire(Set.of(1, 2));
+        balancer.release(0, READ_TIMED_OUT);
+        assertThat(balancer.isHealthy(0)).isFalse();
+        assertThat(balancer.getFailures(0)).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            int worker = balancer.acquire(Set.of());
+            assertThat(worker).isNotEqualTo(0);
+            balancer.release(worker, null);
+        }
+
+        // the ejected worker is only used if there is no other
+        assertThat(balancer.acquire(Set.of(1, 2))).isEqualTo(0);
+        balancer.release(0, null);
+        assertThat(balancer.isHealthy(0)).isTrue();
+    }
+
+    @Test
+    void should_keep_growing_ejection_of_flapping_worker() {
+        AtomicLong now = new AtomicLong();
+        LoadBalancer balancer = new LoadBalancer(WORKERS, now::get);
+
+        fail(balancer, 0, 2);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(LoadBalancer.INITIAL_EJECTION_MS));
+        balancer.acquire(0);
+        balancer.release(0, null);
+
+        // a success right after the ejection doesn't forgive it
+        fail(balancer, 0, 2);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(LoadBalancer.INITIAL_EJECTION_MS));
+        assertThat(balancer.isHealthy(0)).isFalse();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(LoadBalancer.INITIAL_EJECTION_MS));
+        assertThat(balancer.isHealthy(0)).isTrue();
+
+        // each period without failures as long as an ejection forgives it
+        for (long healthyMs : new long[]{ 2 * LoadBalancer.INITIAL_EJECTION_MS, LoadBalancer.INITIAL_EJECTION_MS }) {
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(healthyMs));
+            balancer.acquire(0);
+            balancer.release(0, null);
+        }
+
+        fail(balancer, 0, 2);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(LoadBalancer.INITIAL_EJECTION_MS));
+        assertThat(balancer.isHealthy(0)).isTrue();
+    }
+
+    @Test
+    void should_not_consider_request_errors_as_worker_failures() {
+        assertThat(LoadBalancer.isWorkerFailure(CONNECTION_REFUSED)).isTrue();
+        assertThat(LoadBalancer.isWorkerFailure(READ_TIMED_OUT)).isTrue();
+        assertThat(LoadBalancer.isWorkerFailure(new KafkaConnectException("Connector my-connector not found", 404))).isFalse();
+        assertThat(LoadBalancer.isWorkerFailure(new KafkaConnectException("Cannot complete request because of a conflicting operation", 409))).isFalse();
+    }
+
+    @Test
+    void should_fail_over_to_other_workers() {
+        AtomicInteger attempts = new AtomicInteger();
+        FakeWorker unreachable = new FakeWorker(() -> {
+            attempts.incrementAndGet();
+            throw CONNECTION_REFUSED;
+        });
+        FakeWorker healthy = new FakeWorker(() -> List.of("my-connector"));
+        LoadBalancingKafkaConnectApi api = new LoadBalancingKafkaConnectApi(List.of(unreachable, healthy), new LoadBalancer(WORKERS.subList(0, 2)));
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(api.getConnectors()).containsExactly("my-connector");
+        }
+
+        // ejected after the second failure
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void should_not_fail_over_create_which_may_have_been_applied() {
+        AtomicInteger attempts = new AtomicInteger();
+        FakeWorker timingOut = new FakeWorker(() -> {
+            attempts.incrementAndGet();
+            throw READ_TIMED_OUT;
+        });
+        LoadBalancingKafkaConnectApi api = new LoadBalancingKafkaConnectApi(List.of(timingOut, timingOut), new LoadBalancer(WORKERS.subList(0, 2)));
+
+        assertThatThrownBy(() -> api.createConnector("{}")).isSameAs(READ_TIMED_OUT);
+        assertThat(attempts).hasValue(1);
+
+        assertThatThrownBy(() -> api.getConnectors()).isSameAs(READ_TIMED_OUT);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void should_discover_leader_and_send_configuration_changes_to_it() {
+        AtomicInteger leader = new AtomicInteger(1);
+        List<AtomicInteger> requests = List.of(new AtomicInteger(), new AtomicInteger(), new AtomicInteger());
+        List<KafkaConnectApi> leaderWorkers = List.of(new FakeLeaderWorker(0, leader, requests), new FakeLeaderWorker(1, leader, requests),
+                new FakeLeaderWorker(2, leader, requests));
+        LeaderCache leaderCache = new LeaderCache(WORKERS, null);
+        LoadBalancingKafkaConnectApi api = new LoadBalancingKafkaConnectApi(List.of(), leaderWorkers, new LoadBalancer(WORKERS), leaderCache);
+
+        api.deleteConnector("my-connector");
+        assertThat(leaderCache.getLeader()).isEqualTo(1);
+        assertThat(requests).extracting(AtomicInteger::get).containsExactly(1, 1, 0);
+
+        api.deleteConnector("my-connector");
+        assertThat(requests).extracting(AtomicInteger::get).containsExactly(1, 2, 0);
+
+        leader.set(2);
+        api.deleteConnector("my-connector");
+        assertThat(leaderCache.getLeader()).isEqualTo(2);
+        assertThat(requests).extracting(AtomicInteger::get).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    void should_not_send_restarts_of_individual_connectors_or_tasks_to_leader() {
+        AtomicInteger leader = new AtomicInteger(1);
+        List<AtomicInteger> requests = List.of(new AtomicInteger(), new AtomicInteger(), new AtomicInteger());
+        List<KafkaConnectApi> leaderWorkers = List.of(new FakeLeaderWorker(0, leader, requests), new FakeLeaderWorker(1, leader, requests),
+                new FakeLeaderWorker(2, leader, requests));
+        AtomicInteger balanced = new AtomicInteger();
+        FakeWorker worker = new FakeWorker(() -> {
+            balanced.incrementAndGet();
+            return null;
+        });
+        LeaderCache leaderCache = new LeaderCache(WORKERS, null);
+        LoadBalancingKafkaConnectApi api = new LoadBalancingKafkaConnectApi(List.of(worker, worker, worker), leaderWorkers, new LoadBalancer(WORKERS),
+                leaderCache);
+
+        api.restartConnector("my-connector");
+        api.restartConnector("my-connector", false, false);
+        api.restartTask("my-connector", "0");
+        assertThat(balanced).hasValue(3);
+        assertThat(requests).extracting(AtomicInteger::get).containsExactly(0, 0, 0);
+        assertThat(leaderCache.getLeader()).isEqualTo(-1);
+
+        api.restartConnector("my-connector", true, true);
+        assertThat(balanced).hasValue(3);
+        assertThat(leaderCache.getLeader()).isEqualTo(1);
+    }
+
+    private static void fail(LoadBalancer balancer, int worker, int times) {
+        for (int i = 0; i < times; i++) {
+            balancer.acquire(worker);
+            balancer.release(worker, READ_TIMED_OUT);
+        }
+    }
+
+    private static class FakeLeaderWorker extends ForwardingKafkaConnectApi {
+
+        private final int index;
+        private final AtomicInteger leader;
+        private final List<AtomicInteger> requests;
+
+        FakeLeaderWorker(int index, AtomicInteger leader, List<AtomicInteger> requests) {
+            this.index = index;
+            this.leader = leader;
+            this.requests = requests;
+        }
+
+        @Override
+        protected <T> T execute(String method, Function<KafkaConnectApi, T> request) {
+            requests.get(index).incrementAndGet();
+            if (leader.get() != index) {
+                throw new KafkaConnectException("Cannot complete request because of a conflicting operation (e.g. worker rebalance)", 409);
+            }
+            return null;
+        }
+    }
+
+    private static class FakeWorker extends ForwardingKafkaConnectApi {
+
+        private final Supplier<Object> response;
+
+        FakeWorker(Supplier<Object> response) {
+            this.response = response;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T> T execute(String method, Function<KafkaConnectApi, T> request) {
+            return (T) response.get();
+        }
+    }
+}
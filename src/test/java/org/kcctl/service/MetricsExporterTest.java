@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class MetricsExporterTest {
+
+    @Test
+    void should_render_counts_by_state_type_and_worker() {
+        Map<String, ConnectorStatusInfo> statuses = new TreeMap<>();
+        statuses.put("a", withWorker(status("a", "RUNNING", "RUNNING", "FAILED"), "w1:8083", "source"));
+        statuses.put("b", withWorker(status("b", "RUNNING", "RUNNING"), "w1:8083", "source"));
+        statuses.put("c\"quoted", withWorker(status("c\"quoted", "PAUSED", "PAUSED"), "w2:8083", "sink"));
+
+        MetricsExporter exporter = new MetricsExporter(null);
+        exporter.onUpdate(statuses, List.of(), 1000);
+
+        assertThat(exporter.isUp()).isTrue();
+        assertThat(exporter.scrape().split("\n")).contains(
+                "kcctl_up 1",
+                "kcctl_refresh_failures_total 0",
+                "kcctl_connectors{state=\"PAUSED\",type=\"sink\",worker=\"w2:8083\"} 1",
+                "kcctl_connectors{state=\"RUNNING\",type=\"source\",worker=\"w1:8083\"} 2",
+                "kcctl_tasks{state=\"FAILED\",type=\"source\",worker=\"w1:8083\"} 1",
+                "kcctl_tasks{state=\"RUNNING\",type=\"source\",worker=\"w1:8083\"} 2",
+                "kcctl_connector_failed_tasks{connector=\"a\"} 1",
+                "kcctl_connector_failed_tasks{connector=\"b\"} 0",
+                "kcctl_connector_failed_tasks{connector=\"c\\\"quoted\"} 0");
+        assertThat(exporter.scrape()).endsWith("# EOF\n");
+    }
+
+    @Test
+    void should_keep_previous_state_on_failure() {
+        MetricsExporter exporter = new MetricsExporter(null);
+        exporter.onUpdate(Map.of("a", withWorker(status("a", "RUNNING"), "w1:8083", "sink")), List.of(), 1000);
+
+        exporter.onFailure(new RuntimeException("Connection refused"));
+
+        assertThat(exporter.isUp()).isFalse();
+        assertThat(exporter.scrape().split("\n")).contains(
+                "kcctl_up 0",
+                "kcctl_refresh_failures_total 1",
+                "kcctl_connectors{state=\"RUNNING\",type=\"sink\",worker=\"w1:8083\"} 1");
+    }
+
+    @Test
+    void should_record_latencies_in_buckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2_000_000);
+        histogram.record(5_000_000);
+        histogram.record(300_000_000);
+        histogram.record(20_000_000_000L);
+
+        long[] counts = histogram.getCumulativeCounts();
+
+        assertThat(counts).hasSize(LatencyHistogram.BUCKETS.length + 1);
+        assertThat(counts[0]).isEqualTo(2);
+        assertThat(counts[5]).isEqualTo(2);
+        assertThat(counts[6]).isEqualTo(3);
+        assertThat(counts[LatencyHistogram.BUCKETS.length - 1]).isEqualTo(3);
+        assertThat(counts[LatencyHistogram.BUCKETS.length]).isEqualTo(4);
+        assertThat(histogram.getSum()).isCloseTo(20.307, offset(0.0001));
+    }
+
+    @Test
+    void should_label_latencies_by_method_and_outcome() {
+        ClientStatistics statistics = new ClientStatistics(4);
+        statistics.recordLatency("GET", ClientStatistics.OUTCOME_SUCCESS, 2_000_000);
+        statistics.recordLatency("GET", ClientStatistics.OUTCOME_SUCCESS, 3_000_000);
+        statistics.recordLatency("PUT", ClientStatistics.OUTCOME_ERROR, 2_000_000);
+        statistics.requestFailed("GET", System.nanoTime(), new RuntimeException("Connection refused"));
+        statistics.requestFailed("PUT", System.nanoTime(), new KafkaConnectException("Conflict", 409));
+
+        MetricsExporter exporter = new MetricsExporter(statistics);
+
+        assertThat(exporter.scrape().split("\n")).contains(
+                "kcctl_rest_request_duration_seconds_count{method=\"GET\",outcome=\"success\"} 2",
+                "kcctl_rest_request_duration_seconds_count{method=\"GET\",outcome=\"failure\"} 1",
+                "kcctl_rest_request_duration_seconds_count{method=\"PUT\",outcome=\"error\"} 1");
+        assertThat(exporter.scrape()).doesNotContain("method=\"PUT\",outcome=\"failure\"");
+    }
+
+    private static ConnectorStatusInfo withWorker(ConnectorStatusInfo status, String worker, String type) {
+        status.type = type;
+        status.connector.worker_id = worker;
+        status.tasks.forEach(task -> task.worker_id = worker);
+        return status;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.kcctl.service.ConnectorFixtures.snapshot;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class PauseSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_record_states_of_selected_connectors() throws IOException {
+        ClusterSnapshot clusterSnapshot = snapshot(
+                status("running", "RUNNING", "RUNNING"),
+                status("paused", "PAUSED", "PAUSED"),
+                status("failed", "FAILED"),
+                status("other", "RUNNING"));
+
+        PauseSnapshot snapshot = PauseSnapshot.take("local", URI.create("http://localhost:8083"), clusterSnapshot, List.of("running", "paused", "failed"));
+        File file = tempDir.resolve("maintenance/snapshot.json").toFile();
+        snapshot.write(file);
+
+        PauseSnapshot read = PauseSnapshot.read(file);
+        assertThat(read.context).isEqualTo("local");
+        assertThat(read.cluster).isEqualTo(URI.create("http://localhost:8083"));
+        assertThat(read.takenAt).isEqualTo(snapshot.takenAt);
+        assertThat(read.connectors).containsExactly(Map.entry("failed", "FAILED"), Map.entry("paused", "PAUSED"), Map.entry("running", "RUNNING"));
+        assertThat(read.getUnpausedConnectors()).containsExactly("failed", "running");
+        assertThat(read.getConnectors("RUNNING")).containsExactly("running");
+    }
+
+    @Test
+    void should_not_overwrite_existing_snapshot() throws IOException {
+        File file = tempDir.resolve("snapshot.json").toFile();
+        PauseSnapshot.take("local", null, snapshot(status("a", "RUNNING")), List.of("a")).write(file);
+
+        PauseSnapshot paused = PauseSnapshot.take("local", null, snapshot(status("a", "PAUSED")), List.of("a"));
+
+        assertThatThrownBy(() -> paused.write(file)).isInstanceOf(IOException.class).hasMessageContaining("exists already");
+        assertThat(PauseSnapshot.read(file).connectors).containsEntry("a", "RUNNING");
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.service.RestartPlan.Restart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.kcctl.service.ConnectorFixtures.snapshot;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class RestartPlanTest {
+
+    @Test
+    void should_plan_restart_of_failed_connectors_and_tasks() {
+        ClusterSnapshot snapshot = snapshot(
+                status("healthy", "RUNNING", "RUNNING", "RUNNING"),
+                status("failed-connector", "FAILED"),
+                status("failed-tasks", "RUNNING", "FAILED", "RUNNING", "FAILED"),
+                status("paused", "PAUSED", "PAUSED"),
+                status("all-failed", "FAILED", "FAILED"));
+
+        RestartPlan plan = RestartPlan.forFailed(snapshot);
+
+        assertThat(plan.getRestarts()).extracting(Restart::getConnector, Restart::getDescription).containsExactly(
+                tuple("failed-connector", "connector"),
+                tuple("failed-tasks", "tasks 0, 2"),
+                tuple("all-failed", "connector, task 0"));
+        assertThat(plan.getConnectorCount()).isEqualTo(2);
+        assertThat(plan.getTaskCount()).isEqualTo(3);
+    }
+
+    @Test
+    void should_plan_nothing_for_healthy_cluster() {
+        assertThat(RestartPlan.forFailed(snapshot(status("healthy", "RUNNING", "RUNNING"))).getRestarts()).isEmpty();
+    }
+}
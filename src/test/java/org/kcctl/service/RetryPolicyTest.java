@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ProcessingException;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.service.RetryPolicy.Classification;
+import org.kcctl.util.Futures;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class RetryPolicyTest {
+
+    private static final String REBALANCE = "Cannot complete request because of a conflicting operation (e.g. worker rebalance)";
+
+    private final List<Long> backoffs = new ArrayList<>();
+
+    @Test
+    void should_classify_errors() {
+        assertThat(RetryPolicy.classify(new KafkaConnectException(REBALANCE, 409))).isEqualTo(Classification.RETRYABLE);
+        assertThat(RetryPolicy.classify(new KafkaConnectException("Connector my-connector already exists", 409))).isEqualTo(Classification.FATAL);
+        assertThat(RetryPolicy.classify(new KafkaConnectException("Request timed out", 500))).isEqualTo(Classification.RETRYABLE_IF_IDEMPOTENT);
+        assertThat(RetryPolicy.classify(new KafkaConnectException("Service unavailable", 503))).isEqualTo(Classification.RETRYABLE_IF_IDEMPOTENT);
+        assertThat(RetryPolicy.classify(new KafkaConnectException("Connector my-connector not found", 404))).isEqualTo(Classification.FATAL);
+        assertThat(RetryPolicy.classify(new KafkaConnectException("Invalid configuration", 400))).isEqualTo(Classification.FATAL);
+        assertThat(RetryPolicy.classify(new ProcessingException(new ConnectException("Connection refused")))).isEqualTo(Classification.RETRYABLE);
+        assertThat(RetryPolicy.classify(new ProcessingException(new SocketTimeoutException("Read timed out"))))
+                .isEqualTo(Classification.RETRYABLE_IF_IDEMPOTENT);
+        assertThat(RetryPolicy.classify(new ProcessingException(new IllegalStateException()))).isEqualTo(Classification.FATAL);
+        assertThat(RetryPolicy.classify(new IllegalArgumentException())).isEqualTo(Classification.FATAL);
+    }
+
+    @Test
+    void should_retry_idempotent_requests_with_increasing_backoff() {
+        RetryPolicy policy = policy(5, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = policy.execute(HttpMethod.GET, () -> {
+            if (attempts.incrementAndGet() < 4) {
+                throw new ProcessingException(new SocketTimeoutException("Read timed out"));
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(backoffs).hasSize(3);
+        assertThat(backoffs.get(0)).isBetween(100L, 200L);
+        assertThat(backoffs.get(2)).isBetween(400L, 800L);
+    }
+
+    @Test
+    void should_not_retry_create_which_may_have_been_applied() {
+        RetryPolicy policy = policy(5, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> policy.execute(HttpMethod.POST, () -> {
+            attempts.incrementAndGet();
+            throw new ProcessingException(new SocketTimeoutException("Read timed out"));
+        })).isInstanceOf(ProcessingException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void should_retry_create_which_was_not_applied() {
+        RetryPolicy policy = policy(5, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = policy.execute(HttpMethod.POST, () -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                throw new KafkaConnectException(REBALANCE, 409);
+            }
+            else if (attempt == 2) {
+                throw new ProcessingException(new IOException(new ConnectException("Connection refused")));
+            }
+            return "created";
+        });
+
+        assertThat(result).isEqualTo("created");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void should_consider_retried_delete_of_missing_connector_successful() {
+        RetryPolicy policy = policy(5, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        Object result = policy.execute(HttpMethod.DELETE, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ProcessingException(new SocketTimeoutException("Read timed out"));
+            }
+            throw new KafkaConnectException("Connector my-connector not found", 404);
+        });
+
+        assertThat(result).isNull();
+        assertThat(attempts).hasValue(2);
+
+        assertThatThrownBy(() -> policy.execute(HttpMethod.DELETE, () -> {
+            throw new KafkaConnectException("Connector my-connector not found", 404);
+        })).hasMessage("Connector my-connector not found");
+
+        RetryPolicy async = new RetryPolicy(3, RetryPolicy.DEFAULT_TIMEOUT, Duration.ofMillis(1));
+        AtomicInteger asyncAttempts = new AtomicInteger();
+
+        Void deleted = Futures.join(async.executeAsync(HttpMethod.DELETE, () -> CompletableFuture.failedFuture(asyncAttempts.incrementAndGet() == 1
+                ? new KafkaConnectException("Request timed out", 500)
+                : new KafkaConnectException("Connector my-connector not found", 404))));
+
+        assertThat(deleted).isNull();
+        assertThat(asyncAttempts).hasValue(2);
+    }
+
+    @Test
+    void should_give_up_after_max_retries_or_timeout() {
+        RetryPolicy policy = policy(2, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> policy.execute(HttpMethod.GET, () -> {
+            attempts.incrementAndGet();
+            throw new KafkaConnectException(REBALANCE, 409);
+        })).hasMessage(REBALANCE);
+        assertThat(attempts).hasValue(3);
+        assertThat(backoffs).hasSize(2);
+
+        backoffs.clear();
+        RetryPolicy expired = policy(5, Duration.ZERO);
+        assertThatThrownBy(() -> expired.execute(HttpMethod.GET, () -> {
+            throw new KafkaConnectException(REBALANCE, 409);
+        })).hasMessage(REBALANCE);
+        assertThat(backoffs).isEmpty();
+    }
+
+    @Test
+    void should_leave_rebalances_to_caller_if_requested() {
+        RetryPolicy policy = policy(5, RetryPolicy.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> RetryPolicy.withRebalancesHandledByCaller(() -> policy.execute(HttpMethod.PUT, () -> {
+            attempts.incrementAndGet();
+            throw new KafkaConnectException(REBALANCE, 409);
+        }))).hasMessage(REBALANCE);
+        assertThat(attempts).hasValue(1);
+
+        String result = RetryPolicy.withRebalancesHandledByCaller(() -> policy.execute(HttpMethod.PUT, () -> {
+            if (attempts.incrementAndGet() == 2) {
+                throw new ProcessingException(new ConnectException("Connection refused"));
+            }
+            return "done";
+        }));
+        assertThat(result).isEqualTo("done");
+    }
+
+    @Test
+    void should_retry_async_requests() {
+        RetryPolicy policy = new RetryPolicy(3, RetryPolicy.DEFAULT_TIMEOUT, Duration.ofMillis(1));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = Futures.join(policy.executeAsync(HttpMethod.GET, () -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new KafkaConnectException("Request timed out", 500))
+                : CompletableFuture.completedFuture("done")));
+
+        assertThat(result).isEqualTo("done");
+
+        assertThatThrownBy(() -> Futures.join(policy.executeAsync(HttpMethod.POST,
+                () -> CompletableFuture.failedFuture(new KafkaConnectException("Request timed out", 500)))))
+                        .isInstanceOf(KafkaConnectException.class)
+                        .hasMessage("Request timed out");
+    }
+
+    private RetryPolicy policy(int maxRetries, Duration timeout) {
+        return new RetryPolicy(maxRetries, timeout, RetryPolicy.DEFAULT_INITIAL_BACKOFF, backoffs::add);
+    }
+}
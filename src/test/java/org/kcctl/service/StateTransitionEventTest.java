@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class StateTransitionEventTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void should_serialize_connector_transition() throws Exception {
+        StateTransition transition = new StateTransition("my-connector", null, "RUNNING", "PAUSED", "worker-1:8083", null);
+
+        assertThat(mapper.writeValueAsString(new StateTransitionEvent(Instant.parse("2021-11-01T10:15:30Z"), transition))).isEqualTo(
+                "{\"time\":\"2021-11-01T10:15:30Z\",\"connector\":\"my-connector\",\"old_state\":\"RUNNING\",\"new_state\":\"PAUSED\",\"worker_id\":\"worker-1:8083\"}");
+    }
+
+    @Test
+    void should_hash_trace_of_failed_task() {
+        String trace = "org.apache.kafka.connect.errors.ConnectException: Boom\n\tat Foo.bar(Foo.java:42)";
+
+        StateTransitionEvent event = new StateTransitionEvent(Instant.now(), new StateTransition("my-connector", 1, "RUNNING", "FAILED", "worker-1:8083", trace));
+        StateTransitionEvent sameCause = new StateTransitionEvent(Instant.now(), new StateTransition("other", 0, "RUNNING", "FAILED", "worker-2:8083", trace));
+
+        assertThat(event.task).isEqualTo(1);
+        assertThat(event.trace_hash).hasSize(16).matches("[0-9a-f]+").isEqualTo(sameCause.trace_hash);
+        assertThat(StateTransitionEvent.hash(trace + "!")).isNotEqualTo(event.trace_hash);
+    }
+}
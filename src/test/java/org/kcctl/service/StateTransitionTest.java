@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class StateTransitionTest {
+
+    @Test
+    void should_determine_transitions_of_connectors_and_tasks() {
+        ConnectorStatusInfo failing = status("failing", "RUNNING", "RUNNING", "FAILED");
+        failing.tasks.get(1).worker_id = "worker-2:8083";
+        failing.tasks.get(1).trace = "java.lang.IllegalStateException";
+
+        Map<String, ConnectorStatusInfo> previous = Map.of(
+                "unchanged", status("unchanged", "RUNNING", "RUNNING"),
+                "failing", status("failing", "RUNNING", "RUNNING", "RUNNING"),
+                "paused", status("paused", "RUNNING", "RUNNING"),
+                "deleted", status("deleted", "RUNNING", "RUNNING"));
+        Map<String, ConnectorStatusInfo> current = Map.of(
+                "unchanged", status("unchanged", "RUNNING", "RUNNING"),
+                "failing", failing,
+                "paused", status("paused", "PAUSED", "PAUSED"),
+                "created", status("created", "RUNNING"));
+
+        List<StateTransition> transitions = StateTransition.between(previous, current);
+
+        assertThat(transitions).extracting(StateTransition::getConnector, StateTransition::getTask, StateTransition::getOldState, StateTransition::getNewState)
+                .containsExactly(
+                        tuple("created", null, null, "RUNNING"),
+                        tuple("deleted", null, "RUNNING", null),
+                        tuple("deleted", 0, "RUNNING", null),
+                        tuple("failing", 1, "RUNNING", "FAILED"),
+                        tuple("paused", null, "RUNNING", "PAUSED"),
+                        tuple("paused", 0, "RUNNING", "PAUSED"));
+        assertThat(transitions.get(3).getWorkerId()).isEqualTo("worker-2:8083");
+        assertThat(transitions.get(3).getTrace()).isEqualTo("java.lang.IllegalStateException");
+        assertThat(transitions.get(4)).hasToString("paused: RUNNING -> PAUSED");
+    }
+
+    @Test
+    void should_determine_no_transitions_for_same_states() {
+        Map<String, ConnectorStatusInfo> statuses = Map.of("a", status("a", "RUNNING", "RUNNING"));
+
+        assertThat(StateTransition.between(statuses, Map.of("a", status("a", "RUNNING", "RUNNING")))).isEmpty();
+    }
+}
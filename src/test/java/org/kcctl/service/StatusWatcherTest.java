@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.kcctl.service.ConnectorFixtures.status;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class StatusWatcherTest {
+
+    private static final KafkaConnectException REBALANCE = new KafkaConnectException("Cannot complete request momentarily due to stale configuration",
+            HttpStatus.SC_CONFLICT);
+
+    @TempDir
+    File tempDir;
+
+    FakeKafkaConnectApi api = new FakeKafkaConnectApi();
+    List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void should_poll_less_often_while_nothing_changes() {
+        api.withConnectors(status("a", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"))
+                .then(status("a", "RUNNING", "RUNNING"))
+                .then(status("a", "PAUSED", "PAUSED"))
+                .then(status("a", "PAUSED", "PAUSED"));
+        RecordingListener listener = new RecordingListener(6);
+
+        watcher().watch(listener);
+
+        assertThat(listener.transitions).containsExactly(0, 0, 0, 0, 2, 0);
+        assertThat(sleeps).containsExactly(1000L, 1500L, 2250L, 3375L, 1000L);
+    }
+
+    @Test
+    void should_poll_each_connector_if_expand_api_is_not_supported() {
+        api.withVersion("2.2.0")
+                .withConnectors(status("a", "RUNNING", "RUNNING"), status("b", "RUNNING"))
+                .then(status("a", "RUNNING", "FAILED"), status("b", "RUNNING"));
+        RecordingListener listener = new RecordingListener(2);
+
+        watcher().watch(listener);
+
+        assertThat(listener.transitions).containsExactly(0, 1);
+        assertThat(api.getRequests("getConnectors")).isEqualTo(2);
+        assertThat(api.getRequests("getConnectorStatus")).isEqualTo(4);
+    }
+
+    @Test
+    void should_pause_polling_during_rebalance() {
+        api.withConnectors(status("a", "RUNNING", "RUNNING"))
+                .thenFail(REBALANCE)
+                .thenFail(REBALANCE)
+                .thenFail(REBALANCE)
+                .thenFail(REBALANCE)
+                .then(status("a", "RUNNING", "RUNNING"));
+        RecordingListener listener = new RecordingListener(6);
+
+        watcher().watch(listener);
+
+        assertThat(listener.rebalances).isEqualTo(4);
+        assertThat(sleeps).containsExactly(1000L, 2000L, 4000L, 5000L, 5000L);
+    }
+
+    @Test
+    void should_fail_on_other_errors() {
+        api.withConnectors()
+                .thenFail(new KafkaConnectException("Internal server error", HttpStatus.SC_INTERNAL_SERVER_ERROR));
+
+        assertThatThrownBy(() -> watcher().watch(new RecordingListener(3))).isInstanceOf(KafkaConnectException.class);
+    }
+
+    private StatusWatcher watcher() {
+        return new StatusWatcher(api, api.getCapabilities(tempDir), new FanOutExecutor(4), Duration.ofSeconds(1), Duration.ofSeconds(5), millis -> {
+            sleeps.add(millis);
+            api.advance();
+        });
+    }
+
+    private static class RecordingListener implements StatusWatcher.Listener {
+
+        private final int maxInvocations;
+        private final List<Integer> transitions = new ArrayList<>();
+        private int rebalances;
+
+        RecordingListener(int maxInvocations) {
+            this.maxInvocations = maxInvocations;
+        }
+
+        @Override
+        public boolean onUpdate(Map<String, ConnectorStatusInfo> statuses, List<StateTransition> transitions, long nextPollMs) {
+            this.transitions.add(transitions.size());
+            return this.transitions.size() + rebalances < maxInvocations;
+        }
+
+        @Override
+        public boolean onRebalance(KafkaConnectException e, long nextPollMs) {
+            rebalances++;
+            return transitions.size() + rebalances < maxInvocations;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.service.SyncPlan.Action;
+import org.kcctl.service.SyncPlan.Change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.kcctl.service.ConnectorFixtures.snapshot;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class SyncPlanTest {
+
+    private final ClusterSnapshot snapshot = snapshot(
+            connector("unchanged", Map.of("connector.class", "A", "tasks.max", "1", "name", "unchanged")),
+            connector("changed", Map.of("connector.class", "A", "tasks.max", "1", "name", "changed")),
+            connector("obsolete", Map.of("connector.class", "A", "name", "obsolete")));
+
+    @Test
+    void should_plan_creates_updates_and_unchanged_connectors() {
+        SyncPlan plan = SyncPlan.compute(desired(), snapshot, false);
+
+        assertThat(plan.getChanges()).extracting(Change::getConnector, Change::getAction).containsExactly(
+                tuple("new", Action.CREATE),
+                tuple("changed", Action.UPDATE),
+                tuple("unchanged", Action.UNCHANGED));
+        assertThat(plan.getChanges(Action.UPDATE).get(0).getChangedProperties()).containsExactly("tasks.max", "topics");
+        assertThat(plan.getUnmanaged()).containsExactly("obsolete");
+        assertThat(plan.hasChanges()).isTrue();
+    }
+
+    @Test
+    void should_plan_deletes_last_when_pruning() {
+        SyncPlan plan = SyncPlan.compute(desired(), snapshot, true);
+
+        assertThat(plan.getChanges()).last().satisfies(change -> {
+            assertThat(change.getConnector()).isEqualTo("obsolete");
+            assertThat(change.getAction()).isEqualTo(Action.DELETE);
+        });
+        assertThat(plan.getUnmanaged()).isEmpty();
+        assertThat(plan.getCounts()).containsExactly(
+                Map.entry(Action.CREATE, 1),
+                Map.entry(Action.UPDATE, 1),
+                Map.entry(Action.UNCHANGED, 1),
+                Map.entry(Action.DELETE, 1));
+    }
+
+    @Test
+    void should_have_no_changes_if_cluster_matches() {
+        Map<String, Map<String, Object>> desired = new LinkedHashMap<>();
+        desired.put("unchanged", Map.of("connector.class", "A", "tasks.max", 1));
+
+        assertThat(SyncPlan.compute(desired, snapshot(connector("unchanged", Map.of("connector.class", "A", "tasks.max", "1"))), true)
+                .hasChanges()).isFalse();
+    }
+
+    private static Map<String, Map<String, Object>> desired() {
+        Map<String, Map<String, Object>> desired = new LinkedHashMap<>();
+        desired.put("new", Map.of("connector.class", "A"));
+        desired.put("changed", Map.of("connector.class", "A", "tasks.max", 2, "topics", "t"));
+        desired.put("unchanged", Map.of("connector.class", "A", "tasks.max", 1));
+        return desired;
+    }
+
+    private static ConnectorInfo connector(String name, Map<String, String> config) {
+        ConnectorInfo info = new ConnectorInfo();
+        info.name = name;
+        info.config = config;
+        return info;
+    }
+}
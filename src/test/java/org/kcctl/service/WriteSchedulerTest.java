@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class WriteSchedulerTest {
+
+    private static final String STALE_CONFIG = "Cannot complete request momentarily due to stale configuration (typically caused by a concurrent config change)";
+
+    private final List<Long> backoffs = new ArrayList<>();
+
+    @Test
+    void should_retry_writes_rejected_during_rebalance() {
+        WriteScheduler scheduler = scheduler(4, WriteScheduler.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = scheduler.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new KafkaConnectException(STALE_CONFIG, 409);
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(backoffs).hasSize(2);
+        assertThat(backoffs.get(1)).isGreaterThanOrEqualTo(100);
+        assertThat(scheduler.getRejected()).isEqualTo(2);
+        assertThat(scheduler.getWrites()).isEqualTo(1);
+        assertThat(scheduler.getMinConcurrency()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_retry_other_failures() {
+        WriteScheduler scheduler = scheduler(4, WriteScheduler.DEFAULT_TIMEOUT);
+
+        assertThatThrownBy(() -> scheduler.execute(() -> {
+            throw new KafkaConnectException("Connector my-connector already exists", 409);
+        })).hasMessageContaining("already exists");
+        assertThat(backoffs).isEmpty();
+    }
+
+    @Test
+    void should_give_up_after_timeout() {
+        WriteScheduler scheduler = scheduler(4, Duration.ZERO);
+
+        assertThatThrownBy(() -> scheduler.execute(() -> {
+            throw new KafkaConnectException(STALE_CONFIG, 409);
+        })).hasMessage(STALE_CONFIG);
+    }
+
+    @Test
+    void should_halve_concurrency_upon_rebalance_and_increase_it_additively() {
+        WriteScheduler scheduler = scheduler(8, WriteScheduler.DEFAULT_TIMEOUT);
+        AtomicInteger attempts = new AtomicInteger();
+
+        scheduler.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new KafkaConnectException("Request cannot be completed because a rebalance is expected", 409);
+            }
+        });
+        assertThat(scheduler.getConcurrency()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            scheduler.execute(() -> {
+            });
+        }
+        assertThat(scheduler.getConcurrency()).isEqualTo(5);
+    }
+
+    @Test
+    void should_limit_concurrent_writes() throws InterruptedException {
+        WriteScheduler scheduler = new WriteScheduler(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> scheduler.execute(() -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+            }));
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(peak.get()).isEqualTo(2);
+        assertThat(scheduler.getWrites()).isEqualTo(8);
+        assertThat(scheduler.getThroughput()).isPositive();
+    }
+
+    private WriteScheduler scheduler(int maxConcurrency, Duration timeout) {
+        return new WriteScheduler(maxConcurrency, timeout, backoffs::add);
+    }
+}
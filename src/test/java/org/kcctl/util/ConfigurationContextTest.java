@@ -190,6 +190,41 @@ class ConfigurationContextTest {
         }
     }
 
+    @Nested
+    class Caching {
+        @Test
+        void should_read_the_configuration_file_only_once() throws IOException {
+            var configFile = tempDir.toPath().resolve(".kcctl");
+
+            Files.writeString(configFile, "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }}");
+
+            var configurationContext = new ConfigurationContext(tempDir);
+            var context = configurationContext.getCurrentContext();
+
+            Files.writeString(configFile, "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://other:8083\" }}");
+
+            assertThat(configurationContext.getCurrentContext()).isSameAs(context);
+            assertThat(configurationContext.getCurrentContext().getCluster()).isEqualTo(URI.create("http://localhost:8083"));
+        }
+
+        @Test
+        void should_reload_the_configuration_after_changing_it() throws IOException {
+            var configFile = tempDir.toPath().resolve(".kcctl");
+
+            Files.writeString(configFile, "{ \"currentContext\": \"local\", \"local\": { \"cluster\": \"http://localhost:8083\" }}");
+
+            var configurationContext = new ConfigurationContext(tempDir);
+            assertThat(configurationContext.getCurrentContextName()).isEqualTo("local");
+
+            configurationContext.setContext("preprod", new Context(URI.create("http://preprod:8083"), null, null, "mickey", "p@ssword", null));
+            configurationContext.setCurrentContext("preprod");
+
+            assertThat(configurationContext.getCurrentContextName()).isEqualTo("preprod");
+            assertThat(configurationContext.getContexts()).containsOnlyKeys("local", "preprod");
+            assertThat(configurationContext.getCurrentContext().getAuthorizationHeader()).isEqualTo("Basic bWlja2V5OnBAc3N3b3Jk");
+        }
+    }
+
     static Stream<Arguments> setConfigurationArguments() {
         return Stream.of(
                 arguments(
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class FilePatternsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        Files.createDirectories(tempDir.resolve("connectors/sinks"));
+        Files.writeString(tempDir.resolve("connectors/b.json"), "{}");
+        Files.writeString(tempDir.resolve("connectors/a.json"), "{}");
+        Files.writeString(tempDir.resolve("connectors/notes.txt"), "");
+        Files.writeString(tempDir.resolve("connectors/sinks/c.json"), "{}");
+    }
+
+    @Test
+    void should_expand_directories_to_contained_files() throws IOException {
+        assertThat(FilePatterns.expand(List.of(file("connectors")), ".json"))
+                .containsExactly(file("connectors/a.json"), file("connectors/b.json"));
+    }
+
+    @Test
+    void should_expand_patterns() throws IOException {
+        assertThat(FilePatterns.expand(List.of(file("connectors/*.json")), ".json"))
+                .containsExactly(file("connectors/a.json"), file("connectors/b.json"));
+        assertThat(FilePatterns.expand(List.of(file("connectors/**.json")), ".json"))
+                .containsExactly(file("connectors/a.json"), file("connectors/b.json"), file("connectors/sinks/c.json"));
+        assertThat(FilePatterns.expand(List.of(file("*/sinks/*.json")), ".json"))
+                .containsExactly(file("connectors/sinks/c.json"));
+    }
+
+    @Test
+    void should_keep_files_as_given_and_remove_duplicates() throws IOException {
+        assertThat(FilePatterns.expand(List.of(file("connectors/b.json"), file("missing.json"), file("connectors/*.json")), ".json"))
+                .containsExactly(file("connectors/b.json"), file("missing.json"), file("connectors/a.json"));
+    }
+
+    @Test
+    void should_return_nothing_for_unmatched_patterns() throws IOException {
+        assertThat(FilePatterns.expand(List.of(file("connectors/*.yaml"), file("missing/*.json")), ".json")).isEmpty();
+    }
+
+    private File file(String path) {
+        return tempDir.resolve(path).toFile();
+    }
+}
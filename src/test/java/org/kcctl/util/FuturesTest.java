@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class FuturesTest {
+
+    @Test
+    void should_return_result_of_completed_stage() {
+        assertThat(Futures.join(CompletableFuture.completedFuture("value"))).isEqualTo("value");
+    }
+
+    @Test
+    void should_rethrow_original_exception() {
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertThatThrownBy(() -> Futures.join(CompletableFuture.failedFuture(failure))).isSameAs(failure);
+    }
+
+    @Test
+    void should_unwrap_nested_exceptions() {
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertThat(Futures.unwrap(new CompletionException(new ExecutionException(failure)))).isSameAs(failure);
+    }
+
+    @Test
+    void should_wrap_checked_exceptions() {
+        IOException failure = new IOException("boom");
+
+        assertThat(Futures.unwrap(new CompletionException(failure))).hasCause(failure);
+    }
+}
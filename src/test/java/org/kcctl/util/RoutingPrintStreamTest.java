@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class RoutingPrintStreamTest {
+
+    @Test
+    void should_write_to_routed_stream_and_fall_back_afterwards() {
+        ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+        ByteArrayOutputStream routed = new ByteArrayOutputStream();
+
+        RoutingPrintStream stream = new RoutingPrintStream(new PrintStream(fallback, true, StandardCharsets.UTF_8));
+        stream.print("one ");
+        stream.route(new PrintStream(routed, true, StandardCharsets.UTF_8));
+        stream.print("two");
+        stream.route(null);
+        stream.print("three");
+        stream.flush();
+
+        assertThat(fallback.toString(StandardCharsets.UTF_8)).isEqualTo("one three");
+        assertThat(routed.toString(StandardCharsets.UTF_8)).isEqualTo("two");
+    }
+
+    @Test
+    void should_route_output_per_thread() throws Exception {
+        ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        RoutingPrintStream stream = new RoutingPrintStream(new PrintStream(fallback, true, StandardCharsets.UTF_8));
+        CountDownLatch routed = new CountDownLatch(2);
+        CountDownLatch written = new CountDownLatch(2);
+
+        Thread one = new Thread(() -> writeRouted(stream, first, "one", routed, written));
+        Thread two = new Thread(() -> writeRouted(stream, second, "two", routed, written));
+        one.start();
+        two.start();
+        one.join();
+        two.join();
+
+        stream.print("main");
+        stream.flush();
+
+        assertThat(first.toString(StandardCharsets.UTF_8)).isEqualTo("one");
+        assertThat(second.toString(StandardCharsets.UTF_8)).isEqualTo("two");
+        assertThat(fallback.toString(StandardCharsets.UTF_8)).isEqualTo("main");
+    }
+
+    @Test
+    void should_route_output_of_threads_started_by_routed_thread() throws Exception {
+        ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+        ByteArrayOutputStream routed = new ByteArrayOutputStream();
+
+        RoutingPrintStream stream = new RoutingPrintStream(new PrintStream(fallback, true, StandardCharsets.UTF_8));
+        stream.routeCurrentThread(new PrintStream(routed, true, StandardCharsets.UTF_8));
+        try {
+            Thread helper = new Thread(() -> stream.print("helper"));
+            helper.start();
+            helper.join();
+        }
+        finally {
+            stream.routeCurrentThread(null);
+        }
+        stream.flush();
+
+        assertThat(routed.toString(StandardCharsets.UTF_8)).isEqualTo("helper");
+        assertThat(fallback.toString(StandardCharsets.UTF_8)).isEmpty();
+    }
+
+    private static void writeRouted(RoutingPrintStream stream, ByteArrayOutputStream target, String text, CountDownLatch routed,
+                                    CountDownLatch written) {
+        try {
+            stream.routeCurrentThread(new PrintStream(target, true, StandardCharsets.UTF_8));
+            routed.countDown();
+            routed.await();
+
+            stream.print(text);
+            stream.flush();
+
+            written.countDown();
+            written.await();
+            stream.routeCurrentThread(null);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
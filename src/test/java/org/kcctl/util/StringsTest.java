@@ -16,6 +16,7 @@
 package org.kcctl.util;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
 
 import org.junit.jupiter.api.Nested;
@@ -23,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StringsTest {
@@ -100,4 +102,33 @@ public class StringsTest {
             assertEquals(true, props.isEmpty());
         }
     }
+
+    @Nested
+    public class SplitArguments {
+        @Test
+        public void whitespaceSeparatesArguments() {
+            assertEquals(List.of("describe", "connector", "my-connector"), Strings.splitArguments("  describe connector\tmy-connector "));
+        }
+
+        @Test
+        public void quotesGroupArguments() {
+            assertEquals(List.of("patch", "connector", "a", "-s", "topics=a b", "-s", "x=\"y\""),
+                    Strings.splitArguments("patch connector a -s 'topics=a b' -s \"x=\\\"y\\\"\""));
+        }
+
+        @Test
+        public void backslashEscapesCharacters() {
+            assertEquals(List.of("a b", "c"), Strings.splitArguments("a\\ b c"));
+        }
+
+        @Test
+        public void emptyQuotesAreArguments() {
+            assertEquals(List.of("a", ""), Strings.splitArguments("a ''"));
+        }
+
+        @Test
+        public void unterminatedQuoteIsRejected() {
+            assertThrows(IllegalArgumentException.class, () -> Strings.splitArguments("a 'b"));
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2021 The original authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.kcctl.util;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.kcctl.util.Timings.Report;
+import org.kcctl.util.Timings.Request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class TimingsTest {
+
+    @Test
+    void should_record_nothing_unless_started() {
+        Timings timings = new Timings();
+        timings.recordPhase(Timings.CONFIG_LOAD, 1_000);
+        timings.recordRequest(request(0, 10));
+
+        timings.start();
+        Report report = timings.stop();
+
+        assertThat(report.getPhases()).containsOnlyKeys(Timings.RENDER, Timings.TOTAL);
+        assertThat(report.getRequests()).isEmpty();
+    }
+
+    @Test
+    void should_report_phases_in_order() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordPhase(Timings.CLIENT_BUILD, 2_000);
+        timings.recordPhase(Timings.CONFIG_LOAD, 1_000);
+        timings.recordPhase(Timings.STARTUP, 5_000);
+        timings.recordRequest(request(System.nanoTime(), 10));
+
+        Report report = timings.stop();
+
+        assertThat(report.getPhases().keySet()).containsExactly(Timings.STARTUP, Timings.CONFIG_LOAD, Timings.CLIENT_BUILD, Timings.REQUESTS,
+                Timings.RENDER, Timings.TOTAL);
+        assertThat(report.getPhases().get(Timings.CONFIG_LOAD)).isEqualTo(1_000);
+        assertThat(report.getPhases().get(Timings.REQUESTS)).isEqualTo(10);
+    }
+
+    @Test
+    void should_sum_up_repeated_phases() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordPhase(Timings.CLIENT_BUILD, 2_000);
+        timings.recordPhase(Timings.CLIENT_BUILD, 3_000);
+
+        assertThat(timings.stop().getPhases().get(Timings.CLIENT_BUILD)).isEqualTo(5_000);
+    }
+
+    @Test
+    void should_sort_requests_by_start() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordRequest(request(300, 10));
+        timings.recordRequest(request(100, 500));
+        timings.recordRequest(request(200, 10));
+
+        Report report = timings.stop();
+
+        assertThat(report.getRequests()).extracting(Request::getStartNanos).containsExactly(100L, 200L, 300L);
+        // from the first start until the last end
+        assertThat(report.getPhases().get(Timings.REQUESTS)).isEqualTo(500);
+    }
+
+    @Test
+    void should_determine_peak_concurrency() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordRequest(request(0, 100));
+        timings.recordRequest(request(10, 20));
+        timings.recordRequest(request(20, 50));
+        // starts once the first one has ended
+        timings.recordRequest(request(100, 10));
+
+        assertThat(timings.stop().getPeakConcurrency()).isEqualTo(3);
+    }
+
+    @Test
+    void should_drop_requests_beyond_limit() {
+        Timings timings = new Timings();
+        timings.start();
+        for (int i = 0; i < Timings.MAX_REQUESTS + 5; i++) {
+            timings.recordRequest(request(i, 1));
+        }
+
+        Report report = timings.stop();
+
+        assertThat(report.getRequests()).hasSize(Timings.MAX_REQUESTS);
+        assertThat(report.getDroppedRequests()).isEqualTo(5);
+    }
+
+    @Test
+    void should_discard_previous_command_when_started() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordPhase(Timings.CONFIG_LOAD, 1_000);
+        timings.recordRequest(request(0, 10));
+        timings.stop();
+
+        timings.start();
+
+        assertThat(timings.stop().getRequests()).isEmpty();
+    }
+
+    @Test
+    void should_keep_recordings_of_concurrent_commands_apart() throws Exception {
+        Timings timings = new Timings();
+        timings.start();
+
+        Report[] other = new Report[1];
+        Thread thread = new Thread(null, () -> {
+            timings.start();
+            timings.recordRequest(request(0, 10));
+            other[0] = timings.stop();
+        }, "other-command", 0, false);
+        thread.start();
+        thread.join();
+
+        assertThat(other[0].getRequests()).hasSize(1);
+        assertThat(timings.stop().getRequests()).isEmpty();
+    }
+
+    @Test
+    void should_record_requests_of_helper_threads_and_propagated_tasks() throws Exception {
+        Timings timings = new Timings();
+        timings.start();
+
+        Thread helper = new Thread(() -> timings.recordRequest(request(0, 10)));
+        helper.start();
+        helper.join();
+
+        Runnable task = timings.propagate(() -> timings.recordRequest(request(20, 10)));
+        Thread pooled = new Thread(null, task, "pooled", 0, false);
+        pooled.start();
+        pooled.join();
+
+        assertThat(timings.stop().getRequests()).extracting(Request::getStartNanos).containsExactly(0L, 20L);
+        assertThat(timings.isEnabled()).isFalse();
+    }
+
+    @Test
+    void should_resume_enclosing_recording_when_stopped() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.start();
+        timings.recordRequest(request(0, 10));
+        timings.stop();
+
+        timings.recordRequest(request(20, 10));
+
+        assertThat(timings.stop().getRequests()).extracting(Request::getStartNanos).containsExactly(20L);
+    }
+
+    @Test
+    void should_record_failed_requests_with_error() {
+        Timings timings = new Timings();
+        timings.start();
+        timings.recordRequest(Request.failed("GET", "http://localhost:8083", "/connectors", 100, 600, "Connection refused"));
+
+        Request failed = timings.stop().getRequests().get(0);
+
+        assertThat(failed.getError()).isEqualTo("Connection refused");
+        assertThat(failed.getStatus()).isZero();
+        assertThat(failed.getTotalNanos()).isEqualTo(500);
+    }
+
+    private static Request request(long startNanos, long durationNanos) {
+        return new Request("GET", "http://localhost:8083", "/connectors", 200, 42, startNanos, startNanos + durationNanos / 2, startNanos + durationNanos);
+    }
+}